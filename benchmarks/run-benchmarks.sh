@@ -0,0 +1,14 @@
+#!/usr/bin/env sh
+# Builds the project and the benchmarks, then runs them and writes JSON results to
+# benchmarks/results/<commit>.json so runs from two builds can be diffed.
+# Any arguments are passed on to JMH, e.g. ./run-benchmarks.sh ChangeBenchmark -p denominations=coins
+set -e
+
+cd "$(dirname "$0")"
+(cd .. && mvn -B -q install -DskipTests)
+mvn -B -q package
+
+mkdir -p results
+commit=$(git rev-parse --short HEAD 2>/dev/null || echo local)
+java -jar target/benchmarks.jar -rf json -rff "results/$commit.json" "$@"
+echo "Results written to benchmarks/results/$commit.json"
@@ -0,0 +1,78 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Change-making across denomination sets: Money.getChange end to end, and the table-driven
+ * solver against the greedy one it replaced, with and without a coin landing before each query.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ChangeBenchmark {
+    private static final Map<String, int[]> DENOMINATION_SETS = Map.of(
+            "coins", new int[]{200, 100, 25, 10, 5},
+            "bills", new int[]{2000, 1000, 500, 200, 100, 50, 25, 10, 5},
+            "standard", new int[]{10000, 5000, 2000, 1000, 500, 200, 100, 50, 25, 10, 5, 1});
+
+    @Param({"coins", "bills", "standard"})
+    public String denominations;
+
+    private int[] denoms;
+    private int[] counts;
+    private int[] change;
+    private long[] amounts;
+    private ChangeMaker changeMaker;
+    private Money money;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        denoms = DENOMINATION_SETS.get(denominations);
+        counts = new int[denoms.length];
+        money = new Money();
+        for (int i = 0; i < denoms.length; i++) {
+            counts[i] = 5 + random.nextInt(20);
+            money.add(denoms[i], counts[i]);
+        }
+        amounts = new long[1024];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = 5L * random.nextInt(400);
+        }
+        change = new int[denoms.length];
+        changeMaker = new ChangeMaker();
+    }
+
+    @Benchmark
+    public Map<Double, Integer> getChange() {
+        return money.getChange(amounts[next++ & 1023] / 100.0);
+    }
+
+    @Benchmark
+    public boolean greedy() {
+        return ChangeMaker.greedy(denoms, counts, denoms.length, amounts[next++ & 1023], change);
+    }
+
+    @Benchmark
+    public boolean tables() {
+        return changeMaker.solve(denoms, counts, denoms.length, amounts[next++ & 1023], change);
+    }
+
+    /**
+     * Every query follows a coin landing in the smallest slot, as happens when buyers pay with coins.
+     */
+    @Benchmark
+    public boolean tablesWithUpdates() {
+        int last = denoms.length - 1;
+        counts[last]++;
+        return changeMaker.solve(denoms, counts, denoms.length, amounts[next++ & 1023], change);
+    }
+}
@@ -0,0 +1,76 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Dispense throughput with no journal, with a journal of sales, and with write-ahead logging of intents and commits,
+ * syncing either in groups of Journal.DEFAULT_GROUP_SIZE records or every Journal.DEFAULT_SYNC_INTERVAL_MILLIS
+ * on a background thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class DurabilityBenchmark {
+    private static final int STOCK = 100_000_000;
+
+    @Param({"memory", "journal", "wal", "wal-interval"})
+    public String durability;
+
+    private Path directory;
+    private VendingMachine vm;
+    private Product item;
+    private Money exactPrice;
+    private Session session;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Displays.set(Displays.NO_OP);
+        directory = Files.createTempDirectory("durability-benchmark");
+        vm = new VendingMachine();
+        item = new Snack("Chips", 1.5, "Snack", STOCK, STOCK, "", LocalDate.of(2030, 1, 1), 50);
+        vm.getInventory().add(item);
+        if (!durability.equals("memory")) {
+            Journal.FsyncPolicy policy = durability.equals("wal-interval") ? Journal.FsyncPolicy.INTERVAL : Journal.FsyncPolicy.GROUP;
+            vm.setJournal(new Journal(directory, Journal.DEFAULT_SEGMENT_BYTES, policy, Journal.DEFAULT_GROUP_SIZE));
+            vm.setWriteAheadLogging(durability.startsWith("wal"));
+        }
+        exactPrice = new Money(Map.of(1.0, 1, 0.5, 1));
+    }
+
+    @Setup(Level.Iteration)
+    public void newSession() {
+        session = vm.openSession(new Buyer("Bench"));
+        if (item.getStock() < STOCK / 2) {
+            item.setStock(STOCK);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Displays.set(null);
+        if (vm.getJournal() != null) {
+            vm.getJournal().close();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public boolean dispenseItem() {
+        session.addMoney(exactPrice);
+        return vm.dispenseItem(session, item);
+    }
+}
@@ -0,0 +1,58 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full buyer sessions (open, pay, buy, close) against a fleet, with every thread spreading its
+ * sessions over all machines. Run with -t to see how throughput scales with the number of callers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Threads(Threads.MAX)
+public class FleetBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class FleetState {
+        @Param({"16", "1000"})
+        int machines;
+
+        Fleet fleet;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Catalog catalog = new Catalog(List.of(
+                    new CatalogItem("Chips", CatalogItem.Kind.SNACK, "Snack", 1.5, "150 kcal", LocalDate.of(2030, 1, 1), 50)));
+            fleet = new Fleet(catalog);
+            fleet.addMachines(machines, 1_000_000, 2_000_000);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            fleet.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BuyerState {
+        Buyer buyer = new Buyer("Bench buyer");
+        int next = (int) Thread.currentThread().threadId();
+    }
+
+    @Benchmark
+    public boolean session(FleetState state, BuyerState buyer) {
+        Fleet fleet = state.fleet;
+        Session session = fleet.openSession(buyer.buyer, Math.floorMod(buyer.next++, state.machines));
+        fleet.insertMoney(session, new Money(Map.of(1.0, 1, 0.5, 1)));
+        boolean sold = fleet.buy(session, "Chips").join();
+        fleet.closeSession(session).join();
+        return sold;
+    }
+}
@@ -0,0 +1,70 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repricing every product of a machine with one VendingMachine.changePrice call each against applying one price book,
+ * and the cost of a price lookup on the dispense path once a book is in effect.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class PriceBookBenchmark {
+    @Param({"1000"})
+    public int products;
+
+    private VendingMachine vm;
+    private Operator admin;
+    private Product[] inventory;
+    private Map<Sku, Long> prices;
+    private long version;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Displays.set(Displays.NO_OP);
+        vm = new VendingMachine();
+        admin = new Operator("Admin", AccessLevel.ADMIN);
+        inventory = new Product[products];
+        prices = new HashMap<>();
+        for (int i = 0; i < products; i++) {
+            inventory[i] = new Snack("Snack " + i, 1.5, "Snack", 5, 10, "", LocalDate.of(2030, 1, 1), 50);
+            vm.getInventory().add(inventory[i]);
+            prices.put(inventory[i].getSku(), 150L + i % 50);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Displays.set(null);
+    }
+
+    @Benchmark
+    public VendingMachine changePriceEach() {
+        version++;
+        for (int i = 0; i < inventory.length; i++) {
+            vm.changePrice(inventory[i], (150 + (i + version) % 50) / 100.0, admin);
+        }
+        return vm;
+    }
+
+    @Benchmark
+    public boolean applyPriceBook() {
+        return vm.applyPriceBook(new PriceBook(++version, prices), admin);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long priceLookup() {
+        next = (next + 1) % inventory.length;
+        return vm.getPriceCents(inventory[next]);
+    }
+}
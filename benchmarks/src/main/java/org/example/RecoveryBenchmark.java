@@ -0,0 +1,65 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Restoring a machine from a snapshot plus a journal of a million sales, measured cold.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class RecoveryBenchmark {
+    private static final int SALES = 1_000_000;
+    private static final String[] NAMES = {"Chips", "Cola", "Candy", "Water"};
+
+    private Path directory;
+    private Path snapshot;
+    private Path journalDirectory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Displays.set(Displays.NO_OP);
+        directory = Files.createTempDirectory("recovery-benchmark");
+        snapshot = directory.resolve("snapshot.bin");
+        journalDirectory = directory.resolve("journal");
+
+        VendingMachine vm = new VendingMachine();
+        for (String name : NAMES) {
+            vm.getInventory().add(new Snack(name, 1.5, "Snack", SALES, SALES * 2, "", LocalDate.of(2030, 1, 1), 50));
+        }
+        vm.saveSnapshot(snapshot);
+
+        long now = System.currentTimeMillis();
+        try (Journal journal = new Journal(journalDirectory, Journal.DEFAULT_SEGMENT_BYTES, Journal.FsyncPolicy.NEVER, 4096)) {
+            for (int i = 0; i < SALES; i++) {
+                journal.append(Journal.SALE, new SaleRecord(now + i, 150, i & 63, NAMES[i & 3]).encode());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Displays.set(null);
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public VendingMachine restore() {
+        VendingMachine restored = VendingMachine.restore(snapshot, journalDirectory);
+        restored.getJournal().close();
+        return restored;
+    }
+}
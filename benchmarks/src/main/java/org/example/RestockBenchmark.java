@@ -0,0 +1,70 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refilling a route of products one Operator.restockProduct call at a time against one VendingMachine.restockBatch.
+ * The batch goes to the machine directly so the operator's list of batches does not grow across the run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class RestockBenchmark {
+    private static final int CAPACITY = 100_000_000;
+
+    @Param({"200"})
+    public int slots;
+
+    private VendingMachine vm;
+    private Operator operator;
+    private Product[] products;
+    private Map<Sku, Integer> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Displays.set(Displays.NO_OP);
+        vm = new VendingMachine();
+        operator = new Operator("Driver", AccessLevel.STAFF);
+        products = new Product[slots];
+        batch = new LinkedHashMap<>();
+        for (int i = 0; i < slots; i++) {
+            products[i] = new Snack("Snack " + i, 1.5, "Snack", 0, CAPACITY, "", LocalDate.of(2030, 1, 1), 50);
+            vm.getInventory().add(products[i]);
+            batch.put(products[i].getSku(), 1);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void emptySlots() {
+        for (Product product : products) {
+            product.setStock(0);
+        }
+        operator.getStockingHistory().clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Displays.set(null);
+    }
+
+    @Benchmark
+    public Operator restockEach() {
+        for (Product product : products) {
+            operator.restockProduct(product, 1, vm);
+        }
+        return operator;
+    }
+
+    @Benchmark
+    public RestockRecord restockBatch() {
+        return vm.restockBatch(batch, operator);
+    }
+}
@@ -0,0 +1,87 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorting an inventory with the comparators used for display, against walking the sorted views
+ * InventoryIndex keeps up to date. Each sort call sorts a fresh copy, so copyOnly is the baseline to subtract.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class SortBenchmark {
+    private static final String[] CATEGORIES = {"Snack", "Drink", "Candy", "Gum", "Water"};
+
+    @Param({"100", "1000", "10000"})
+    public int inventorySize;
+
+    private List<Product> inventory;
+    private InventoryIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        inventory = new ArrayList<>(inventorySize);
+        for (int i = 0; i < inventorySize; i++) {
+            double price = 0.25 * (1 + random.nextInt(20));
+            inventory.add(new Product("Item " + i, price, CATEGORIES[random.nextInt(CATEGORIES.length)], 5, 10, "", LocalDate.of(2030, 1, 1)));
+        }
+        Collections.shuffle(inventory, random);
+        index = new InventoryIndex(inventory);
+    }
+
+    @Benchmark
+    public List<Product> copyOnly() {
+        return new ArrayList<>(inventory);
+    }
+
+    @Benchmark
+    public List<Product> sortByCategory() {
+        List<Product> sorted = new ArrayList<>(inventory);
+        sorted.sort(new CategoryComparator());
+        return sorted;
+    }
+
+    @Benchmark
+    public List<Product> sortByName() {
+        List<Product> sorted = new ArrayList<>(inventory);
+        sorted.sort(new ProductNameComparator());
+        return sorted;
+    }
+
+    @Benchmark
+    public void viewByCategory(Blackhole blackhole) {
+        for (Product p : index.byCategory()) {
+            blackhole.consume(p);
+        }
+    }
+
+    @Benchmark
+    public void viewByName(Blackhole blackhole) {
+        for (Product p : index.byName()) {
+            blackhole.consume(p);
+        }
+    }
+
+    /**
+     * Repricing one product and putting it back, which is what keeping the views sorted costs per change.
+     */
+    @Benchmark
+    public void repriceInView() {
+        Product p = inventory.get(inventorySize / 2);
+        double price = p.getPrice();
+        index.reprice(p, price + 0.25);
+        index.reprice(p, price);
+    }
+}
@@ -0,0 +1,55 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reserve/commit/release throughput with every thread hitting one shared product, and with each
+ * thread on its own product. Run with -t to vary the thread count.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Threads(Threads.MAX)
+public class StockContentionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        Product product = new Product("Shared Chips", 1.5, "snack", 1_000_000, 2_000_000, "", LocalDate.of(2030, 1, 1));
+    }
+
+    @State(Scope.Thread)
+    public static class Own {
+        Product product = new Product("Chips " + Thread.currentThread().threadId(), 1.5, "snack", 1_000_000, 2_000_000, "", LocalDate.of(2030, 1, 1));
+        long operations;
+    }
+
+    @Benchmark
+    public void shared(Shared shared, Own own) {
+        cycle(shared.product, own);
+    }
+
+    @Benchmark
+    public void spread(Own own) {
+        cycle(own.product, own);
+    }
+
+    /**
+     * Reserves a unit and alternately sells it or puts it back, restocking once the product runs dry.
+     */
+    private static void cycle(Product product, Own own) {
+        if (product.tryReserve(1)) {
+            if ((own.operations++ & 1) == 0) {
+                product.commit(1);
+            } else {
+                product.release(1);
+            }
+        } else {
+            product.restock(1000);
+        }
+    }
+}
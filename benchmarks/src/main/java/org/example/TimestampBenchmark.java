@@ -0,0 +1,44 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting a sales log line the old way, with a new SimpleDateFormat and String.format per sale,
+ * against SaleRecord.toLogLine with the cached second. Run with -prof gc to compare bytes allocated per line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class TimestampBenchmark {
+    private long now;
+    private SaleRecord sale;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        now = System.currentTimeMillis();
+        sale = new SaleRecord(now, 150, 1, "Chips");
+    }
+
+    @Benchmark
+    public String legacyLogLine() {
+        String time = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(now));
+        return String.format("%s - %s sold for $%.2f", time, "Chips", 150 / 100.0);
+    }
+
+    @Benchmark
+    public String logLine() {
+        return sale.toLogLine();
+    }
+
+    @Benchmark
+    public String timestamp() {
+        return TimestampFormat.shared().format(now);
+    }
+}
@@ -0,0 +1,69 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Selecting and dispensing a product from machines with small to large inventories.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class TransactionBenchmark {
+    private static final int STOCK = 100_000_000;
+
+    @Param({"10", "100", "1000"})
+    public int inventorySize;
+
+    private VendingMachine vm;
+    private Product probe;
+    private Product item;
+    private Money exactPrice;
+    private Session session;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Displays.set(Displays.NO_OP);
+        vm = new VendingMachine();
+        for (int i = 0; i < inventorySize; i++) {
+            vm.getInventory().add(new Snack("Item " + i, 1.5, "Snack", STOCK, STOCK, "", LocalDate.of(2030, 1, 1), 50));
+        }
+        int middle = inventorySize / 2;
+        probe = new Snack("Item " + middle, 0, "", 0, 0, "", null, 0);
+        item = vm.getInventory().get(middle);
+        exactPrice = new Money(Map.of(1.0, 1, 0.5, 1));
+    }
+
+    /**
+     * A fresh buyer each iteration keeps the purchase history from growing across the whole run.
+     */
+    @Setup(Level.Iteration)
+    public void newSession() {
+        session = vm.openSession(new Buyer("Bench"));
+        if (item.getStock() < STOCK / 2) {
+            item.setStock(STOCK);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Displays.set(null);
+    }
+
+    @Benchmark
+    public Product selectItem() {
+        return vm.selectItem(probe);
+    }
+
+    @Benchmark
+    public boolean dispenseItem() {
+        session.addMoney(exactPrice);
+        return vm.dispenseItem(session, item);
+    }
+}
@@ -0,0 +1,68 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Writing the history file with a full sales log, with and without a journal holding the sales.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class WriteToFileBenchmark {
+    @Param({"10", "1000"})
+    public int inventorySize;
+
+    @Param({"false", "true"})
+    public boolean journaled;
+
+    private Path directory;
+    private Path historyFile;
+    private VendingMachine vm;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Displays.set(Displays.NO_OP);
+        directory = Files.createTempDirectory("write-to-file-benchmark");
+        historyFile = directory.resolve("VendingMachine_History.txt");
+        vm = new VendingMachine();
+        if (journaled) {
+            vm.setJournal(new Journal(directory.resolve("journal")));
+        }
+        for (int i = 0; i < inventorySize; i++) {
+            vm.getInventory().add(new Snack("Item " + i, 1.5, "Snack", 1_000_000, 1_000_000, "", LocalDate.of(2030, 1, 1), 50));
+        }
+        Session session = vm.openSession(new Buyer("Bench"));
+        Money price = new Money(java.util.Map.of(1.0, 1, 0.5, 1));
+        for (int i = 0; i < VendingMachine.MAX_SALES_LOG; i++) {
+            session.addMoney(price);
+            vm.dispenseItem(session, vm.getInventory().get(i % inventorySize));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Displays.set(null);
+        if (vm.getJournal() != null) {
+            vm.getJournal().close();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void writeToFile() {
+        vm.writeToFile(historyFile);
+    }
+}
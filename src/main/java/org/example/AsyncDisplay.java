@@ -0,0 +1,182 @@
+package org.example;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class AsyncDisplay implements MessageDisplay, Closeable {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * One preallocated entry of the ring. A slot holds the message for sequence number
+     * {@code sequence} once that number has been written to it.
+     */
+    private static final class Slot {
+        volatile long sequence = -1;
+        String format;
+        Object[] args;
+    }
+
+    private final MessageDisplay target;
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail;
+    private final LongAdder dropped;
+    private final Thread drainer;
+    private volatile long head;
+    private volatile boolean running;
+    private volatile boolean idle;
+
+    public AsyncDisplay(MessageDisplay target) {
+        this(target, DEFAULT_CAPACITY);
+    }
+
+    public AsyncDisplay(MessageDisplay target, int capacity) {
+        if (target == null) {
+            throw new IllegalArgumentException("Target display cannot be null");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.target = target;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.tail = new AtomicLong();
+        this.dropped = new LongAdder();
+        this.running = true;
+        this.drainer = new Thread(this::drain, "message-display");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    /**
+     * Queues a message for the background thread and returns without waiting for it to be shown.
+     * @param message the message to display
+     */
+    @Override
+    public void displayMessage(String message) {
+        if (message != null) {
+            enqueue(message, null);
+        }
+    }
+
+    /**
+     * Queues a message for the background thread, which also does the formatting.
+     * The arguments are read later, so pass values rather than objects that may still change.
+     * @param level the level of the message
+     * @param format the format string
+     * @param args the format arguments
+     */
+    @Override
+    public void displayMessage(Level level, String format, Object... args) {
+        if (format != null && isEnabled(level)) {
+            enqueue(format, args);
+        }
+    }
+
+    @Override
+    public boolean isEnabled(Level level) {
+        return target.isEnabled(level);
+    }
+
+    /**
+     * Claims the next free slot of the ring. When the ring is full the message is dropped
+     * and counted, so a slow console never holds up a sale.
+     */
+    private void enqueue(String format, Object[] args) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head >= slots.length || !running) {
+                dropped.increment();
+                return;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+
+        Slot slot = slots[(int) sequence & mask];
+        slot.format = format;
+        slot.args = args;
+        slot.sequence = sequence;
+        if (idle) {
+            LockSupport.unpark(drainer);
+        }
+    }
+
+    private void drain() {
+        long next = head;
+        while (running || next < tail.get()) {
+            Slot slot = slots[(int) next & mask];
+            if (slot.sequence != next) {
+                if (next == tail.get()) {
+                    idle = true;
+                    if (slot.sequence != next && running) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    idle = false;
+                } else {
+                    Thread.onSpinWait();
+                }
+                continue;
+            }
+            String format = slot.format;
+            Object[] args = slot.args;
+            slot.format = null;
+            slot.args = null;
+            head = ++next;
+            try {
+                target.displayMessage(args == null ? format : String.format(format, args));
+            } catch (RuntimeException e) {
+                dropped.increment();
+            }
+        }
+    }
+
+    /**
+     * Waits until every message queued so far has been handed to the target display.
+     */
+    public void flush() {
+        long until = tail.get();
+        while (head < until && drainer.isAlive()) {
+            LockSupport.unpark(drainer);
+            LockSupport.parkNanos(IDLE_PARK_NANOS / 10);
+        }
+    }
+
+    /**
+     * Shows every queued message and stops the background thread. Later messages are dropped.
+     */
+    @Override
+    public void close() {
+        flush();
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    public MessageDisplay getTarget() {
+        return target;
+    }
+}
@@ -1,23 +1,22 @@
 package org.example;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 public class Buyer extends User {
     private Product selectedProduct;
-    private final List<Product> purchaseHistory;
+    private final PurchaseHistory purchaseHistory;
 
     public Buyer() {
         super("Unknown Buyer");
-        this.purchaseHistory = new ArrayList<>();
+        this.purchaseHistory = new PurchaseHistory();
         this.selectedProduct = null;
     }
 
     public Buyer(String name) {
         super(name);
-        this.purchaseHistory = new ArrayList<>();
+        this.purchaseHistory = new PurchaseHistory();
         this.selectedProduct = null;
     }
 
@@ -37,11 +36,19 @@ public class Buyer extends User {
             return null;
         }
 
-        for (Product product : products) {
-            if (product.getName().equals(name)) {
+        if (products instanceof InventoryIndex index) {
+            Product product = index.snapshot().findByName(name);
+            if (product != null) {
                 this.selectedProduct = product;
                 return product;
             }
+        } else {
+            for (Product product : products) {
+                if (product.getName().equals(name)) {
+                    this.selectedProduct = product;
+                    return product;
+                }
+            }
         }
 
         displayMessage("No such product found.");
@@ -75,9 +82,36 @@ public class Buyer extends User {
             return;
         }
 
-        boolean success = vendingMachine.dispenseItem(this, selectedProduct);
+        finishPurchase(vendingMachine.dispenseItem(this, selectedProduct));
+    }
+
+    /**
+     * Attempts to purchase the selected product with the money of one of the buyer's sessions,
+     * so other buyers using the machine at the same time are not charged for it.
+     * @param vendingMachine The vending machine to purchase from.
+     * @param session The buyer's session holding the money to pay with.
+     * @return true if the product was dispensed, false otherwise
+     */
+    public boolean buy(VendingMachine vendingMachine, Session session) {
+        if (session == null || session.getBuyer() != this) {
+            throw new IllegalArgumentException("Session must belong to this buyer");
+        }
+        if (selectedProduct == null) {
+            displayMessage("No product selected to buy.");
+            return false;
+        }
+        if (vendingMachine == null) {
+            displayMessage("Vending machine is not available.");
+            return false;
+        }
+
+        boolean success = vendingMachine.dispenseItem(session, selectedProduct);
+        finishPurchase(success);
+        return success;
+    }
+
+    private void finishPurchase(boolean success) {
         if (success) {
-            addPurchaseHistory(selectedProduct);
             displayMessage("Successfully purchased " + selectedProduct.getName() + ".");
         } else {
             displayMessage("Purchase failed: insufficient funds or out of stock.");
@@ -93,17 +127,17 @@ public class Buyer extends User {
     @Override
     public void displayMessage(String message) {
         if (message != null) {
-            System.out.println("Buyer [" + getName() + "], please note: " + message);
+            Displays.get().displayMessage(Level.INFO, "Buyer [%s], please note: %s", getName(), message);
         }
     }
 
     /**
-     * Adds a product to the buyer's purchase history.
+     * Adds a product to the buyer's purchase history at its current price.
      * @param product The product to add.
      */
     public void addPurchaseHistory(Product product) {
-        if (product != null) {
-            purchaseHistory.add(product);
+        if (product != null && product.getSku() != null) {
+            purchaseHistory.add(product, Money.toCents(product.getPrice()), CachedClock.shared().millis());
         }
     }
 
@@ -111,7 +145,7 @@ public class Buyer extends User {
     public String toString() {
         return "Buyer{" + super.toString() +
                 "selectedProduct=" + selectedProduct +
-                ", purchaseHistory=" + purchaseHistory +
+                ", purchaseHistory=" + purchaseHistory.toProducts() +
                 '}';
     }
 
@@ -121,12 +155,12 @@ public class Buyer extends User {
         if (!(o instanceof Buyer buyer)) return false;
         if (!super.equals(o)) return false;
         return Objects.equals(selectedProduct, buyer.selectedProduct) &&
-                Objects.equals(purchaseHistory, buyer.purchaseHistory);
+                Objects.equals(purchaseHistory.toProducts(), buyer.purchaseHistory.toProducts());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), selectedProduct, purchaseHistory);
+        return Objects.hash(super.hashCode(), selectedProduct, purchaseHistory.toProducts());
     }
 
     public Product getSelectedProduct() {
@@ -137,7 +171,20 @@ public class Buyer extends User {
         this.selectedProduct = selectedProduct;
     }
 
+    /**
+     * Returns the buyer's recent purchases as products priced at what was paid, oldest first.
+     * Only the newest PurchaseHistory.DEFAULT_CAPACITY purchases are kept.
+     * @return a read-only list of the purchases
+     */
     public List<Product> getPurchaseHistory() {
-        return Collections.unmodifiableList(purchaseHistory);
+        return Collections.unmodifiableList(purchaseHistory.toProducts());
+    }
+
+    /**
+     * Returns the buyer's purchases as compact records, with counts of the products bought most.
+     * @return the purchase history
+     */
+    public PurchaseHistory getPurchases() {
+        return purchaseHistory;
     }
 }
@@ -0,0 +1,72 @@
+package org.example;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public final class CachedClock {
+    public static final long DEFAULT_TICK_MILLIS = 60_000;
+
+    private static final CachedClock SHARED = startShared();
+
+    private final Clock source;
+    private volatile long today;
+
+    public CachedClock(Clock source) {
+        if (source == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.source = source;
+        tick();
+    }
+
+    /**
+     * Returns the clock products use for expiry checks. It reads the system clock once a minute
+     * on a background thread, so a new day is picked up at most a minute late.
+     * @return the shared clock
+     */
+    public static CachedClock shared() {
+        return SHARED;
+    }
+
+    private static CachedClock startShared() {
+        CachedClock clock = new CachedClock(Clock.systemDefaultZone());
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cached-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(clock::tick, DEFAULT_TICK_MILLIS, DEFAULT_TICK_MILLIS, TimeUnit.MILLISECONDS);
+        return clock;
+    }
+
+    /**
+     * Reads the underlying clock again and updates the cached date.
+     */
+    public void tick() {
+        today = LocalDate.now(source).toEpochDay();
+    }
+
+    /**
+     * Returns the cached date as a day count, which is all an expiry check needs to compare.
+     * @return today's epoch day as of the last tick
+     */
+    public long today() {
+        return today;
+    }
+
+    /**
+     * Reads the current time from the underlying clock. Reading the system clock allocates nothing,
+     * so unlike the date it is not cached; the costly part of a timestamp is formatting it, see TimestampFormat.
+     * @return the current time in epoch milliseconds
+     */
+    public long millis() {
+        return source.millis();
+    }
+
+    public LocalDate todayDate() {
+        return LocalDate.ofEpochDay(today);
+    }
+}
@@ -0,0 +1,52 @@
+package org.example;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class Catalog {
+    private final Map<Sku, CatalogItem> items;
+    private final List<CatalogItem> ordered;
+
+    /**
+     * Creates an immutable catalog. It can be read from any number of machines and threads without locking.
+     * @param items the items, which must have distinct names
+     * @throws IllegalArgumentException if two items share a name
+     */
+    public Catalog(Collection<CatalogItem> items) {
+        if (items == null) {
+            throw new IllegalArgumentException("Items cannot be null");
+        }
+        Map<Sku, CatalogItem> bySku = new HashMap<>();
+        for (CatalogItem item : items) {
+            if (bySku.put(item.getSku(), item) != null) {
+                throw new IllegalArgumentException("Duplicate catalog item: " + item.getName());
+            }
+        }
+        this.items = Map.copyOf(bySku);
+        this.ordered = List.copyOf(items);
+    }
+
+    public CatalogItem get(Sku sku) {
+        return items.get(sku);
+    }
+
+    /**
+     * Looks up an item by product name.
+     * @param name the product name
+     * @return the item, or null if the catalog does not list it
+     */
+    public CatalogItem find(String name) {
+        Sku sku = Sku.find(name);
+        return sku == null ? null : items.get(sku);
+    }
+
+    public List<CatalogItem> getItems() {
+        return ordered;
+    }
+
+    public int size() {
+        return ordered.size();
+    }
+}
@@ -0,0 +1,106 @@
+package org.example;
+
+import java.time.LocalDate;
+
+public final class CatalogItem {
+    /** The kind of product an item is stocked as. */
+    public enum Kind {
+        PRODUCT, DRINK, SNACK
+    }
+
+    private final Sku sku;
+    private final Kind kind;
+    private final String category;
+    private final double price;
+    private final String nutritionalInfo;
+    private final LocalDate expiryDate;
+    private final int size;
+
+    /**
+     * Describes a product once for a whole fleet. The description never changes, so every machine
+     * stocking the item shares it instead of holding its own copy of the name, category and label text.
+     * @param name the product name
+     * @param kind what the item is stocked as
+     * @param category the category name
+     * @param price the list price
+     * @param nutritionalInfo the nutritional information
+     * @param expiryDate the expiry date of the current batch, or null if it does not expire
+     * @param size the volume in ml of a drink or weight in grams of a snack, ignored otherwise
+     */
+    public CatalogItem(String name, Kind kind, String category, double price, String nutritionalInfo, LocalDate expiryDate, int size) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name cannot be null");
+        }
+        if (kind == null) {
+            throw new IllegalArgumentException("Kind cannot be null");
+        }
+        if (price < 0) {
+            throw new IllegalArgumentException("Price cannot be negative");
+        }
+        this.sku = Sku.of(name);
+        this.kind = kind;
+        this.category = category == null ? null : Category.of(category).getName();
+        this.price = price;
+        this.nutritionalInfo = nutritionalInfo;
+        this.expiryDate = expiryDate;
+        this.size = size;
+    }
+
+    /**
+     * Creates a stockable product for one machine. The product gets its own stock record,
+     * while its name, category and label text are the catalog's shared instances.
+     * @param stock the initial stock
+     * @param maxCapacity the machine's capacity for the product
+     * @return a new product of the item's kind
+     */
+    public Product newProduct(int stock, int maxCapacity) {
+        String name = sku.getName();
+        return switch (kind) {
+            case DRINK -> new Drink(name, price, category, stock, maxCapacity, nutritionalInfo, expiryDate, size);
+            case SNACK -> new Snack(name, price, category, stock, maxCapacity, nutritionalInfo, expiryDate, size);
+            case PRODUCT -> new Product(name, price, category, stock, maxCapacity, nutritionalInfo, expiryDate);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogItem{" +
+                "name='" + sku.getName() + '\'' +
+                ", kind=" + kind +
+                ", category='" + category + '\'' +
+                ", price=" + price +
+                '}';
+    }
+
+    public Sku getSku() {
+        return sku;
+    }
+
+    public String getName() {
+        return sku.getName();
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public String getNutritionalInfo() {
+        return nutritionalInfo;
+    }
+
+    public LocalDate getExpiryDate() {
+        return expiryDate;
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,84 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class Category {
+    private static final ConcurrentHashMap<String, Category> registry = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    public static final Category UNKNOWN = of("Unknown");
+    public static final Category DRINK = of("Drink");
+    public static final Category SNACK = of("Snack");
+
+    private final int id;
+    private final String name;
+
+    private Category(int id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    /**
+     * Returns the one Category for a category name, registering it with the next free id the first time it is seen.
+     * Ids are dense, so they can index an array of per-category data, and categories compare by reference.
+     * Names are matched exactly, so two categories are the same object only if their names are equal.
+     * @param name the category name
+     * @return the interned Category for that name
+     */
+    public static Category of(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Category name cannot be null");
+        }
+        Category category = registry.get(name);
+        if (category != null) {
+            return category;
+        }
+        return registry.computeIfAbsent(name, n -> new Category(nextId.getAndIncrement(), n));
+    }
+
+    /**
+     * Looks up the Category for a name without registering a new one.
+     * @param name the category name
+     * @return the Category, or null if no product has used that name
+     */
+    public static Category find(String name) {
+        return name == null ? null : registry.get(name);
+    }
+
+    /**
+     * Returns every category registered so far, ordered by id.
+     * @return a read-only snapshot of the registry
+     */
+    public static List<Category> values() {
+        List<Category> values = new ArrayList<>(registry.values());
+        values.sort((a, b) -> Integer.compare(a.id, b.id));
+        return Collections.unmodifiableList(values);
+    }
+
+    @Override
+    public String toString() {
+        return "Category{" + "id=" + id + ", name='" + name + '\'' + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
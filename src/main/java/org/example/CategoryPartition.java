@@ -0,0 +1,145 @@
+package org.example;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CategoryPartition implements StockListener {
+    private final Category category;
+    private final Comparator<Product> order;
+    private PersistentList<Product> members;
+    private volatile List<Product> published;
+    private final LongAdder totalStock;
+    private final LongAdder stockValueCents;
+
+    /**
+     * Creates an empty partition.
+     * @param category the category whose products it holds
+     * @param order the order members are kept in; it must sort by price first
+     */
+    public CategoryPartition(Category category, Comparator<Product> order) {
+        if (category == null) {
+            throw new IllegalArgumentException("Category cannot be null");
+        }
+        this.category = category;
+        this.order = order;
+        this.members = PersistentList.empty();
+        this.published = members;
+        this.totalStock = new LongAdder();
+        this.stockValueCents = new LongAdder();
+    }
+
+    /**
+     * Starts following a product's stock, adding its current stock and stock value to the running totals.
+     * A sale that lands between reading the stock and registering the listener is missed by the stock total,
+     * so products should be stocked before they are put on sale. The value total misses nothing.
+     * @param product the product to follow
+     */
+    void attach(Product product) {
+        StockRecord record = product.getStockRecord();
+        stockValueCents.add(record.addListener(this));
+        totalStock.add(record.getStock());
+    }
+
+    /**
+     * Stops following a product. Its current stock and stock value leave the running totals.
+     * @param product the product to stop following
+     */
+    void detach(Product product) {
+        StockRecord record = product.getStockRecord();
+        stockValueCents.add(-record.removeListener(this));
+        totalStock.add(-record.getStock());
+    }
+
+    void addMember(Product product) {
+        members = members.plus(product, order);
+    }
+
+    void removeMember(Product product) {
+        members = members.minus(product, order);
+    }
+
+    /**
+     * Makes the current members visible to readers. The inventory calls this under its writer lock after a change
+     * to this partition; the members are persistent, so nothing is copied.
+     */
+    void publish() {
+        published = members;
+    }
+
+    @Override
+    public void stockChanged(StockRecord record, int delta) {
+        totalStock.add(delta);
+    }
+
+    @Override
+    public void valueChanged(StockRecord record, long deltaCents) {
+        stockValueCents.add(deltaCents);
+    }
+
+    /**
+     * Finds the cheapest product in the category that can still be sold.
+     * Members are kept in price order, so this stops at the first one with stock.
+     * @return the cheapest product in stock, or null if the whole category is sold out
+     */
+    public Product cheapestInStock() {
+        for (Product product : published) {
+            if (product.getStock() > 0) {
+                return product;
+            }
+        }
+        return null;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    /**
+     * Returns the products in the category, cheapest first.
+     * @return a read-only list as of the inventory's latest snapshot
+     */
+    public List<Product> getProducts() {
+        return published;
+    }
+
+    public int size() {
+        return published.size();
+    }
+
+    /**
+     * Returns the units available for sale across the category, kept up to date as stock changes.
+     * @return the total available stock
+     */
+    public long getTotalStock() {
+        return totalStock.sum();
+    }
+
+    /**
+     * Returns what the available stock of the category would sell for at current prices, kept up to date
+     * as stock and prices change. A change still being applied may be missing, but once changes stop
+     * the value is exact.
+     * @return the stock value in cents
+     */
+    public long getStockValueCents() {
+        return stockValueCents.sum();
+    }
+
+    /**
+     * Returns what the available stock of the category would sell for at current prices.
+     * @return the stock value in dollars
+     */
+    public double getStockValue() {
+        return getStockValueCents() / 100.0;
+    }
+
+    @Override
+    public String toString() {
+        return "CategoryPartition{" +
+                "category=" + category.getName() +
+                ", products=" + size() +
+                ", totalStock=" + getTotalStock() +
+                ", stockValue=" + getStockValue() +
+                '}';
+    }
+}
@@ -0,0 +1,228 @@
+package org.example;
+
+import java.util.Arrays;
+
+public class ChangeMaker {
+    public static final int DEFAULT_MAX_CACHED_AMOUNT = 10000;
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final int maxCachedAmount;
+    private int[][] layers;
+    // The denomination and usable count each cached layer was built from, so a query rebuilds only from the first that changed.
+    private int[] builtDenominations;
+    private int[] builtCounts;
+    private int tableSize;
+    private int validLayers;
+    private int[] window;
+
+    public ChangeMaker() {
+        this(DEFAULT_MAX_CACHED_AMOUNT);
+    }
+
+    public ChangeMaker(int maxCachedAmount) {
+        if (maxCachedAmount < 0) {
+            throw new IllegalArgumentException("Maximum cached amount cannot be negative.");
+        }
+        this.maxCachedAmount = maxCachedAmount;
+        this.layers = new int[0][];
+        this.builtDenominations = new int[0];
+        this.builtCounts = new int[0];
+        this.tableSize = 0;
+        this.validLayers = 0;
+        this.window = new int[0];
+    }
+
+    /**
+     * Finds the combination with the fewest coins and bills that adds up exactly to an amount,
+     * never using more of a denomination than is available.
+     * The tables of earlier queries are kept and rebuilt only from the first slot whose denomination or usable count
+     * changed; a count is only usable up to what fits in the table, so more large bills rarely cost a rebuild.
+     * Amounts above the cached amount are first brought down with the largest denominations, and only the rest
+     * is searched in the cached tables; such an amount can be missed when only a different use of the large
+     * denominations would have made it.
+     * @param denominations the value of each slot in cents
+     * @param counts how many coins or bills each slot holds
+     * @param slots the number of slots in use
+     * @param amountCents the amount to make, in cents
+     * @param change the array receiving one count per slot
+     * @return true if the exact amount can be made, false otherwise
+     */
+    public boolean solve(int[] denominations, int[] counts, int slots, long amountCents, int[] change) {
+        Arrays.fill(change, 0, slots, 0);
+        if (amountCents == 0) {
+            return true;
+        }
+        if (amountCents < 0) {
+            return false;
+        }
+        if (amountCents > maxCachedAmount) {
+            return solveLarge(denominations, counts, slots, amountCents, change);
+        }
+        return solveCached(denominations, counts, slots, (int) amountCents, change);
+    }
+
+    private boolean solveCached(int[] denominations, int[] counts, int slots, int amount, int[] change) {
+        ensureTables(slots, amount);
+        rebuild(denominations, counts, slots);
+        if (layers[slots][amount] == UNREACHABLE) {
+            return false;
+        }
+        reconstruct(layers, denominations, counts, slots, amount, change);
+        return true;
+    }
+
+    /**
+     * Hands out change the way the vending machine always did: largest denominations first,
+     * as many as fit. Kept as the baseline for benchmarks; it can miss combinations that exist.
+     * @param denominations the value of each slot in cents, largest first
+     * @param counts how many coins or bills each slot holds
+     * @param slots the number of slots in use
+     * @param amountCents the amount to make, in cents
+     * @param change the array receiving one count per slot
+     * @return true if the exact amount was made, false otherwise
+     */
+    public static boolean greedy(int[] denominations, int[] counts, int slots, long amountCents, int[] change) {
+        Arrays.fill(change, 0, slots, 0);
+        long remaining = amountCents;
+        for (int i = 0; i < slots && remaining > 0; i++) {
+            int denom = denominations[i];
+            if (denom > remaining || counts[i] == 0) {
+                continue;
+            }
+            int toUse = (int) Math.min(remaining / denom, counts[i]);
+            change[i] = toUse;
+            remaining -= (long) denom * toUse;
+        }
+        return remaining == 0;
+    }
+
+    private void ensureTables(int slots, int amount) {
+        if (layers.length < slots + 1) {
+            layers = Arrays.copyOf(layers, slots + 1);
+            builtDenominations = new int[slots];
+            builtCounts = new int[slots];
+            validLayers = 0;
+        }
+        if (amount + 1 > tableSize) {
+            int newSize = (int) Math.min((long) maxCachedAmount + 1, Math.max(amount + 1L, tableSize * 2L));
+            tableSize = newSize;
+            window = new int[newSize];
+            for (int i = 0; i < layers.length; i++) {
+                layers[i] = new int[newSize];
+            }
+            validLayers = 0;
+        }
+        for (int i = 0; i < layers.length; i++) {
+            if (layers[i] == null) {
+                layers[i] = new int[tableSize];
+                validLayers = Math.min(validLayers, i);
+            }
+        }
+    }
+
+    private void rebuild(int[] denominations, int[] counts, int slots) {
+        int from = Math.min(validLayers, slots);
+        for (int i = 0; i < from; i++) {
+            if (builtDenominations[i] != denominations[i] || builtCounts[i] != usableCount(denominations[i], counts[i])) {
+                from = i;
+                break;
+            }
+        }
+        if (from == 0) {
+            Arrays.fill(layers[0], UNREACHABLE);
+            layers[0][0] = 0;
+        }
+        for (int i = from; i < slots; i++) {
+            int count = usableCount(denominations[i], counts[i]);
+            addLayer(layers[i], layers[i + 1], denominations[i], count, tableSize, window);
+            builtDenominations[i] = denominations[i];
+            builtCounts[i] = count;
+        }
+        validLayers = slots;
+    }
+
+    /**
+     * Caps a count at the most pieces of a denomination that fit in the table; any more give the same layer.
+     */
+    private int usableCount(int denom, int count) {
+        return denom <= 0 ? count : Math.min(count, (tableSize - 1) / denom);
+    }
+
+    /**
+     * Bounded knapsack step: next[a] is the fewest pieces for amount a once up to count pieces of
+     * denom are allowed on top of previous. Each residue class modulo denom is swept with a
+     * monotone queue, so a layer costs O(size) whatever the count.
+     */
+    private static void addLayer(int[] previous, int[] next, int denom, int count, int size, int[] window) {
+        if (count == 0 || denom >= size) {
+            System.arraycopy(previous, 0, next, 0, size);
+            return;
+        }
+        for (int residue = 0; residue < denom && residue < size; residue++) {
+            int head = 0;
+            int tail = 0;
+            for (int j = 0, a = residue; a < size; j++, a += denom) {
+                if (previous[a] != UNREACHABLE) {
+                    int key = previous[a] - j;
+                    while (tail > head && keyOf(previous, window[tail - 1], residue, denom) >= key) {
+                        tail--;
+                    }
+                    window[tail++] = j;
+                }
+                while (tail > head && window[head] < j - count) {
+                    head++;
+                }
+                next[a] = tail > head ? keyOf(previous, window[head], residue, denom) + j : UNREACHABLE;
+            }
+        }
+    }
+
+    private static int keyOf(int[] previous, int j, int residue, int denom) {
+        return previous[residue + j * denom] - j;
+    }
+
+    private static void reconstruct(int[][] table, int[] denominations, int[] counts, int slots, int amount, int[] change) {
+        int remaining = amount;
+        for (int i = slots; i > 0 && remaining > 0; i--) {
+            int denom = denominations[i - 1];
+            int target = table[i][remaining];
+            int maxUse = Math.min(counts[i - 1], remaining / denom);
+            for (int k = 0; k <= maxUse; k++) {
+                int rest = table[i - 1][remaining - k * denom];
+                if (rest != UNREACHABLE && rest + k == target) {
+                    change[i - 1] = k;
+                    remaining -= k * denom;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes as many of the largest denominations as needed to bring the amount within the cached tables,
+     * leaving the remainder as close to the cached amount as possible so the exact search keeps the most room.
+     * Nothing is allocated beyond the tables every query shares.
+     */
+    private boolean solveLarge(int[] denominations, int[] counts, int slots, long amountCents, int[] change) {
+        int limit = maxCachedAmount;
+        int[] taken = new int[slots];
+        int[] left = new int[slots];
+        long remaining = amountCents;
+        for (int i = 0; i < slots; i++) {
+            long excess = remaining - limit;
+            if (excess > 0) {
+                taken[i] = (int) Math.min(counts[i], (excess + denominations[i] - 1) / denominations[i]);
+                remaining -= (long) denominations[i] * taken[i];
+            }
+            left[i] = counts[i] - taken[i];
+        }
+        if (remaining > limit || remaining > 0 && !solveCached(denominations, left, slots, (int) remaining, change)) {
+            Arrays.fill(change, 0, slots, 0);
+            return false;
+        }
+        for (int i = 0; i < slots; i++) {
+            change[i] += taken[i];
+        }
+        return true;
+    }
+}
@@ -0,0 +1,35 @@
+package org.example;
+
+public class ConsoleDisplay implements MessageDisplay {
+    private final Level minLevel;
+
+    public ConsoleDisplay() {
+        this(Level.INFO);
+    }
+
+    public ConsoleDisplay(Level minLevel) {
+        if (minLevel == null) {
+            throw new IllegalArgumentException("Level cannot be null");
+        }
+        this.minLevel = minLevel;
+    }
+
+    /**
+     * Prints the message straight away. System.out is looked up on every call,
+     * so redirecting it with System.setOut also redirects this display.
+     * @param message the message to print
+     */
+    @Override
+    public void displayMessage(String message) {
+        System.out.println(message);
+    }
+
+    @Override
+    public boolean isEnabled(Level level) {
+        return level.compareTo(minLevel) >= 0;
+    }
+
+    public Level getMinLevel() {
+        return minLevel;
+    }
+}
@@ -0,0 +1,39 @@
+package org.example;
+
+public final class Displays {
+    /**
+     * A display that shows nothing and reports every level as disabled, so callers skip formatting entirely.
+     * Meant for benchmarks and load tests.
+     */
+    public static final MessageDisplay NO_OP = new MessageDisplay() {
+        @Override
+        public void displayMessage(String message) {
+        }
+
+        @Override
+        public boolean isEnabled(Level level) {
+            return false;
+        }
+    };
+
+    private static volatile MessageDisplay current = new ConsoleDisplay();
+
+    private Displays() {
+    }
+
+    /**
+     * Returns the display that users and machines send their messages to unless they were given their own.
+     * @return the shared display, a ConsoleDisplay by default
+     */
+    public static MessageDisplay get() {
+        return current;
+    }
+
+    /**
+     * Replaces the shared display, e.g. with an AsyncDisplay under load or NO_OP in benchmarks.
+     * @param display the new display, or null to go back to printing on the console
+     */
+    public static void set(MessageDisplay display) {
+        current = display == null ? new ConsoleDisplay() : display;
+    }
+}
@@ -1,7 +1,6 @@
 package org.example;
 
 import java.time.LocalDate;
-import java.util.Objects;
 
 public class Drink extends Product{
     private int volumeInML;
@@ -16,6 +15,11 @@ public class Drink extends Product{
         this.volumeInML = volumeInML;
     }
 
+    @Override
+    protected Category defaultCategory() {
+        return Category.DRINK;
+    }
+
     @Override
     public String toString() {
         return "Drink{" +
@@ -23,19 +27,6 @@ public class Drink extends Product{
                 '}' + super.toString();
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
-        Drink drink = (Drink) o;
-        return volumeInML == drink.volumeInML;
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(super.hashCode(), volumeInML);
-    }
-
     public int getVolumeInML() {
         return volumeInML;
     }
@@ -0,0 +1,80 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public class ExpiryIndex {
+    /**
+     * A product together with the expiry day it had when it was queued.
+     */
+    private static final class Entry implements Comparable<Entry> {
+        final long epochDay;
+        final Product product;
+
+        Entry(long epochDay, Product product) {
+            this.epochDay = epochDay;
+            this.product = product;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            return Long.compare(epochDay, o.epochDay);
+        }
+    }
+
+    private final PriorityQueue<Entry> queue;
+
+    public ExpiryIndex() {
+        this.queue = new PriorityQueue<>();
+    }
+
+    /**
+     * Queues a product by its expiry date. Products without one are never queued.
+     * @param product the product to watch
+     */
+    public void add(Product product) {
+        long epochDay = product.getExpiryEpochDay();
+        if (epochDay != Product.NO_EXPIRY) {
+            queue.add(new Entry(epochDay, product));
+        }
+    }
+
+    /**
+     * Takes every product whose expiry date is before the given day off the queue.
+     * Only expired entries are looked at. A product whose date was moved later since it was
+     * queued goes back in under its new date instead of being returned.
+     * @param epochDay the current day
+     * @return the expired products, possibly including ones no longer stocked
+     */
+    public List<Product> pollExpired(long epochDay) {
+        List<Product> expired = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().epochDay < epochDay) {
+            Entry entry = queue.poll();
+            long current = entry.product.getExpiryEpochDay();
+            if (current == entry.epochDay) {
+                expired.add(entry.product);
+            } else if (current != Product.NO_EXPIRY) {
+                queue.add(new Entry(current, entry.product));
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Returns the earliest queued expiry date.
+     * @return the epoch day of the next product to expire, or Product.NO_EXPIRY if none is queued
+     */
+    public long nextExpiry() {
+        Entry next = queue.peek();
+        return next == null ? Product.NO_EXPIRY : next.epochDay;
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public void clear() {
+        queue.clear();
+    }
+}
@@ -0,0 +1,324 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Fleet implements AutoCloseable {
+    /**
+     * The machine a session was opened on, so every later call for the session goes to the same machine.
+     */
+    private static final class Route {
+        final FleetMachine machine;
+        final Session session;
+
+        Route(FleetMachine machine, Session session) {
+            this.machine = machine;
+            this.session = session;
+        }
+    }
+
+    private final Catalog catalog;
+    private final ExecutorService pool;
+    private final boolean ownsPool;
+    private final Object machinesLock;
+    private volatile FleetMachine[] machines;
+    private final Map<Long, Route> routes;
+    private final LongAdder sales;
+    private final LongAdder failedSales;
+    private final LongAdder revenueCents;
+
+    /**
+     * Creates an empty fleet whose machines share a work-stealing pool with one thread per core.
+     * @param catalog the catalog every machine stocks from
+     */
+    public Fleet(Catalog catalog) {
+        this(catalog, new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true), true);
+    }
+
+    /**
+     * Creates an empty fleet whose machines run on the given pool. The pool is not shut down by close.
+     * @param catalog the catalog every machine stocks from
+     * @param pool the pool the machines' executors run on
+     */
+    public Fleet(Catalog catalog, ExecutorService pool) {
+        this(catalog, pool, false);
+    }
+
+    private Fleet(Catalog catalog, ExecutorService pool, boolean ownsPool) {
+        if (catalog == null) {
+            throw new IllegalArgumentException("Catalog cannot be null");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        this.catalog = catalog;
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        this.machinesLock = new Object();
+        this.machines = new FleetMachine[0];
+        this.routes = new ConcurrentHashMap<>();
+        this.sales = new LongAdder();
+        this.failedSales = new LongAdder();
+        this.revenueCents = new LongAdder();
+    }
+
+    /**
+     * Adds a new, empty machine to the fleet. Machines in a fleet do not print their messages;
+     * give one a display of its own to see them.
+     * Adding machines takes a lock, but routing and selling never do.
+     * @return the new machine
+     */
+    public FleetMachine addMachine() {
+        VendingMachine vm = new VendingMachine();
+        vm.setDisplay(Displays.NO_OP);
+        synchronized (machinesLock) {
+            FleetMachine[] current = machines;
+            FleetMachine machine = new FleetMachine(current.length, vm, pool);
+            FleetMachine[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = machine;
+            machines = updated;
+            return machine;
+        }
+    }
+
+    /**
+     * Adds several machines, each stocked with every catalog item.
+     * @param count the number of machines to add
+     * @param units the units of each item to stock
+     * @param maxCapacity the capacity of each machine for each item
+     * @return the new machines; their stocking may still be in progress, but runs before anything submitted later
+     */
+    public List<FleetMachine> addMachines(int count, int units, int maxCapacity) {
+        List<FleetMachine> added = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            FleetMachine machine = addMachine();
+            for (CatalogItem item : catalog.getItems()) {
+                machine.stock(item, units, maxCapacity);
+            }
+            added.add(machine);
+        }
+        return added;
+    }
+
+    public FleetMachine getMachine(int id) {
+        FleetMachine[] current = machines;
+        if (id < 0 || id >= current.length) {
+            throw new IllegalArgumentException("No machine with id " + id);
+        }
+        return current[id];
+    }
+
+    public List<FleetMachine> getMachines() {
+        return List.of(machines);
+    }
+
+    public int getMachineCount() {
+        return machines.length;
+    }
+
+    /**
+     * Opens a session for a buyer on a machine picked from the buyer's id, so the same buyer
+     * keeps landing on the same machine.
+     * @param buyer the buyer
+     * @return the new session
+     * @throws IllegalStateException if the fleet has no machines
+     */
+    public Session openSession(Buyer buyer) {
+        if (buyer == null) {
+            throw new IllegalArgumentException("Buyer cannot be null");
+        }
+        FleetMachine[] current = machines;
+        if (current.length == 0) {
+            throw new IllegalStateException("The fleet has no machines");
+        }
+        return openSession(buyer, current[Math.floorMod(buyer.getId(), current.length)]);
+    }
+
+    /**
+     * Opens a session for a buyer on a given machine.
+     * A buyer should only have one session open at a time, since purchases are added to its history.
+     * @param buyer the buyer
+     * @param machineId the machine to use
+     * @return the new session
+     */
+    public Session openSession(Buyer buyer, int machineId) {
+        return openSession(buyer, getMachine(machineId));
+    }
+
+    private Session openSession(Buyer buyer, FleetMachine machine) {
+        Session session = machine.getMachine().openSession(buyer);
+        routes.put(session.getId(), new Route(machine, session));
+        return session;
+    }
+
+    /**
+     * Returns the machine a session was opened on.
+     * @param session the session
+     * @return the machine, or null if the session is not open in this fleet
+     */
+    public FleetMachine getMachineFor(Session session) {
+        Route route = session == null ? null : routes.get(session.getId());
+        return route == null ? null : route.machine;
+    }
+
+    /**
+     * Adds money to a session on its machine's executor.
+     * @param session the session
+     * @param money the money inserted
+     * @return a future completed once the money is in the session
+     */
+    public CompletableFuture<Void> insertMoney(Session session, Money money) {
+        Route route = route(session);
+        return route.machine.submit(vm -> {
+            route.session.addMoney(money);
+            return null;
+        });
+    }
+
+    /**
+     * Buys one unit of a product with the session's money on its machine's executor,
+     * and counts the sale in the fleet-wide totals at the price the machine charged.
+     * @param session the session paying
+     * @param productName the product to buy
+     * @return a future completed with true if the product was dispensed
+     */
+    public CompletableFuture<Boolean> buy(Session session, String productName) {
+        Route route = route(session);
+        Sku sku = Sku.find(productName);
+        return route.machine.submit(vm -> {
+            Product product = vm.findProduct(sku);
+            long charged = product == null ? VendingMachine.NOT_SOLD : vm.sellItem(route.session, product);
+            if (charged != VendingMachine.NOT_SOLD) {
+                sales.increment();
+                revenueCents.add(charged);
+                return true;
+            }
+            failedSales.increment();
+            return false;
+        });
+    }
+
+    /**
+     * Closes a session on its machine's executor.
+     * @param session the session to close
+     * @return a future completed with the money that was inserted but not spent
+     */
+    public CompletableFuture<Money> closeSession(Session session) {
+        Route route = route(session);
+        routes.remove(session.getId());
+        return route.machine.submit(vm -> vm.closeSession(route.session));
+    }
+
+    private Route route(Session session) {
+        Route route = session == null ? null : routes.get(session.getId());
+        if (route == null) {
+            throw new IllegalArgumentException("Session is not open in this fleet");
+        }
+        return route;
+    }
+
+    /**
+     * Schedules a price book on every machine of the fleet. The machines share the one immutable book, and the price book
+     * timer swaps it in on each of them at the effective time; a book pushed with a time already past takes effect right away.
+     * The machines' executors are not used, so scheduling does not queue behind sales.
+     * @param book the price book to push
+     * @param effectiveMillis when the book comes into effect
+     * @param operator the operator pushing the book, who needs ADMIN access
+     * @return the number of machines the book was scheduled on
+     */
+    public int pushPriceBook(PriceBook book, long effectiveMillis, Operator operator) {
+        int scheduled = 0;
+        for (FleetMachine machine : machines) {
+            if (machine.getMachine().schedulePriceBook(book, effectiveMillis, operator)) {
+                scheduled++;
+            }
+        }
+        return scheduled;
+    }
+
+    /**
+     * Adds up the available stock of a category across the fleet. Each machine reports its own total
+     * on its executor, so no machine is stopped while the others are read.
+     * @param category the category to count
+     * @return a future completed with the fleet-wide stock
+     */
+    public CompletableFuture<Long> totalStock(Category category) {
+        FleetMachine[] current = machines;
+        List<CompletableFuture<Long>> parts = new ArrayList<>(current.length);
+        for (FleetMachine machine : current) {
+            parts.add(machine.submit(vm -> {
+                CategoryPartition partition = vm.getCategoryPartition(category.getName());
+                return partition == null ? 0L : partition.getTotalStock();
+            }));
+        }
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> parts.stream().mapToLong(CompletableFuture::join).sum());
+    }
+
+    /**
+     * Returns the number of sales made across the fleet. Every machine adds to its own cell of the
+     * counter, so reading it never blocks a sale.
+     * @return the fleet-wide number of sales
+     */
+    public long getSales() {
+        return sales.sum();
+    }
+
+    public long getFailedSales() {
+        return failedSales.sum();
+    }
+
+    public long getRevenueCents() {
+        return revenueCents.sum();
+    }
+
+    public double getRevenue() {
+        return getRevenueCents() / 100.0;
+    }
+
+    public int getOpenSessions() {
+        return routes.size();
+    }
+
+    public Catalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Waits for the work already handed to the machines to finish, then stops the pool if the fleet created it.
+     */
+    @Override
+    public void close() {
+        if (!ownsPool) {
+            return;
+        }
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Fleet{" +
+                "machines=" + getMachineCount() +
+                ", openSessions=" + getOpenSessions() +
+                ", sales=" + getSales() +
+                ", revenue=" + getRevenue() +
+                '}';
+    }
+}
@@ -0,0 +1,78 @@
+package org.example;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+public class FleetMachine {
+    private final int id;
+    private final VendingMachine machine;
+    private final SerialExecutor executor;
+
+    /**
+     * Wraps a machine so that everything done to it runs on its own serial executor.
+     * @param id the machine's number within its fleet
+     * @param machine the machine
+     * @param pool the pool shared by the fleet
+     */
+    FleetMachine(int id, VendingMachine machine, Executor pool) {
+        this.id = id;
+        this.machine = machine;
+        this.executor = new SerialExecutor(pool);
+    }
+
+    /**
+     * Runs an action against the machine on its executor. Actions on one machine run one at a time in
+     * submission order, so the machine never sees two threads, while different machines run in parallel.
+     * @param action the action to run
+     * @return a future completed with the action's result, or exceptionally if it threw
+     */
+    public <T> CompletableFuture<T> submit(Function<VendingMachine, T> action) {
+        return CompletableFuture.supplyAsync(() -> action.apply(machine), executor);
+    }
+
+    /**
+     * Stocks a catalog item in the machine, adding it on first use and restocking it afterwards.
+     * @param item the catalog item
+     * @param units the number of units to add
+     * @param maxCapacity the machine's capacity for the item, used when it is first added
+     * @return a future completed with the machine's product for the item
+     */
+    public CompletableFuture<Product> stock(CatalogItem item, int units, int maxCapacity) {
+        if (item == null) {
+            throw new IllegalArgumentException("Catalog item cannot be null");
+        }
+        return submit(vm -> {
+            Product product = vm.findProduct(item.getSku());
+            if (product == null) {
+                product = item.newProduct(units, maxCapacity);
+                vm.getInventory().add(product);
+            } else {
+                product.restock(units);
+            }
+            return product;
+        });
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the machine itself. Outside of submitted actions, only read from it what is safe
+     * to read concurrently, such as its category totals.
+     * @return the machine
+     */
+    public VendingMachine getMachine() {
+        return machine;
+    }
+
+    public int getQueuedActions() {
+        return executor.getQueued();
+    }
+
+    @Override
+    public String toString() {
+        return "FleetMachine{" + "id=" + id + ", queued=" + getQueuedActions() + '}';
+    }
+}
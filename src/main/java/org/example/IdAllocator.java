@@ -0,0 +1,161 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class IdAllocator {
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    private final Path file;
+    private final int blockSize;
+    /**
+     * The next id in the low 32 bits and the end of the current block in the high 32 bits,
+     * so handing out an id is a single compare-and-set.
+     */
+    private final AtomicLong block;
+    // The lowest id a newly reserved block may start at, raised by skipTo; guarded by this.
+    private int floor;
+
+    /**
+     * Creates an allocator that lives only in memory, handing out ids from 0 up.
+     */
+    public IdAllocator() {
+        this.file = null;
+        this.blockSize = Integer.MAX_VALUE;
+        this.block = new AtomicLong(pack(0, Integer.MAX_VALUE));
+    }
+
+    private IdAllocator(Path file, int blockSize) {
+        this.file = file;
+        this.blockSize = blockSize;
+        this.block = new AtomicLong(pack(0, 0));
+    }
+
+    /**
+     * Creates an allocator that reserves blocks of ids in a file. The file holds the end of the last block
+     * handed out, and it is locked while a block is reserved, so allocators in other processes sharing the file,
+     * such as the other machines of a fleet, never get the same ids. After a restart the allocator goes on
+     * from the end of the last reserved block; ids left over in that block are never used.
+     * Only one allocator per file may be open in a process.
+     * @param file the file holding the reserved ids, created if missing
+     * @param blockSize how many ids to reserve at a time
+     * @return the allocator
+     */
+    public static IdAllocator persistent(Path file, int blockSize) {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        return new IdAllocator(file, blockSize);
+    }
+
+    /**
+     * Hands out the next id. Ids are unique but, with several allocators sharing a file, not in creation order.
+     * @return a new id
+     * @throws IllegalStateException if the ids have run out
+     * @throws UncheckedIOException if a new block cannot be reserved
+     */
+    public int next() {
+        while (true) {
+            long current = block.get();
+            int next = low(current);
+            if (next < high(current)) {
+                if (block.compareAndSet(current, pack(next + 1, high(current)))) {
+                    return next;
+                }
+            } else {
+                reserveBlock(current);
+            }
+        }
+    }
+
+    /**
+     * Makes sure the allocator never hands out an id below a given one, e.g. ids another allocator has already
+     * issued in this process. Ids skipped in the current block are never used, and a persistent allocator starts
+     * its next block at the given id if the file is behind it.
+     * @param id the lowest id left to hand out
+     */
+    public void skipTo(int id) {
+        synchronized (this) {
+            floor = Math.max(floor, id);
+        }
+        while (true) {
+            long current = block.get();
+            int next = low(current);
+            int end = high(current);
+            if (next >= id) {
+                return;
+            }
+            long skipped = id <= end ? pack(id, end) : pack(end, end);
+            if (block.compareAndSet(current, skipped)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the id the next call to next will hand out, if no other thread gets there first
+     * and the current block is not used up.
+     * @return the next id
+     */
+    public int peek() {
+        return low(block.get());
+    }
+
+    private synchronized void reserveBlock(long exhausted) {
+        if (block.get() != exhausted) {
+            return;
+        }
+        if (file == null) {
+            throw new IllegalStateException("No ids left");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), 32));
+                channel.read(buffer, 0);
+                String text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII).trim();
+                int start = Math.max(text.isEmpty() ? 0 : Integer.parseInt(text), floor);
+                int end = (int) Math.min((long) start + blockSize, Integer.MAX_VALUE);
+                if (start == end) {
+                    throw new IllegalStateException("No ids left in " + file);
+                }
+                channel.truncate(0);
+                channel.write(ByteBuffer.wrap((end + System.lineSeparator()).getBytes(StandardCharsets.US_ASCII)), 0);
+                channel.force(false);
+                block.set(pack(start, end));
+            } finally {
+                lock.release();
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Not an id file: " + file, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not reserve ids in " + file, e);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    private static long pack(int next, int end) {
+        return ((long) end << 32) | (next & 0xFFFFFFFFL);
+    }
+
+    private static int low(long packed) {
+        return (int) packed;
+    }
+
+    private static int high(long packed) {
+        return (int) (packed >>> 32);
+    }
+}
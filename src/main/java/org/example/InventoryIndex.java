@@ -0,0 +1,615 @@
+package org.example;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The inventory of one machine. Changes take a single writer lock and publish a new InventorySnapshot before it is released;
+ * every read, including iteration and the sorted views, goes to the latest snapshot and takes no lock.
+ * The lists behind the snapshots are persistent, so a change costs O(log n) and shares the rest with the snapshot before it.
+ */
+public class InventoryIndex extends AbstractList<Product> implements RandomAccess {
+    private static final CategoryPartition[] NO_PARTITIONS = new CategoryPartition[0];
+
+    private final Object writeLock = new Object();
+    private final Map<Sku, Product> bySku;
+    private final ExpiryIndex expiry;
+    private final Map<Product, Long> sequence;
+    private final Map<Product, CategoryPartition> filedUnder;
+    private final Comparator<Product> categoryOrder;
+    private final Comparator<Product> nameOrder;
+    private final Comparator<Product> priceOrder;
+    private final Comparator<Product> skuOrder;
+    // The partitions touched since the last publish; only these publish their members again.
+    private final List<CategoryPartition> changedPartitions;
+    private PersistentList<Product> products;
+    private PersistentList<Product> byCategory;
+    private PersistentList<Product> byName;
+    private PersistentList<Product> byPrice;
+    private PersistentList<Product> bySkuOrder;
+    private int duplicateSkus;
+    private long nextSequence;
+    // Indexed by category id and replaced whole when it grows, so readers never see it half-built.
+    private volatile CategoryPartition[] partitions;
+    private volatile InventorySnapshot snapshot;
+    private volatile Consumer<Product> addListener;
+
+    public InventoryIndex() {
+        this.bySku = new HashMap<>();
+        this.expiry = new ExpiryIndex();
+        this.sequence = new IdentityHashMap<>();
+        this.filedUnder = new IdentityHashMap<>();
+        this.changedPartitions = new ArrayList<>();
+        this.partitions = NO_PARTITIONS;
+        this.skuOrder = Comparator
+                .comparingInt(InventorySnapshot::skuId)
+                .thenComparingLong(p -> sequence.getOrDefault(p, -1L));
+        this.categoryOrder = Comparator
+                .comparing(Product::getCategoryKey, Comparator.nullsFirst(InventoryIndex::compareCategories))
+                .thenComparingDouble(Product::getPrice)
+                .thenComparing(skuOrder);
+        this.nameOrder = Comparator
+                .comparing(Product::getName, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                .thenComparingDouble(Product::getPrice)
+                .thenComparing(skuOrder);
+        this.priceOrder = Comparator
+                .comparingDouble(Product::getPrice)
+                .thenComparing(Product::getName, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                .thenComparing(skuOrder);
+        this.products = PersistentList.empty();
+        this.byCategory = PersistentList.empty();
+        this.byName = PersistentList.empty();
+        this.byPrice = PersistentList.empty();
+        this.bySkuOrder = PersistentList.empty();
+        this.duplicateSkus = 0;
+        this.nextSequence = 0;
+        this.snapshot = InventorySnapshot.EMPTY;
+    }
+
+    public InventoryIndex(Collection<? extends Product> products) {
+        this();
+        if (products != null) {
+            addAll(products);
+        }
+    }
+
+    /**
+     * Returns the latest snapshot of the inventory. Every change publishes a new one,
+     * so readers on other threads get a consistent view without locking, however the inventory changes meanwhile.
+     * @return the current snapshot
+     */
+    public InventorySnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publishes the current state to readers. Called with the writer lock held, as the last step of every change.
+     * Nothing is copied: the snapshot takes the persistent lists as they are, and only the partitions the change
+     * touched publish their members again.
+     */
+    private void publish() {
+        for (CategoryPartition partition : changedPartitions) {
+            partition.publish();
+        }
+        changedPartitions.clear();
+        snapshot = new InventorySnapshot(snapshot.getVersion() + 1, products, byCategory, byName, byPrice,
+                bySkuOrder, duplicateSkus > 0);
+    }
+
+    private void changed(CategoryPartition partition) {
+        for (CategoryPartition p : changedPartitions) {
+            if (p == partition) {
+                return;
+            }
+        }
+        changedPartitions.add(partition);
+    }
+
+    /**
+     * Sets what is told about each product added to the inventory. It is called under the writer lock,
+     * before the snapshot holding the product is published, so it sees every product before anyone can sell it.
+     * @param addListener called once per added product, or null for none
+     */
+    public void setAddListener(Consumer<Product> addListener) {
+        this.addListener = addListener;
+    }
+
+    /**
+     * Looks up a product by its name without scanning the inventory.
+     * If several products share a name, the one added first is returned.
+     * @param name the name of the product to find
+     * @return the matching product, or null if none is stocked under that name
+     */
+    public Product findByName(String name) {
+        return snapshot.findByName(name);
+    }
+
+    /**
+     * Looks up a product by its Sku without scanning the inventory.
+     * @param sku the Sku of the product to find
+     * @return the matching product, or null if none is stocked under that Sku
+     */
+    public Product find(Sku sku) {
+        return snapshot.find(sku);
+    }
+
+    /**
+     * Adds a product unless it is already stocked, checking and adding under one lock
+     * so two threads reloading the same new product cannot both add it.
+     * @param product the product to add
+     * @return true if the product was added
+     */
+    public boolean addIfAbsent(Product product) {
+        synchronized (writeLock) {
+            if (contains(product)) {
+                return false;
+            }
+            add(product);
+            return true;
+        }
+    }
+
+    /**
+     * Removes every product that expired before the given day. Only products queued in the
+     * expiry index as expired are looked at, and the list is only compacted if one of them is still stocked.
+     * @param epochDay the current day
+     * @return the products that were removed
+     */
+    public List<Product> removeExpired(long epochDay) {
+        synchronized (writeLock) {
+            List<Product> candidates = expiry.pollExpired(epochDay);
+            if (candidates.isEmpty()) {
+                return candidates;
+            }
+            Set<Product> expired = Collections.newSetFromMap(new IdentityHashMap<>());
+            expired.addAll(candidates);
+            List<Product> removed = removeMatching(expired::contains);
+            if (!removed.isEmpty()) {
+                publish();
+            }
+            return removed;
+        }
+    }
+
+    /**
+     * Tells the expiry index that a stocked product's expiry date changed.
+     * Dates moved later are noticed on their own; dates moved earlier are only seen after this call.
+     * @param product the product whose expiry date changed
+     */
+    public void updateExpiry(Product product) {
+        if (product != null) {
+            synchronized (writeLock) {
+                expiry.add(product);
+            }
+        }
+    }
+
+    public ExpiryIndex getExpiryIndex() {
+        return expiry;
+    }
+
+    /**
+     * Changes a product's price and moves it to its new place in the sorted views.
+     * Repricing a stocked product with Product.setPrice directly would leave the views out of order.
+     * @param product the product to reprice
+     * @param price the new price
+     */
+    public void reprice(Product product, double price) {
+        synchronized (writeLock) {
+            boolean stocked = sequence.containsKey(product);
+            if (stocked) {
+                removeFromViews(product);
+            }
+            product.setPrice(price);
+            if (stocked) {
+                addToViews(product);
+                publish();
+            }
+        }
+    }
+
+    /**
+     * Reprices every stocked product in one change, such as when a price book comes into effect, and publishes one snapshot.
+     * The new prices are worked out under the writer lock, so when two calls race every product ends up priced by the later one.
+     * @param newPrice gives the new price of a product; returning its current price leaves it alone
+     */
+    public void repriceAll(ToDoubleFunction<Product> newPrice) {
+        synchronized (writeLock) {
+            boolean changed = false;
+            for (Product product : products) {
+                double price = newPrice.applyAsDouble(product);
+                if (price != product.getPrice()) {
+                    removeFromViews(product);
+                    product.setPrice(price);
+                    addToViews(product);
+                    changed = true;
+                }
+            }
+            if (changed) {
+                publish();
+            }
+        }
+    }
+
+    /**
+     * Returns the products ordered the way CategoryComparator orders them: by category, then price.
+     * The order is kept up to date as products are added, removed and repriced, so reading it never sorts.
+     * @return a read-only list from the latest snapshot
+     */
+    public List<Product> byCategory() {
+        return snapshot.getByCategory();
+    }
+
+    /**
+     * Returns the products ordered the way ProductNameComparator orders them: by name, then price.
+     * @return a read-only list from the latest snapshot
+     */
+    public List<Product> byName() {
+        return snapshot.getByName();
+    }
+
+    /**
+     * Returns the products in their natural order: by price, then name.
+     * @return a read-only list from the latest snapshot
+     */
+    public List<Product> byPrice() {
+        return snapshot.getByPrice();
+    }
+
+    /**
+     * Changes a product's category and moves it to the partition and sorted place of the new one.
+     * Changing the category of a stocked product with Product.setCategory directly would leave it
+     * counted under the old category.
+     * @param product the product to move
+     * @param category the new category name
+     */
+    public void recategorize(Product product, String category) {
+        synchronized (writeLock) {
+            CategoryPartition previous = filedUnder.get(product);
+            if (previous == null) {
+                product.setCategory(category);
+                return;
+            }
+            removeFromViews(product);
+            previous.detach(product);
+            product.setCategory(category);
+            CategoryPartition partition = partitionFor(product);
+            filedUnder.put(product, partition);
+            partition.attach(product);
+            addToViews(product);
+            publish();
+        }
+    }
+
+    /**
+     * Returns the partition holding every stocked product of a category, with its running totals.
+     * @param category the category to look up
+     * @return the partition, or null if no product of that category was ever stocked here
+     */
+    public CategoryPartition getPartition(Category category) {
+        CategoryPartition[] current = partitions;
+        if (category == null || category.getId() >= current.length) {
+            return null;
+        }
+        return current[category.getId()];
+    }
+
+    /**
+     * Returns the stocked products of one category, cheapest first, without scanning the rest of the inventory.
+     * @param category the category to list
+     * @return a read-only list, empty if nothing of that category is stocked
+     */
+    public List<Product> inCategory(Category category) {
+        CategoryPartition partition = getPartition(category);
+        return partition == null ? List.of() : partition.getProducts();
+    }
+
+    /**
+     * Finds the cheapest product of a category that still has units for sale.
+     * @param category the category to look in
+     * @return the cheapest product in stock, or null if there is none
+     */
+    public Product cheapestInStock(Category category) {
+        CategoryPartition partition = getPartition(category);
+        return partition == null ? null : partition.cheapestInStock();
+    }
+
+    /**
+     * Returns the partitions created so far. Categories that were never stocked have none.
+     * @return the partitions, ordered by category id
+     */
+    public List<CategoryPartition> getPartitions() {
+        List<CategoryPartition> result = new ArrayList<>();
+        for (CategoryPartition partition : partitions) {
+            if (partition != null) {
+                result.add(partition);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Product get(int index) {
+        return snapshot.getProducts().get(index);
+    }
+
+    @Override
+    public int size() {
+        return snapshot.size();
+    }
+
+    @Override
+    public void add(int index, Product product) {
+        if (product == null) {
+            throw new IllegalArgumentException("Product cannot be null");
+        }
+        synchronized (writeLock) {
+            products = products.plus(index, product);
+            index(product);
+            modCount++;
+            publish();
+        }
+    }
+
+    /**
+     * Adds several products, publishing one snapshot for all of them rather than one per product.
+     */
+    @Override
+    public boolean addAll(Collection<? extends Product> added) {
+        for (Product product : added) {
+            if (product == null) {
+                throw new IllegalArgumentException("Product cannot be null");
+            }
+        }
+        if (added.isEmpty()) {
+            return false;
+        }
+        synchronized (writeLock) {
+            for (Product product : added) {
+                products = products.plus(product);
+                index(product);
+            }
+            modCount++;
+            publish();
+        }
+        return true;
+    }
+
+    @Override
+    public Product set(int index, Product product) {
+        if (product == null) {
+            throw new IllegalArgumentException("Product cannot be null");
+        }
+        synchronized (writeLock) {
+            Product previous = products.get(index);
+            products = products.with(index, product);
+            unindex(previous);
+            index(product);
+            publish();
+            return previous;
+        }
+    }
+
+    @Override
+    public Product remove(int index) {
+        synchronized (writeLock) {
+            Product removed = products.get(index);
+            products = products.minus(index);
+            unindex(removed);
+            modCount++;
+            publish();
+            return removed;
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        synchronized (writeLock) {
+            int index = products.indexOf(o);
+            if (index < 0) {
+                return false;
+            }
+            remove(index);
+            return true;
+        }
+    }
+
+    /**
+     * Removes every product matching a filter, publishing one snapshot for all of them.
+     */
+    @Override
+    public boolean removeIf(Predicate<? super Product> filter) {
+        synchronized (writeLock) {
+            if (removeMatching(filter).isEmpty()) {
+                return false;
+            }
+            publish();
+            return true;
+        }
+    }
+
+    private List<Product> removeMatching(Predicate<? super Product> filter) {
+        List<Product> removed = new ArrayList<>();
+        PersistentList<Product> kept = PersistentList.empty();
+        for (Product p : products) {
+            if (filter.test(p)) {
+                removed.add(p);
+            } else {
+                kept = kept.plus(p);
+            }
+        }
+        if (removed.isEmpty()) {
+            return removed;
+        }
+        products = kept;
+        for (Product p : removed) {
+            unindex(p);
+        }
+        if (!removed.isEmpty()) {
+            modCount++;
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        return removeIf(c::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        return removeIf(p -> !c.contains(p));
+    }
+
+    /**
+     * Iterates over the current snapshot, so iterating never throws ConcurrentModificationException,
+     * even if the inventory is changed during the loop; changes show up in the next iteration.
+     * The iterator cannot remove; use remove or removeIf on the inventory instead.
+     */
+    @Override
+    public Iterator<Product> iterator() {
+        return snapshot.getProducts().iterator();
+    }
+
+    @Override
+    public ListIterator<Product> listIterator(int index) {
+        return snapshot.getProducts().listIterator(index);
+    }
+
+    @Override
+    public Spliterator<Product> spliterator() {
+        return snapshot.getProducts().spliterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Product> action) {
+        snapshot.getProducts().forEach(action);
+    }
+
+    @Override
+    public void clear() {
+        synchronized (writeLock) {
+            for (Product product : products) {
+                CategoryPartition partition = filedUnder.remove(product);
+                if (partition != null) {
+                    partition.removeMember(product);
+                    partition.detach(product);
+                    changed(partition);
+                }
+            }
+            products = PersistentList.empty();
+            bySku.clear();
+            expiry.clear();
+            sequence.clear();
+            byCategory = PersistentList.empty();
+            byName = PersistentList.empty();
+            byPrice = PersistentList.empty();
+            bySkuOrder = PersistentList.empty();
+            duplicateSkus = 0;
+            modCount++;
+            publish();
+        }
+    }
+
+    /**
+     * Checks whether the given product is stocked, using the Sku index instead of a full scan.
+     * @param o the product to look for
+     * @return true if the product is in the inventory, false otherwise
+     */
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Product product && snapshot.contains(product);
+    }
+
+    private void index(Product product) {
+        if (bySku.putIfAbsent(product.getSku(), product) != null) {
+            duplicateSkus++;
+        }
+        expiry.add(product);
+        sequence.put(product, nextSequence++);
+        bySkuOrder = bySkuOrder.plus(product, skuOrder);
+        CategoryPartition partition = partitionFor(product);
+        filedUnder.put(product, partition);
+        partition.attach(product);
+        addToViews(product);
+        Consumer<Product> listener = addListener;
+        if (listener != null) {
+            listener.accept(product);
+        }
+    }
+
+    private void unindex(Product product) {
+        removeFromViews(product);
+        CategoryPartition partition = filedUnder.remove(product);
+        if (partition != null) {
+            partition.detach(product);
+        }
+        bySkuOrder = bySkuOrder.minus(product, skuOrder);
+        sequence.remove(product);
+        Sku sku = product.getSku();
+        if (bySku.get(sku) != product) {
+            if (duplicateSkus > 0) {
+                duplicateSkus--;
+            }
+            return;
+        }
+        bySku.remove(sku);
+        if (duplicateSkus > 0) {
+            for (Product p : products) {
+                if (p.getSku() == sku) {
+                    bySku.put(sku, p);
+                    duplicateSkus--;
+                    break;
+                }
+            }
+        }
+    }
+
+    private static int compareCategories(Category a, Category b) {
+        return a == b ? 0 : a.getName().compareTo(b.getName());
+    }
+
+    /**
+     * Finds the partition a product belongs in, creating it the first time its category is stocked.
+     * A Drink or Snack without a category name of its own lands in the Drink or Snack partition.
+     */
+    private CategoryPartition partitionFor(Product product) {
+        Category category = product.getPartitionCategory();
+        int id = category.getId();
+        CategoryPartition[] current = partitions;
+        if (id < current.length && current[id] != null) {
+            return current[id];
+        }
+        CategoryPartition partition = new CategoryPartition(category, priceOrder);
+        CategoryPartition[] updated = Arrays.copyOf(current, Math.max(current.length, id + 1));
+        updated[id] = partition;
+        partitions = updated;
+        return partition;
+    }
+
+    private void addToViews(Product product) {
+        byCategory = byCategory.plus(product, categoryOrder);
+        byName = byName.plus(product, nameOrder);
+        byPrice = byPrice.plus(product, priceOrder);
+        CategoryPartition partition = filedUnder.get(product);
+        partition.addMember(product);
+        changed(partition);
+    }
+
+    /**
+     * Removes a product from the sorted views. If its price, name or category was changed behind
+     * the index's back, the comparator can no longer find it, so it is looked for by identity instead.
+     */
+    private void removeFromViews(Product product) {
+        byCategory = byCategory.minus(product, categoryOrder);
+        byName = byName.minus(product, nameOrder);
+        byPrice = byPrice.minus(product, priceOrder);
+        CategoryPartition partition = filedUnder.get(product);
+        if (partition != null) {
+            partition.removeMember(product);
+            changed(partition);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.example;
+
+import java.util.List;
+
+public final class InventorySnapshot {
+    /** The snapshot of an inventory nothing was ever added to. */
+    public static final InventorySnapshot EMPTY = new InventorySnapshot(0, PersistentList.empty(), PersistentList.empty(),
+            PersistentList.empty(), PersistentList.empty(), PersistentList.empty(), false);
+
+    private final long version;
+    private final List<Product> products;
+    private final List<Product> byCategory;
+    private final List<Product> byName;
+    private final List<Product> byPrice;
+    private final PersistentList<Product> bySku;
+    private final boolean duplicateSkus;
+
+    /**
+     * Creates an immutable view of which products an inventory holds. It can be read from any number of threads
+     * without locking while the inventory goes on changing. The lists are persistent, so a snapshot shares
+     * nearly all of its structure with the one before it. The products themselves are shared, so their stock
+     * and price are read as they are now.
+     * @param version the inventory version this snapshot shows; each change to the inventory publishes the next one
+     * @param products the stocked products, in inventory order
+     * @param byCategory the same products by category, then price
+     * @param byName the same products by name, then price
+     * @param byPrice the same products by price, then name
+     * @param bySku the same products by Sku id, then in the order they were added
+     * @param duplicateSkus whether two stocked products share a Sku
+     */
+    InventorySnapshot(long version, PersistentList<Product> products, PersistentList<Product> byCategory,
+                      PersistentList<Product> byName, PersistentList<Product> byPrice,
+                      PersistentList<Product> bySku, boolean duplicateSkus) {
+        this.version = version;
+        this.products = products;
+        this.byCategory = byCategory;
+        this.byName = byName;
+        this.byPrice = byPrice;
+        this.bySku = bySku;
+        this.duplicateSkus = duplicateSkus;
+    }
+
+    /**
+     * Looks up a product by its Sku. If several products share a Sku, the one added first is returned.
+     * @param sku the Sku of the product to find
+     * @return the matching product, or null if the snapshot holds none
+     */
+    public Product find(Sku sku) {
+        if (sku == null) {
+            return null;
+        }
+        Product found = bySku.ceiling(p -> Integer.compare(skuId(p), sku.getId()));
+        return found != null && skuId(found) == sku.getId() ? found : null;
+    }
+
+    static int skuId(Product product) {
+        return product.getSku() == null ? -1 : product.getSku().getId();
+    }
+
+    /**
+     * Looks up a product by its name.
+     * @param name the name of the product to find
+     * @return the matching product, or null if the snapshot holds none
+     */
+    public Product findByName(String name) {
+        return find(Sku.find(name));
+    }
+
+    /**
+     * Checks whether the snapshot holds a product, using the Sku index instead of a full scan.
+     * @param product the product to look for
+     * @return true if the product is in the snapshot
+     */
+    public boolean contains(Product product) {
+        if (product == null) {
+            return false;
+        }
+        Product found = find(product.getSku());
+        if (found == null) {
+            return false;
+        }
+        return found == product || found.equals(product) || duplicateSkus && products.contains(product);
+    }
+
+    /**
+     * Returns the stocked product a caller's product stands for: the product itself if it is stocked,
+     * otherwise the stocked product with the same Sku. Stock changes should go to the returned product,
+     * since a copy built by the caller has a stock record of its own.
+     * @param product the product to resolve
+     * @return the stocked product, or null if none has that Sku
+     */
+    public Product resolve(Product product) {
+        if (product == null) {
+            return null;
+        }
+        Product found = find(product.getSku());
+        if (found == null || found == product || !duplicateSkus) {
+            return found;
+        }
+        return bySku.indexOfSame(product) >= 0 ? product : found;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the products of the snapshot.
+     * @return a read-only list, in inventory order
+     */
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    /**
+     * Returns the products ordered the way CategoryComparator orders them: by category, then price.
+     * @return a read-only list
+     */
+    public List<Product> getByCategory() {
+        return byCategory;
+    }
+
+    /**
+     * Returns the products ordered the way ProductNameComparator orders them: by name, then price.
+     * @return a read-only list
+     */
+    public List<Product> getByName() {
+        return byName;
+    }
+
+    /**
+     * Returns the products in their natural order: by price, then name.
+     * @return a read-only list
+     */
+    public List<Product> getByPrice() {
+        return byPrice;
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    @Override
+    public String toString() {
+        return "InventorySnapshot{" +
+                "version=" + version +
+                ", products=" + products +
+                '}';
+    }
+}
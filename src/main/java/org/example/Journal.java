@@ -0,0 +1,518 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+public class Journal implements Closeable {
+    public static final byte SALE = 1;
+    /** A sale about to be charged, written ahead of it. */
+    public static final byte INTENT = 2;
+    /** The sale of an INTENT went through. */
+    public static final byte COMMIT = 3;
+    /** The sale of an INTENT was called off. */
+    public static final byte ABORT = 4;
+    /** A batch of products restocked together. */
+    public static final byte RESTOCK = 5;
+    /** A product added to the inventory, with enough of it to add it again. */
+    public static final byte ADD = 6;
+
+    public static final long DEFAULT_SEGMENT_BYTES = 16L * 1024 * 1024;
+    public static final int DEFAULT_GROUP_SIZE = 64;
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 10;
+
+    private static final ScheduledExecutorService SYNCER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "journal-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final int HEADER_BYTES = Integer.BYTES + 1;
+    private static final int TRAILER_BYTES = Integer.BYTES;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    public enum FsyncPolicy {
+        /** Write and fsync every record before append returns. */
+        ALWAYS,
+        /**
+         * Buffer records and write them with one fsync once a group is full, on flush, or when the first record
+         * of a partial group has waited one sync interval.
+         */
+        GROUP,
+        /**
+         * Buffer records and write them when the buffer fills, with a background fsync every sync interval
+         * and on flush. Appends never wait for the disk; a crash loses at most the last interval.
+         */
+        INTERVAL,
+        /** Buffer records and leave syncing to the operating system. */
+        NEVER
+    }
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        void onRecord(byte type, ByteBuffer payload);
+    }
+
+    /**
+     * A point in the journal: a segment and a byte offset inside it.
+     */
+    public static final class Position {
+        public static final Position START = new Position(0, 0);
+
+        private final int segment;
+        private final long offset;
+
+        public Position(int segment, long offset) {
+            if (segment < 0 || offset < 0) {
+                throw new IllegalArgumentException("Journal position cannot be negative");
+            }
+            this.segment = segment;
+            this.offset = offset;
+        }
+
+        public int getSegment() {
+            return segment;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        @Override
+        public String toString() {
+            return "Position{" +
+                    "segment=" + segment +
+                    ", offset=" + offset +
+                    '}';
+        }
+    }
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final FsyncPolicy fsyncPolicy;
+    private final int groupSize;
+    private final long syncIntervalMillis;
+    private final CRC32 crc;
+    // Held by the thread forcing records for appendDurable, so callers queued behind it share the next fsync.
+    private final Object syncLock = new Object();
+    private ByteBuffer buffer;
+    private FileChannel channel;
+    private int segmentIndex;
+    private long segmentBytes;
+    private int pendingRecords;
+    private long writes;
+    private long syncedWrites;
+    private boolean closed;
+    private boolean lingering;
+    private volatile IOException syncFailure;
+    private final ScheduledFuture<?> syncTask;
+
+    public Journal(Path directory) {
+        this(directory, DEFAULT_SEGMENT_BYTES, FsyncPolicy.GROUP, DEFAULT_GROUP_SIZE);
+    }
+
+    public Journal(Path directory, long maxSegmentBytes, FsyncPolicy fsyncPolicy, int groupSize) {
+        this(directory, maxSegmentBytes, fsyncPolicy, groupSize, DEFAULT_SYNC_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Opens a journal, creating the directory if needed and appending after the last intact record.
+     * @param directory the journal directory
+     * @param maxSegmentBytes the size at which a new segment is started
+     * @param fsyncPolicy when records are synced to disk
+     * @param groupSize how many records make a group under the GROUP policy
+     * @param syncIntervalMillis how often the INTERVAL policy syncs, and how long the GROUP policy lets a partial
+     *                           group wait before syncing it
+     */
+    public Journal(Path directory, long maxSegmentBytes, FsyncPolicy fsyncPolicy, int groupSize, long syncIntervalMillis) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Journal directory cannot be null");
+        }
+        if (maxSegmentBytes <= HEADER_BYTES + TRAILER_BYTES) {
+            throw new IllegalArgumentException("Segment size is too small.");
+        }
+        if (groupSize <= 0) {
+            throw new IllegalArgumentException("Group size must be positive.");
+        }
+        if (syncIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Sync interval must be positive.");
+        }
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.fsyncPolicy = fsyncPolicy == null ? FsyncPolicy.GROUP : fsyncPolicy;
+        this.groupSize = groupSize;
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.crc = new CRC32();
+        this.buffer = ByteBuffer.allocate(8192);
+        try {
+            Files.createDirectories(directory);
+            List<Path> existing = segments(directory);
+            segmentIndex = existing.isEmpty() ? 0 : indexOf(existing.get(existing.size() - 1));
+            openSegment(segmentIndex);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open journal at " + directory, e);
+        }
+        this.syncTask = this.fsyncPolicy == FsyncPolicy.INTERVAL
+                ? SYNCER.scheduleAtFixedRate(this::sync, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS)
+                : null;
+    }
+
+    /**
+     * Appends one record to the journal. Records are only ever written once, at the end of the current segment.
+     * Depending on the fsync policy the record may still be buffered when this returns; call flush to force it out.
+     * @param type the kind of record, e.g. SALE
+     * @param payload the record contents
+     */
+    public synchronized void append(byte type, byte[] payload) {
+        if (payload == null) {
+            throw new IllegalArgumentException("Payload cannot be null");
+        }
+        IOException failure = syncFailure;
+        if (failure != null) {
+            throw new UncheckedIOException("Could not sync journal at " + directory, failure);
+        }
+        int frameBytes = HEADER_BYTES + payload.length + TRAILER_BYTES;
+        if (segmentBytes + buffer.position() > 0 && segmentBytes + buffer.position() + frameBytes > maxSegmentBytes) {
+            flush();
+            rollSegment();
+        }
+        ensureCapacity(frameBytes);
+        crc.reset();
+        crc.update(type);
+        crc.update(payload);
+        buffer.putInt(payload.length).put(type).put(payload).putInt((int) crc.getValue());
+        pendingRecords++;
+
+        if (fsyncPolicy == FsyncPolicy.ALWAYS || pendingRecords >= groupSize) {
+            flush();
+        } else if (fsyncPolicy == FsyncPolicy.GROUP && !lingering) {
+            lingering = true;
+            SYNCER.schedule(this::linger, syncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Appends one record and waits until it is synced to disk, whatever the policy except NEVER.
+     * Callers that arrive while another one's fsync is running wait for it and are then synced together,
+     * so concurrent durable appends share fsyncs instead of taking one each.
+     * @param type the kind of record, e.g. INTENT
+     * @param payload the record contents
+     */
+    public void appendDurable(byte type, byte[] payload) {
+        long written;
+        synchronized (this) {
+            append(type, payload);
+            write();
+            written = writes;
+        }
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            awaitSync(written);
+        }
+    }
+
+    /**
+     * Waits until the given write is synced, syncing it and everything written since if no one else has.
+     */
+    private void awaitSync(long target) {
+        synchronized (syncLock) {
+            FileChannel toSync;
+            long upTo;
+            synchronized (this) {
+                if (syncedWrites >= target) {
+                    return;
+                }
+                write();
+                upTo = writes;
+                toSync = channel;
+            }
+            try {
+                toSync.force(false);
+                synchronized (this) {
+                    syncedWrites = Math.max(syncedWrites, upTo);
+                }
+            } catch (ClosedChannelException e) {
+                // The segment was rolled or the journal closed, both of which flush and sync it first.
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not sync journal at " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * Writes every buffered record to the current segment as one group, syncing it to disk unless the policy is NEVER.
+     */
+    public synchronized void flush() {
+        write();
+        if (syncedWrites < writes && fsyncPolicy != FsyncPolicy.NEVER) {
+            try {
+                channel.force(false);
+                syncedWrites = writes;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write to journal at " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * Writes the buffered records to the current segment without syncing them.
+     */
+    private void write() {
+        if (buffer.position() == 0) {
+            return;
+        }
+        try {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                segmentBytes += channel.write(buffer);
+            }
+            buffer.clear();
+            pendingRecords = 0;
+            writes++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to journal at " + directory, e);
+        }
+    }
+
+    /**
+     * The GROUP policy's linger timer: syncs a partial group once its first record has waited one sync interval.
+     */
+    private void linger() {
+        synchronized (this) {
+            lingering = false;
+        }
+        sync();
+    }
+
+    /**
+     * The INTERVAL policy's background sync, also used by the GROUP policy's linger timer. Records are written under the journal's lock, but the fsync is done
+     * outside it so appends carry on meanwhile. A failure is kept and thrown by the next append.
+     */
+    private void sync() {
+        FileChannel toSync;
+        long upTo;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            try {
+                write();
+            } catch (UncheckedIOException e) {
+                syncFailure = e.getCause();
+                return;
+            }
+            if (syncedWrites == writes) {
+                return;
+            }
+            upTo = writes;
+            toSync = channel;
+        }
+        try {
+            toSync.force(false);
+            synchronized (this) {
+                syncedWrites = Math.max(syncedWrites, upTo);
+            }
+        } catch (ClosedChannelException e) {
+            // The segment was rolled or the journal closed, both of which flush and sync it first.
+        } catch (IOException e) {
+            syncFailure = e;
+        }
+    }
+
+    /**
+     * Returns the position just after the last appended record, including records still buffered.
+     * Replaying from here skips everything appended so far.
+     * @return the current end of the journal
+     */
+    public synchronized Position position() {
+        return new Position(segmentIndex, segmentBytes + buffer.position());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (syncTask != null) {
+            syncTask.cancel(false);
+        }
+        closed = true;
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close journal at " + directory, e);
+        }
+    }
+
+    /**
+     * Reads every intact record of every segment, oldest first.
+     * Reading stops at the first torn or corrupt record, which is what a crash in the middle of a write leaves behind.
+     * @param directory the journal directory
+     * @param handler called once per record
+     * @return the number of records read
+     */
+    public static long replay(Path directory, RecordHandler handler) {
+        return replay(directory, Position.START, handler);
+    }
+
+    /**
+     * Reads every intact record from the given position on. Segments are memory-mapped rather than copied,
+     * so payloads handed to the handler are only valid during the call.
+     * @param directory the journal directory
+     * @param from where to start, e.g. a position saved with a snapshot
+     * @param handler called once per record
+     * @return the number of records read
+     */
+    public static long replay(Path directory, Position from, RecordHandler handler) {
+        long[] records = {0};
+        try {
+            for (Path segment : segments(directory)) {
+                int index = indexOf(segment);
+                if (index < from.getSegment()) {
+                    continue;
+                }
+                ByteBuffer data;
+                try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+                    data = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                }
+                if (index == from.getSegment()) {
+                    if (from.getOffset() > data.limit()) {
+                        break;
+                    }
+                    data.position((int) from.getOffset());
+                }
+                int valid = scan(data, (type, payload) -> {
+                    handler.onRecord(type, payload);
+                    records[0]++;
+                });
+                if (valid < data.limit()) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read journal at " + directory, e);
+        }
+        return records[0];
+    }
+
+    /**
+     * Walks the records of one segment, checking each one's length and checksum.
+     * @param data the segment contents
+     * @param handler called once per intact record, may be null
+     * @return the number of bytes taken up by intact records
+     */
+    static int scan(ByteBuffer data, RecordHandler handler) {
+        CRC32 check = new CRC32();
+        int position = data.position();
+        while (data.limit() - position >= HEADER_BYTES + TRAILER_BYTES) {
+            int length = data.getInt(position);
+            if (length < 0 || data.limit() - position - HEADER_BYTES - TRAILER_BYTES < length) {
+                break;
+            }
+            byte type = data.get(position + Integer.BYTES);
+            ByteBuffer payload = data.slice(position + HEADER_BYTES, length);
+            check.reset();
+            check.update(type);
+            check.update(payload.duplicate());
+            if ((int) check.getValue() != data.getInt(position + HEADER_BYTES + length)) {
+                break;
+            }
+            if (handler != null) {
+                handler.onRecord(type, payload);
+            }
+            position += HEADER_BYTES + length + TRAILER_BYTES;
+        }
+        return position;
+    }
+
+    /**
+     * Lists the segment files of a journal directory in the order they were written.
+     * @param directory the journal directory
+     * @return the segment paths, empty if the directory does not exist
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .forEach(segments::add);
+        }
+        return segments;
+    }
+
+    private void rollSegment() {
+        try {
+            channel.close();
+            segmentIndex++;
+            openSegment(segmentIndex);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll journal segment at " + directory, e);
+        }
+    }
+
+    /**
+     * Opens a segment for appending. A torn record left at the end by a crash is cut off first,
+     * so new records are never written after unreadable bytes.
+     */
+    private void openSegment(int index) throws IOException {
+        Path segment = directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size > 0) {
+            ByteBuffer existing = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int valid = scan(existing, null);
+            if (valid < size) {
+                channel.truncate(valid);
+            }
+        }
+        segmentBytes = channel.size();
+        channel.position(segmentBytes);
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        if (buffer.position() > 0) {
+            if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+                write();
+            } else {
+                flush();
+            }
+        }
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocate(bytes);
+        }
+    }
+
+    private static int indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+}
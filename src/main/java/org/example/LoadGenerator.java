@@ -0,0 +1,227 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulates many buyers talking to a SessionServer at once, each on its own connection and virtual thread,
+ * and reports the latency of their requests.
+ */
+public class LoadGenerator {
+    /** The requests one simulated purchase is made of. */
+    private static final String[] PURCHASE = {"CHOOSE Chips", "MONEY 1.00 1", "MONEY 0.50 1", "BUY"};
+
+    /**
+     * The outcome of a run. Latencies are per request, from sending the line to reading the reply.
+     */
+    public static final class Report {
+        private final long[] sortedLatencies;
+        private final long rejected;
+        private final long failedBuyers;
+        private final long elapsedNanos;
+
+        Report(long[] sortedLatencies, long rejected, long failedBuyers, long elapsedNanos) {
+            this.sortedLatencies = sortedLatencies;
+            this.rejected = rejected;
+            this.failedBuyers = failedBuyers;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getRequests() {
+            return sortedLatencies.length;
+        }
+
+        /**
+         * Returns the number of requests the server answered with ERR, such as purchases of sold-out stock.
+         * @return the number of rejected requests
+         */
+        public long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * Returns the number of simulated buyers that could not connect or lost their connection.
+         * @return the number of failed buyers
+         */
+        public long getFailedBuyers() {
+            return failedBuyers;
+        }
+
+        public long getPercentileNanos(double percentile) {
+            return percentile(sortedLatencies, percentile);
+        }
+
+        public double getThroughputPerSecond() {
+            return elapsedNanos == 0 ? 0 : sortedLatencies.length * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests in %.2f s (%.0f/s), %d rejected, %d buyers failed%n"
+                            + "latency p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                    getRequests(), elapsedNanos / 1e9, getThroughputPerSecond(), rejected, failedBuyers,
+                    getPercentileNanos(50) / 1e6, getPercentileNanos(99) / 1e6, getPercentileNanos(100) / 1e6);
+        }
+    }
+
+    private final int port;
+
+    /**
+     * Creates a generator for a server on the loopback address.
+     * @param port the server's port
+     */
+    public LoadGenerator(int port) {
+        this.port = port;
+    }
+
+    /**
+     * Connects every buyer first, then lets them all start buying at the same moment.
+     * Each buyer needs its own socket, so the process's open-file limit caps how many can run at once.
+     * @param buyers the number of simulated buyers
+     * @param purchases the number of purchases each buyer makes
+     * @return the latencies and failures seen
+     * @throws InterruptedException if interrupted while waiting for the buyers
+     */
+    public Report run(int buyers, int purchases) throws InterruptedException {
+        if (buyers <= 0 || purchases <= 0) {
+            throw new IllegalArgumentException("Buyers and purchases must be positive");
+        }
+        long[][] latencies = new long[buyers][];
+        LongAdder rejected = new LongAdder();
+        LongAdder failed = new LongAdder();
+        CountDownLatch connected = new CountDownLatch(buyers);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>(buyers);
+        Thread.Builder builder = Thread.ofVirtual().name("buyer-", 0);
+        for (int i = 0; i < buyers; i++) {
+            int buyer = i;
+            threads.add(builder.start(() -> {
+                latencies[buyer] = simulate(buyer, purchases, connected, go, rejected, failed);
+            }));
+        }
+        connected.await();
+        long start = System.nanoTime();
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        int total = 0;
+        for (long[] l : latencies) {
+            total += l.length;
+        }
+        long[] all = new long[total];
+        int at = 0;
+        for (long[] l : latencies) {
+            System.arraycopy(l, 0, all, at, l.length);
+            at += l.length;
+        }
+        Arrays.sort(all);
+        return new Report(all, rejected.sum(), failed.sum(), elapsed);
+    }
+
+    private long[] simulate(int buyer, int purchases, CountDownLatch connected, CountDownLatch go,
+                            LongAdder rejected, LongAdder failed) {
+        long[] latencies = new long[purchases * PURCHASE.length];
+        int count = 0;
+        Socket socket;
+        try {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setTcpNoDelay(true);
+        } catch (IOException e) {
+            failed.increment();
+            return new long[0];
+        } finally {
+            connected.countDown();
+        }
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            go.await();
+            request(in, out, "BUYER buyer" + buyer);
+            for (int p = 0; p < purchases; p++) {
+                for (String line : PURCHASE) {
+                    long start = System.nanoTime();
+                    String reply = request(in, out, line);
+                    latencies[count++] = System.nanoTime() - start;
+                    if (!reply.startsWith("OK")) {
+                        rejected.increment();
+                    }
+                }
+            }
+            request(in, out, "QUIT");
+        } catch (IOException e) {
+            failed.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static String request(BufferedReader in, BufferedWriter out, String line) throws IOException {
+        out.write(line);
+        out.newLine();
+        out.flush();
+        String reply = in.readLine();
+        if (reply == null) {
+            throw new IOException("Server closed the connection");
+        }
+        return reply;
+    }
+
+    /**
+     * Picks a percentile from sorted values using the nearest-rank method.
+     * @param sorted the values in ascending order
+     * @param percentile the percentile, from 0 to 100
+     * @return the value at that percentile, or 0 if there are no values
+     */
+    static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    /**
+     * Runs a load test. Arguments: [buyers] [purchases per buyer] [port].
+     * Without a port, a server for a freshly stocked machine is started in this process.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int buyers = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int purchases = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        SessionServer server = null;
+        int port;
+        if (args.length > 2) {
+            port = Integer.parseInt(args[2]);
+        } else {
+            Displays.set(Displays.NO_OP);
+            VendingMachine vm = new VendingMachine();
+            vm.setDisplay(Displays.NO_OP);
+            int units = buyers * purchases;
+            vm.getInventory().add(new Snack("Chips", 1.50, "Snack", units, units, "150 kcal", LocalDate.now().plusDays(30), 50));
+            server = new SessionServer(vm, Map.of());
+            port = server.start(0);
+        }
+        System.out.printf("Simulating %d buyers making %d purchases each against port %d%n", buyers, purchases, port);
+        Report report = new LoadGenerator(port).run(buyers, purchases);
+        System.out.println(report);
+        if (server != null) {
+            server.close();
+        }
+    }
+}
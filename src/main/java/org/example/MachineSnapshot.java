@@ -0,0 +1,363 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+
+public class MachineSnapshot {
+    private static final int MAGIC = 0x564D534E;
+    private static final int VERSION = 3;
+    // Version 1 kept the sales as log lines, which have no buyer and only whole seconds.
+    private static final int LOG_LINE_VERSION = 1;
+    // Versions before 3 have no profit ledger.
+    private static final int LEDGER_VERSION = 3;
+    private static final long NO_EXPIRY = Long.MIN_VALUE;
+
+    private static final byte KIND_PRODUCT = 0;
+    private static final byte KIND_DRINK = 1;
+    private static final byte KIND_SNACK = 2;
+
+    private final List<Product> inventory;
+    private final Money machineFloat;
+    private final List<SaleRecord> sales;
+    private final Journal.Position journalPosition;
+    private final ProfitLedger profitLedger;
+
+    public MachineSnapshot(List<Product> inventory, Money machineFloat, List<SaleRecord> sales, Journal.Position journalPosition) {
+        this(inventory, machineFloat, sales, journalPosition, null);
+    }
+
+    public MachineSnapshot(List<Product> inventory, Money machineFloat, List<SaleRecord> sales, Journal.Position journalPosition,
+                           ProfitLedger profitLedger) {
+        this.inventory = inventory == null ? new ArrayList<>() : inventory;
+        this.machineFloat = machineFloat == null ? new Money() : machineFloat;
+        this.sales = sales == null ? new ArrayList<>() : sales;
+        this.journalPosition = journalPosition == null ? Journal.Position.START : journalPosition;
+        this.profitLedger = profitLedger == null ? new ProfitLedger() : profitLedger;
+    }
+
+    /**
+     * Takes a snapshot of a machine's inventory, float, recent sales and profit totals, along with how far its journal got.
+     * Sales that are in flight while the snapshot is taken may be missed, so take it while the machine is idle.
+     * @param vm the machine to snapshot
+     * @return the snapshot
+     */
+    public static MachineSnapshot capture(VendingMachine vm) {
+        Journal journal = vm.getJournal();
+        Journal.Position position = journal == null ? Journal.Position.START : journal.position();
+        List<SaleRecord> sales = new ArrayList<>(vm.getSalesStore().newest(VendingMachine.MAX_SALES_LOG));
+        return new MachineSnapshot(new ArrayList<>(vm.getInventory()), vm.getMachineFloat(), sales, position, vm.getProfitLedger());
+    }
+
+    /**
+     * Writes the snapshot in binary form. Sales are written field by field, as the sales store holds them,
+     * so buyer ids and milliseconds survive. The file is written next to the target, forced to disk and moved into place,
+     * so a crash never leaves a half-written snapshot behind.
+     * @param file where to write the snapshot
+     */
+    public void writeTo(Path file) {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(journalPosition.getSegment());
+                out.writeLong(journalPosition.getOffset());
+
+                out.writeInt(inventory.size());
+                for (Product p : inventory) {
+                    writeProduct(out, p);
+                }
+
+                Map<Double, Integer> cash = machineFloat.getCashMap();
+                out.writeInt(cash.size());
+                for (Map.Entry<Double, Integer> entry : cash.entrySet()) {
+                    out.writeInt((int) Money.toCents(entry.getKey()));
+                    out.writeInt(entry.getValue());
+                }
+
+                out.writeInt(sales.size());
+                for (SaleRecord sale : sales) {
+                    out.writeLong(sale.getEpochMillis());
+                    out.writeLong(sale.getPriceCents());
+                    out.writeInt(sale.getBuyerId());
+                    writeString(out, sale.getProductName());
+                }
+
+                profitLedger.writeTo(out);
+                out.flush();
+                // The move below can reach the disk before the data does; without this a crash could leave an empty snapshot.
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write snapshot to " + file, e);
+        }
+    }
+
+    /**
+     * Reads a snapshot written by writeTo, memory-mapping the file instead of streaming it.
+     * Snapshots from before sales were stored field by field are still read; their sales have no buyer.
+     * Snapshots from before the profit ledger was stored come back with an empty ledger.
+     * @param file the snapshot file
+     * @return the snapshot
+     * @throws IllegalArgumentException if the file is not a snapshot
+     */
+    public static MachineSnapshot readFrom(Path file) {
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read snapshot at " + file, e);
+        }
+        if (in.remaining() < Integer.BYTES * 2 || in.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a vending machine snapshot: " + file);
+        }
+        int version = in.getInt();
+        if (version < LOG_LINE_VERSION || version > VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot version " + version + ": " + file);
+        }
+        Journal.Position position = new Journal.Position(in.getInt(), in.getLong());
+
+        int products = in.getInt();
+        List<Product> inventory = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            inventory.add(readProduct(in));
+        }
+
+        Money machineFloat = new Money();
+        int slots = in.getInt();
+        for (int i = 0; i < slots; i++) {
+            machineFloat.add(in.getInt(), in.getInt());
+        }
+
+        int count = in.getInt();
+        List<SaleRecord> sales = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (version == LOG_LINE_VERSION) {
+                SaleRecord sale = SaleRecord.parseLogLine(readString(in));
+                if (sale != null) {
+                    sales.add(sale);
+                }
+                continue;
+            }
+            long epochMillis = in.getLong();
+            long priceCents = in.getLong();
+            int buyerId = in.getInt();
+            sales.add(new SaleRecord(epochMillis, priceCents, buyerId, readString(in)));
+        }
+
+        ProfitLedger profitLedger = new ProfitLedger();
+        if (version >= LEDGER_VERSION) {
+            profitLedger.readFrom(in);
+        }
+        return new MachineSnapshot(inventory, machineFloat, sales, position, profitLedger);
+    }
+
+    /**
+     * Converts a text history written by VendingMachine.writeToFile into a snapshot and a journal.
+     * The text format only has name, price and stock, so converted products get the "Unknown" category
+     * and a max capacity of at least their stock. Each transaction line becomes a sale in the journal,
+     * and the snapshot starts after them because the stock in the file already counts those sales.
+     * @param historyFile the text history, e.g. VendingMachine_History.txt
+     * @param snapshotFile where to write the snapshot
+     * @param journalDirectory the journal directory to append the sales to
+     * @return the snapshot that was written
+     */
+    public static MachineSnapshot convertHistory(Path historyFile, Path snapshotFile, Path journalDirectory) {
+        List<Product> inventory = new ArrayList<>();
+        Deque<SaleRecord> recentSales = new ArrayDeque<>();
+        Journal.Position position;
+
+        try (BufferedReader reader = Files.newBufferedReader(historyFile, StandardCharsets.UTF_8);
+             Journal journal = new Journal(journalDirectory)) {
+            boolean inTransactions = false;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (line.startsWith("=== ")) {
+                    inTransactions = line.contains("TRANSACTIONS");
+                    continue;
+                }
+                if (!inTransactions) {
+                    Product product = parseInventoryLine(line);
+                    if (product != null) {
+                        inventory.add(product);
+                    }
+                    continue;
+                }
+                SaleRecord sale = SaleRecord.parseLogLine(line);
+                if (sale == null) {
+                    continue;
+                }
+                journal.append(Journal.SALE, sale.encode());
+                recentSales.addLast(sale);
+                if (recentSales.size() > VendingMachine.MAX_SALES_LOG) {
+                    recentSales.removeFirst();
+                }
+            }
+            journal.flush();
+            position = journal.position();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read history at " + historyFile, e);
+        }
+
+        MachineSnapshot snapshot = new MachineSnapshot(inventory, new Money(), new ArrayList<>(recentSales), position);
+        snapshot.writeTo(snapshotFile);
+        return snapshot;
+    }
+
+    private static Product parseInventoryLine(String line) {
+        int stockComma = line.lastIndexOf(',');
+        int priceComma = stockComma <= 0 ? -1 : line.lastIndexOf(',', stockComma - 1);
+        if (priceComma <= 0) {
+            return null;
+        }
+        try {
+            String name = line.substring(0, priceComma);
+            double price = Double.parseDouble(line.substring(priceComma + 1, stockComma).trim());
+            int stock = Integer.parseInt(line.substring(stockComma + 1).trim());
+            return new Product(name, price, "Unknown", stock, Math.max(stock, 5), "", null);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Encodes one product the way snapshots store it, for the journal's ADD records.
+     * @param product the product to encode
+     * @return the encoded product
+     */
+    static byte[] encodeProduct(Product product) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeProduct(out, product);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode " + product.getName(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a product written by encodeProduct.
+     * @param payload the encoded product
+     * @return a new product with the stored stock
+     */
+    static Product decodeProduct(ByteBuffer payload) {
+        return readProduct(payload.duplicate());
+    }
+
+    private static void writeProduct(DataOutputStream out, Product p) throws IOException {
+        if (p instanceof Drink drink) {
+            out.writeByte(KIND_DRINK);
+            out.writeInt(drink.getVolumeInML());
+        } else if (p instanceof Snack snack) {
+            out.writeByte(KIND_SNACK);
+            out.writeInt(snack.getWeightInGrams());
+        } else {
+            out.writeByte(KIND_PRODUCT);
+            out.writeInt(0);
+        }
+        writeString(out, p.getName());
+        writeString(out, p.getCategory());
+        writeString(out, p.getNutritionalInfo());
+        out.writeLong(Money.toCents(p.getPrice()));
+        out.writeInt(p.getStock());
+        out.writeInt(p.getMaxCapacity());
+        out.writeLong(p.getExpiryDate() == null ? NO_EXPIRY : p.getExpiryDate().toEpochDay());
+    }
+
+    private static Product readProduct(ByteBuffer in) {
+        byte kind = in.get();
+        int extra = in.getInt();
+        String name = readString(in);
+        String category = readString(in);
+        String nutritionalInfo = readString(in);
+        double price = in.getLong() / 100.0;
+        int stock = in.getInt();
+        int maxCapacity = in.getInt();
+        long expiry = in.getLong();
+        LocalDate expiryDate = expiry == NO_EXPIRY ? null : LocalDate.ofEpochDay(expiry);
+        return switch (kind) {
+            case KIND_DRINK -> new Drink(name, price, category, stock, maxCapacity, nutritionalInfo, expiryDate, extra);
+            case KIND_SNACK -> new Snack(name, price, category, stock, maxCapacity, nutritionalInfo, expiryDate, extra);
+            default -> new Product(name, price, category, stock, maxCapacity, nutritionalInfo, expiryDate);
+        };
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = StandardCharsets.UTF_8.decode(in.slice(in.position(), length)).toString();
+        in.position(in.position() + length);
+        return value;
+    }
+
+    public List<Product> getInventory() {
+        return inventory;
+    }
+
+    public Money getMachineFloat() {
+        return machineFloat;
+    }
+
+    /**
+     * Returns the recent sales, oldest first.
+     * @return the sales
+     */
+    public List<SaleRecord> getSales() {
+        return sales;
+    }
+
+    /**
+     * Returns the recent sales formatted as sales log lines.
+     * @return one line per sale, oldest first
+     */
+    public List<String> getSalesLog() {
+        List<String> lines = new ArrayList<>(sales.size());
+        for (SaleRecord sale : sales) {
+            lines.add(sale.toLogLine());
+        }
+        return lines;
+    }
+
+    public Journal.Position getJournalPosition() {
+        return journalPosition;
+    }
+
+    public ProfitLedger getProfitLedger() {
+        return profitLedger;
+    }
+}
@@ -1,5 +1,6 @@
 package org.example;
 
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -9,12 +10,15 @@ public class Main {
 
         // Initialize vending machine and products
         VendingMachine vm = new VendingMachine();
+        Path data = vm.getDataDirectory(); // untracked; set -Dvendingmachine.dataDir to move it
+        vm.setJournal(new Journal(data.resolve("journal")));
         List<Product> products = new ArrayList<>();
         products.add(new Snack("Chips", 1.50, "Snack", 5, 10, "150 kcal", LocalDate.now().plusDays(30), 50));
         products.add(new Drink("Cola", 2.00, "Drink", 3, 8, "120 kcal", LocalDate.now().plusDays(30), 500));
         products.add(new Drink("Pepsi", 2.00, "Drink", 6, 8, "130 kcal", LocalDate.now().plusDays(-1), 500)); // Expired
         products.add(new Snack("Candy", 1.00, "Snack", 7, 15, "200 kcal", LocalDate.now().plusDays(60), 30));
         vm.setInventory(products);
+        vm.getProfitLedger().setUnitCost(Sku.of("Chips"), 60); // operator's cost per bag, for the profit sheet
 
         System.out.println("\n=== Feature 1: Inventory Management ===");
         System.out.println("Initial Inventory:");
@@ -57,7 +61,8 @@ public class Main {
         buyer.chooseProduct("Chips", vm.getInventory());
         Money money = new Money();
         Map<Double, Integer> payment = new HashMap<>();
-        payment.put(2.0, 1); // Exact amount to avoid change issues
+        payment.put(1.0, 1); // Exact amount to avoid change issues
+        payment.put(0.5, 1);
         money.add(payment);
         vm.addMoney(money);
         System.out.println("Buyer purchases Chips ($1.50) with $1.50 (exact amount):");
@@ -79,22 +84,30 @@ public class Main {
         // Feature 4: Product Sorting
         System.out.println("\n=== Feature 4: Product Sorting ===");
         System.out.println("Sorted by Category:");
-        List<Product> sortedByCategory = new ArrayList<>(vm.getInventory());
-        sortedByCategory.sort(new CategoryComparator());
-        for (Product p : sortedByCategory) {
+        for (Product p : vm.getInventoryByCategory()) {
             System.out.println(p.displayLabel() + ", Stock: " + p.getStock());
         }
         System.out.println("\nSorted by Name:");
-        List<Product> sortedByName = new ArrayList<>(vm.getInventory());
-        sortedByName.sort(new ProductNameComparator());
-        for (Product p : sortedByName) {
+        for (Product p : vm.getInventoryByName()) {
             System.out.println(p.displayLabel() + ", Stock: " + p.getStock());
         }
+        System.out.println("\nAll drinks:");
+        for (Product p : vm.getProductsInCategory("Drink")) {
+            System.out.println(p.displayLabel() + ", Stock: " + p.getStock());
+        }
+        Product cheapestSnack = vm.getCheapestInStock("Snack");
+        System.out.println("\nCheapest snack: " + (cheapestSnack == null ? "none in stock" : cheapestSnack.getName()));
+        System.out.println("Snack stock: " + vm.getCategoryPartition("Snack").getTotalStock() + " units worth $"
+                + String.format("%.2f", vm.getCategoryPartition("Snack").getStockValue()));
 
         // Feature 5: Data Persistence
         System.out.println("\n=== Feature 5: Data Persistence ===");
         System.out.println("Attempting to write inventory and transaction log:");
-        vm.writeToFile();
+        vm.writeToFile(data.resolve("VendingMachine_History.txt"));
+        vm.saveSnapshot(data.resolve("snapshot.bin"));
+        System.out.println("\nAdmin generates and reviews the profit sheet:");
+        admin.generateProfitSheet(vm);
+        admin.reviewProfitSheet(vm);
 
         // Feature 6: Error Handling
         System.out.println("\n=== Feature 6: Error Handling ===");
@@ -107,6 +120,7 @@ public class Main {
         System.out.println("\nSetting negative price for Candy:");
         admin.updateProductPrice(candy, -1.00, vm);
 
+        vm.getJournal().close();
         System.out.println("\n=== Demo Complete ===");
     }
 }
@@ -1,5 +1,41 @@
 package org.example;
 
 public interface MessageDisplay {
+    enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
     void displayMessage(String message);
+
+    /**
+     * Tells callers whether messages of a level would be shown, so they can skip building them.
+     * @param level the level of the message
+     * @return true if the message would be shown
+     */
+    default boolean isEnabled(Level level) {
+        return true;
+    }
+
+    /**
+     * Displays a message at the given level, if that level is enabled.
+     * @param level the level of the message
+     * @param message the message to display
+     */
+    default void displayMessage(Level level, String message) {
+        if (message != null && isEnabled(level)) {
+            displayMessage(message);
+        }
+    }
+
+    /**
+     * Displays a message built with String.format, formatting it only if the level is enabled.
+     * @param level the level of the message
+     * @param format the format string
+     * @param args the format arguments
+     */
+    default void displayMessage(Level level, String format, Object... args) {
+        if (format != null && isEnabled(level)) {
+            displayMessage(String.format(format, args));
+        }
+    }
 }
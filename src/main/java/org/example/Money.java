@@ -3,14 +3,34 @@ package org.example;
 import java.util.*;
 
 public class Money {
-    private Map<Double, Integer> cashMap;
+    private static final int[] STANDARD_DENOMINATIONS = {10000, 5000, 2000, 1000, 500, 200, 100, 50, 25, 10, 5, 1};
+
+    private int[] denominations;
+    private int[] counts;
+    private int[] scratch;
+    private final ChangeMaker changeMaker;
 
     public Money() {
-        this.cashMap = new HashMap<>();
+        this.denominations = STANDARD_DENOMINATIONS.clone();
+        this.counts = new int[denominations.length];
+        this.scratch = new int[denominations.length];
+        this.changeMaker = new ChangeMaker();
     }
 
     public Money(Map<Double, Integer> cashMap) {
-        this.cashMap = (cashMap == null ? new HashMap<>() : new HashMap<>(cashMap));
+        this();
+        if (cashMap != null) {
+            add(cashMap);
+        }
+    }
+
+    /**
+     * Converts a dollar amount into whole cents, rounding to the nearest cent.
+     * @param amount the amount in dollars
+     * @return the amount in cents
+     */
+    public static long toCents(double amount) {
+        return Math.round(amount * 100.0);
     }
 
     /**
@@ -26,18 +46,59 @@ public class Money {
             if (entry.getKey() == null || entry.getValue() == null) {
                 throw new IllegalArgumentException("Invalid key or value in map");
             }
+            add(toDenomination(entry.getKey()), entry.getValue());
+        }
+    }
 
-            double denomination = entry.getKey();
-            int count = entry.getValue();
-            if (count <= 0) {
-                continue;
+    /**
+     * Adds a number of coins or bills of a single denomination.
+     * @param denominationCents the value of one coin or bill in cents
+     * @param count how many to add, non-positive counts are ignored
+     */
+    public void add(int denominationCents, int count) {
+        if (count <= 0) {
+            return;
+        }
+        int slot = slotFor(denominationCents);
+        counts[slot] += count;
+    }
+
+    /**
+     * Moves every coin and bill held by another Money into this one, without going through a map.
+     * @param other the money to add
+     */
+    public void addAll(Money other) {
+        if (other == null) {
+            throw new NullPointerException("The provided money cannot be null");
+        }
+        for (int i = 0; i < other.denominations.length; i++) {
+            add(other.denominations[i], other.counts[i]);
+        }
+    }
+
+    /**
+     * Removes every coin and bill held by another Money from this one.
+     * Nothing is removed if any denomination is short.
+     * @param other the money to remove
+     * @throws IllegalArgumentException if this money does not hold all of it
+     */
+    public void subtractAll(Money other) {
+        if (other == null) {
+            throw new NullPointerException("Cannot subtract null");
+        }
+        for (int i = 0; i < other.denominations.length; i++) {
+            if (other.counts[i] > countOf(other.denominations[i])) {
+                throw new IllegalArgumentException("Not enough of $" + other.denominations[i] / 100.0 + " to subtract.");
             }
-            this.cashMap.put(denomination, this.cashMap.getOrDefault(denomination, 0) + count);
+        }
+        for (int i = 0; i < other.denominations.length; i++) {
+            subtract(other.denominations[i], other.counts[i]);
         }
     }
 
     /**
      * Removes value from the total money based on the cash to remove.
+     * Nothing is removed if any denomination is short.
      * @param cash a map of the amount and it's kind in cash
      */
     public void subtract(Map<Double, Integer> cash) {
@@ -49,27 +110,31 @@ public class Money {
             if (entry.getValue() == null) {
                 throw new IllegalArgumentException("Invalid quantity");
             }
-            
             double denomination = entry.getKey();
-            int countToSubtract = entry.getValue();
-            if (countToSubtract <= 0) {
-                continue;
-            }
-            
-            int currentCount = this.cashMap.getOrDefault(denomination, 0);
-
-            if (countToSubtract > currentCount) {
+            if (entry.getValue() > countOf(toDenomination(denomination))) {
                 throw new IllegalArgumentException("Not enough of $" + denomination + " to subtract.");
             }
+        }
+        for (Map.Entry<Double, Integer> entry : cash.entrySet()) {
+            subtract(toDenomination(entry.getKey()), entry.getValue());
+        }
+    }
 
-            int remaining = currentCount - countToSubtract;
-
-            if (remaining == 0) {
-                this.cashMap.remove(denomination);
-            } else {
-                this.cashMap.put(denomination, remaining);
-            }
+    /**
+     * Removes a number of coins or bills of a single denomination.
+     * @param denominationCents the value of one coin or bill in cents
+     * @param count how many to remove, non-positive counts are ignored
+     * @throws IllegalArgumentException if there are not enough of that denomination
+     */
+    public void subtract(int denominationCents, int count) {
+        if (count <= 0) {
+            return;
+        }
+        int slot = indexOf(denominationCents);
+        if (slot < 0 || counts[slot] < count) {
+            throw new IllegalArgumentException("Not enough of $" + denominationCents / 100.0 + " to subtract.");
         }
+        counts[slot] -= count;
     }
 
     /**
@@ -77,93 +142,186 @@ public class Money {
      * @return the total amount in cash
      */
     public double calculateTotal() {
-        if (this.cashMap == null) {
-            throw new NullPointerException("Cash map cannot be null");
-        }
+        return totalCents() / 100.0;
+    }
 
-        double total = 0.0;
-        for (Map.Entry<Double, Integer> entry : this.cashMap.entrySet()) {
-            if (entry.getKey() == null || entry.getValue() == null) {
-                throw new IllegalArgumentException("Invalid key or value in cash map");
-            }
-            total += entry.getKey() * entry.getValue();
+    /**
+     * Calculates the total amount in cents.
+     * @return the total amount in cash, in cents
+     */
+    public long totalCents() {
+        long total = 0;
+        for (int i = 0; i < denominations.length; i++) {
+            total += (long) denominations[i] * counts[i];
         }
         return total;
     }
 
+    /**
+     * Returns how many coins or bills of a denomination are held.
+     * @param denominationCents the value of one coin or bill in cents
+     * @return the number held, 0 if the denomination is unknown
+     */
+    public int countOf(int denominationCents) {
+        int slot = indexOf(denominationCents);
+        return slot < 0 ? 0 : counts[slot];
+    }
+
     /**
      * Method to clear out the money after each session in Vending Machine to maintain the amount of money to return.
      */
     public void clear() {
-        this.cashMap.clear();
+        Arrays.fill(counts, 0);
     }
 
     /**
-     * Tries to compute the exact change using the current cashMap.
+     * Tries to compute the exact change with the fewest coins and bills using the current cash.
      * @param amount the amount of the change to return
-     * @return a map of denominations to quantities, or null if change cannot be made.
+     * @return a map of denominations to quantities, or an empty map if change cannot be made.
      */
     public Map<Double, Integer> getChange(double amount) {
         if (amount < 0) {
             throw new IllegalArgumentException("Change amount cannot be negative.");
         }
 
-        Map<Double, Integer> available = new TreeMap<>(Collections.reverseOrder());
-        available.putAll(cashMap);
-
         Map<Double, Integer> change = new LinkedHashMap<>();
-
-        for (Map.Entry<Double, Integer> entry : available.entrySet()) {
-            double denom = entry.getKey();
-            int availableCount = entry.getValue();
-
-            if (denom > amount || availableCount == 0) {
-                continue;
+        if (!makeChange(toCents(amount), scratch)) {
+            return change;
+        }
+        for (int i = 0; i < denominations.length; i++) {
+            if (scratch[i] > 0) {
+                change.put(denominations[i] / 100.0, scratch[i]);
             }
+        }
+        return change;
+    }
 
-            int needed = (int) (amount / denom);
-            int toUse = Math.min(needed, availableCount);
+    /**
+     * Computes the exact change for an amount and removes it from this money.
+     * Nothing is removed if the change cannot be made.
+     * @param amountCents the change to give back, in cents
+     * @return true if the change was made and removed, false otherwise
+     */
+    public boolean dispenseChange(long amountCents) {
+        if (amountCents < 0) {
+            throw new IllegalArgumentException("Change amount cannot be negative.");
+        }
+        if (!makeChange(amountCents, scratch)) {
+            return false;
+        }
+        for (int i = 0; i < denominations.length; i++) {
+            counts[i] -= scratch[i];
+        }
+        return true;
+    }
 
-            if (toUse > 0) {
-                change.put(denom, toUse);
-                amount -= denom * toUse;
-                amount = Math.round(amount * 100.0) / 100.0;
-            }
+    /**
+     * Fills the given array with the fewest coins and bills of each denomination adding up to the amount.
+     * @param amountCents the change to make, in cents
+     * @param change the array receiving one count per denomination slot
+     * @return true if the exact amount could be made, false otherwise
+     */
+    private boolean makeChange(long amountCents, int[] change) {
+        if (amountCents > totalCents()) {
+            Arrays.fill(change, 0);
+            return false;
+        }
+        return changeMaker.solve(denominations, counts, denominations.length, amountCents, change);
+    }
+
+    private static int toDenomination(double amount) {
+        long cents = toCents(amount);
+        if (cents <= 0 || cents > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid denomination: " + amount);
+        }
+        return (int) cents;
+    }
 
-            if (amount == 0.0) {
-                break;
+    private int indexOf(int denominationCents) {
+        for (int i = 0; i < denominations.length; i++) {
+            if (denominations[i] == denominationCents) {
+                return i;
             }
         }
+        return -1;
+    }
 
-        if (amount == 0.0) {
-            return change;
-        } else {
-            return Collections.emptyMap();
+    /**
+     * Finds the slot of a denomination, registering it in descending order if it is not a standard one.
+     */
+    private int slotFor(int denominationCents) {
+        int slot = indexOf(denominationCents);
+        if (slot >= 0) {
+            return slot;
         }
+        if (denominationCents <= 0) {
+            throw new IllegalArgumentException("Invalid denomination: " + denominationCents);
+        }
+        int insertAt = 0;
+        while (insertAt < denominations.length && denominations[insertAt] > denominationCents) {
+            insertAt++;
+        }
+        int[] newDenominations = new int[denominations.length + 1];
+        int[] newCounts = new int[counts.length + 1];
+        System.arraycopy(denominations, 0, newDenominations, 0, insertAt);
+        System.arraycopy(counts, 0, newCounts, 0, insertAt);
+        newDenominations[insertAt] = denominationCents;
+        System.arraycopy(denominations, insertAt, newDenominations, insertAt + 1, denominations.length - insertAt);
+        System.arraycopy(counts, insertAt, newCounts, insertAt + 1, counts.length - insertAt);
+        denominations = newDenominations;
+        counts = newCounts;
+        scratch = new int[denominations.length];
+        return insertAt;
     }
 
     @Override
     public String toString() {
-        return "Money{" + "cashMap=" + cashMap + '}';
+        return "Money{" + "cashMap=" + getCashMap() + '}';
     }
 
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
         Money money = (Money) o;
-        return Objects.equals(cashMap, money.cashMap);
+        int held = 0;
+        for (int i = 0; i < denominations.length; i++) {
+            if (counts[i] > 0) {
+                if (money.countOf(denominations[i]) != counts[i]) return false;
+                held++;
+            }
+        }
+        int otherHeld = 0;
+        for (int count : money.counts) {
+            if (count > 0) otherHeld++;
+        }
+        return held == otherHeld;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(cashMap);
+        int hash = 0;
+        for (int i = 0; i < denominations.length; i++) {
+            if (counts[i] > 0) {
+                hash += 31 * denominations[i] + counts[i];
+            }
+        }
+        return hash;
     }
 
     public Map<Double, Integer> getCashMap() {
-        return new HashMap<>(cashMap);
+        Map<Double, Integer> cashMap = new HashMap<>();
+        for (int i = 0; i < denominations.length; i++) {
+            if (counts[i] > 0) {
+                cashMap.put(denominations[i] / 100.0, counts[i]);
+            }
+        }
+        return cashMap;
     }
 
     public void setCashMap(Map<Double, Integer> cashMap) {
-        this.cashMap = cashMap;
+        clear();
+        if (cashMap != null) {
+            add(cashMap);
+        }
     }
 }
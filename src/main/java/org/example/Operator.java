@@ -44,12 +44,27 @@ public class Operator extends User {
         }
 
         vendingMachine.reloadProduct(item, amount, this);
-        stockingHistory.merge(item, amount, Integer::sum);
 
         displayMessage("Restocked " + amount + " units of " + item.getName() +
                 ". Expiry Date: " + item.getExpiryDate());
     }
 
+    /**
+     * Restocks many products of the vending machine at once, such as a whole route refill.
+     * Either the whole batch is restocked or, if any product in it cannot be, none of it.
+     * The machine adds each product of the batch to the operator's stocking history, as it does for a single restock.
+     * @param amounts The number of units to add per product
+     * @param vendingMachine The vendingMachine in which to restock the products
+     * @return the record of the batch
+     * @throws IllegalArgumentException if any product in the batch cannot be restocked
+     */
+    public RestockRecord restockBatch(Map<Sku, Integer> amounts, VendingMachine vendingMachine) {
+        if (vendingMachine == null) {
+            throw new IllegalArgumentException("Vending machine cannot be null");
+        }
+        return vendingMachine.restockBatch(amounts, this);
+    }
+
     /**
      * Updates the selling price of a specific product in the vending machine
      * @param item The product whose price is being updates
@@ -58,7 +73,7 @@ public class Operator extends User {
      */
     public void updateProductPrice(Product item, double price, VendingMachine vendingMachine) {
         if (price < 0) {
-            System.out.println("Invalid price. Price cannot be negative.");
+            Displays.get().displayMessage(Level.WARN, "Invalid price. Price cannot be negative.");
             return;
         }
         if (item == null) {
@@ -71,12 +86,22 @@ public class Operator extends User {
     }
 
     /**
-     * Reviews the contents of a profit sheet from a given file
+     * Reviews the contents of the machine's profit sheet, kept in its data directory
      * @param vendingMachine The vending machine whose profit sheet needs to be reviewed
      */
     public void reviewProfitSheet(VendingMachine vendingMachine) {
-        Path filePath = Path.of("../resources/ProfitSheet.txt");
+        if (vendingMachine == null) {
+            throw new IllegalArgumentException("Vending machine cannot be null");
+        }
+        reviewProfitSheet(vendingMachine, vendingMachine.getProfitSheetFile());
+    }
 
+    /**
+     * Reviews the contents of the profit sheet at the given path
+     * @param vendingMachine The vending machine whose profit sheet needs to be reviewed
+     * @param filePath The profit sheet file
+     */
+    public void reviewProfitSheet(VendingMachine vendingMachine, Path filePath) {
         if (vendingMachine == null) {
             throw new IllegalArgumentException("Vending machine cannot be null");
         }
@@ -92,6 +117,35 @@ public class Operator extends User {
         displayMessage("Profit sheet at " + filePath + " reviewed");
     }
 
+    /**
+     * Writes the machine's current profit sheet to its data directory so it can be reviewed
+     * @param vendingMachine The vending machine whose profit sheet needs to be generated
+     */
+    public void generateProfitSheet(VendingMachine vendingMachine) {
+        if (vendingMachine == null) {
+            throw new IllegalArgumentException("Vending machine cannot be null");
+        }
+        generateProfitSheet(vendingMachine, vendingMachine.getProfitSheetFile());
+    }
+
+    /**
+     * Writes the machine's current profit sheet to a file so it can be reviewed
+     * @param vendingMachine The vending machine whose profit sheet needs to be generated
+     * @param filePath Where to write the profit sheet
+     */
+    public void generateProfitSheet(VendingMachine vendingMachine, Path filePath) {
+        if (vendingMachine == null) {
+            throw new IllegalArgumentException("Vending machine cannot be null");
+        }
+        if (accessLevel != AccessLevel.ADMIN) {
+            displayMessage("Access denied: Only ADMIN can generate profit sheets");
+            return;
+        }
+        if (vendingMachine.writeProfitSheet(filePath)) {
+            displayMessage("Profit sheet generated at " + filePath);
+        }
+    }
+
     /**
      * Displays a custom message intended for the operator. e.g.: Successful restock into the system, etc...
      * @param message The message to be displayed
@@ -99,7 +153,7 @@ public class Operator extends User {
     @Override
     public void displayMessage(String message) {
         if (message != null) {
-            System.out.println("Operator " + getName() + ", please note:" + message);
+            Displays.get().displayMessage(Level.INFO, "Operator %s, please note:%s", getName(), message);
         }
     }
 
@@ -148,6 +202,16 @@ public class Operator extends User {
         return stockingHistory;
     }
 
+    /**
+     * Adds units the operator restocked to the stocking history. Called by the machine once a restock has gone through,
+     * so single and batch restocks are counted the same way and only once.
+     * @param product the stocked product
+     * @param amount the units added
+     */
+    synchronized void recordRestock(Product product, int amount) {
+        stockingHistory.merge(product, amount, Integer::sum);
+    }
+
     public void setStockingHistory(Map<Product, Integer> stockingHistory) {
         this.stockingHistory = stockingHistory;
     }
@@ -0,0 +1,299 @@
+package org.example;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToIntFunction;
+
+/**
+ * An immutable list kept as a balanced tree (a treap). Every change returns a new list that shares all but
+ * O(log n) nodes with the old one, so the inventory can publish a new version after each change without copying.
+ * Elements can be placed by position or, for sorted lists, by a comparator.
+ * @param <T> the element type
+ */
+final class PersistentList<T> extends AbstractList<T> implements RandomAccess {
+    private static final PersistentList<?> EMPTY = new PersistentList<>(null);
+
+    private static final class Node<T> {
+        final T value;
+        final Node<T> left;
+        final Node<T> right;
+        final int size;
+        final int priority;
+
+        Node(T value, Node<T> left, Node<T> right, int priority) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.size = sizeOf(left) + 1 + sizeOf(right);
+            this.priority = priority;
+        }
+
+        Node<T> with(Node<T> left, Node<T> right) {
+            return left == this.left && right == this.right ? this : new Node<>(value, left, right, priority);
+        }
+    }
+
+    private final Node<T> root;
+
+    private PersistentList(Node<T> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> PersistentList<T> empty() {
+        return (PersistentList<T>) EMPTY;
+    }
+
+    private static <T> PersistentList<T> of(Node<T> root) {
+        return root == null ? empty() : new PersistentList<>(root);
+    }
+
+    private static int sizeOf(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static <T> Node<T> leaf(T value) {
+        return new Node<>(value, null, null, ThreadLocalRandom.current().nextInt());
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+        }
+        Node<T> node = root;
+        while (true) {
+            int leftSize = sizeOf(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.value;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return sizeOf(root);
+    }
+
+    /**
+     * Returns a list with an element inserted at a position.
+     */
+    PersistentList<T> plus(int index, T value) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+        }
+        Node<T>[] parts = splitAt(root, index);
+        return of(merge(merge(parts[0], leaf(value)), parts[1]));
+    }
+
+    PersistentList<T> plus(T value) {
+        return of(merge(root, leaf(value)));
+    }
+
+    /**
+     * Returns a list with an element inserted at its place in a sorted list.
+     */
+    PersistentList<T> plus(T value, Comparator<? super T> order) {
+        Node<T>[] parts = splitBefore(root, value, order);
+        return of(merge(merge(parts[0], leaf(value)), parts[1]));
+    }
+
+    /**
+     * Returns a list without the element at a position.
+     */
+    PersistentList<T> minus(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+        }
+        return of(removeAt(root, index));
+    }
+
+    /**
+     * Returns a sorted list without an element. The element is found by the comparator, or, if it was changed since
+     * it was inserted and the comparator no longer finds it, by identity.
+     * @return the new list, or this list if the element is not in it
+     */
+    PersistentList<T> minus(T value, Comparator<? super T> order) {
+        Node<T> updated = remove(root, value, order);
+        if (updated != root) {
+            return of(updated);
+        }
+        int index = indexOfSame(value);
+        return index < 0 ? this : minus(index);
+    }
+
+    /**
+     * Returns a list with the element at a position replaced.
+     */
+    PersistentList<T> with(int index, T value) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+        }
+        return of(replace(root, index, value));
+    }
+
+    /**
+     * Finds the position of an element by identity.
+     * @return the position, or -1 if the element is not in the list
+     */
+    int indexOfSame(Object value) {
+        int index = 0;
+        for (T element : this) {
+            if (element == value) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first element of a sorted list that is not before a target.
+     * @param probe compares an element with the target: negative if the element comes before it
+     * @return the first element the probe does not put before the target, or null if there is none
+     */
+    T ceiling(ToIntFunction<? super T> probe) {
+        T found = null;
+        Node<T> node = root;
+        while (node != null) {
+            if (probe.applyAsInt(node.value) < 0) {
+                node = node.right;
+            } else {
+                found = node.value;
+                node = node.left;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private final ArrayDeque<Node<T>> path = new ArrayDeque<>();
+
+            {
+                descend(root);
+            }
+
+            private void descend(Node<T> node) {
+                for (; node != null; node = node.left) {
+                    path.push(node);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<T> node = path.pop();
+                descend(node.right);
+                return node.value;
+            }
+        };
+    }
+
+    private static <T> Node<T> merge(Node<T> a, Node<T> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            return a.with(a.left, merge(a.right, b));
+        }
+        return b.with(merge(a, b.left), b.right);
+    }
+
+    /**
+     * Splits a tree into its first count elements and the rest.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] splitAt(Node<T> node, int count) {
+        if (node == null) {
+            return new Node[2];
+        }
+        int leftSize = sizeOf(node.left);
+        if (count <= leftSize) {
+            Node<T>[] parts = splitAt(node.left, count);
+            parts[1] = node.with(parts[1], node.right);
+            return parts;
+        }
+        Node<T>[] parts = splitAt(node.right, count - leftSize - 1);
+        parts[0] = node.with(node.left, parts[0]);
+        return parts;
+    }
+
+    /**
+     * Splits a sorted tree into the elements before a value and the rest.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] splitBefore(Node<T> node, T value, Comparator<? super T> order) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (order.compare(node.value, value) < 0) {
+            Node<T>[] parts = splitBefore(node.right, value, order);
+            parts[0] = node.with(node.left, parts[0]);
+            return parts;
+        }
+        Node<T>[] parts = splitBefore(node.left, value, order);
+        parts[1] = node.with(parts[1], node.right);
+        return parts;
+    }
+
+    private static <T> Node<T> removeAt(Node<T> node, int index) {
+        int leftSize = sizeOf(node.left);
+        if (index < leftSize) {
+            return node.with(removeAt(node.left, index), node.right);
+        }
+        if (index == leftSize) {
+            return merge(node.left, node.right);
+        }
+        return node.with(node.left, removeAt(node.right, index - leftSize - 1));
+    }
+
+    private static <T> Node<T> remove(Node<T> node, T value, Comparator<? super T> order) {
+        if (node == null) {
+            return null;
+        }
+        if (node.value == value) {
+            return merge(node.left, node.right);
+        }
+        int c = order.compare(value, node.value);
+        if (c < 0) {
+            return node.with(remove(node.left, value, order), node.right);
+        }
+        if (c > 0) {
+            return node.with(node.left, remove(node.right, value, order));
+        }
+        return node;
+    }
+
+    private static <T> Node<T> replace(Node<T> node, int index, T value) {
+        int leftSize = sizeOf(node.left);
+        if (index < leftSize) {
+            return node.with(replace(node.left, index, value), node.right);
+        }
+        if (index == leftSize) {
+            return new Node<>(value, node.left, node.right, node.priority);
+        }
+        return node.with(node.left, replace(node.right, index - leftSize - 1, value));
+    }
+}
@@ -0,0 +1,165 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class PriceBook {
+    /** Returned by priceCents for a product the book does not list. */
+    public static final long NO_PRICE = -1;
+    /** The book in effect before any is applied; it lists nothing, so every product sells at its own price. */
+    public static final PriceBook EMPTY = new PriceBook(0, Map.of());
+
+    private static final String VERSION = "version ";
+
+    private final long version;
+    // Prices indexed by Sku id, NO_PRICE where the book lists nothing, so a lookup is one array read.
+    private final long[] pricesCents;
+    private final int size;
+
+    /**
+     * Creates an immutable price book. It can be read from any number of threads without locking.
+     * @param version the book's version; a machine only ever moves to a higher version
+     * @param pricesCents the price of each listed product, in cents
+     * @throws IllegalArgumentException if the version or a price is negative
+     */
+    public PriceBook(long version, Map<Sku, Long> pricesCents) {
+        if (version < 0) {
+            throw new IllegalArgumentException("Version cannot be negative");
+        }
+        if (pricesCents == null) {
+            throw new IllegalArgumentException("Prices cannot be null");
+        }
+        int length = 0;
+        for (Sku sku : pricesCents.keySet()) {
+            length = Math.max(length, sku.getId() + 1);
+        }
+        long[] prices = new long[length];
+        Arrays.fill(prices, NO_PRICE);
+        for (Map.Entry<Sku, Long> entry : pricesCents.entrySet()) {
+            if (entry.getValue() == null || entry.getValue() < 0) {
+                throw new IllegalArgumentException("Invalid price for " + entry.getKey().getName() + ": " + entry.getValue());
+            }
+            prices[entry.getKey().getId()] = entry.getValue();
+        }
+        this.version = version;
+        this.pricesCents = prices;
+        this.size = pricesCents.size();
+    }
+
+    private PriceBook(long version, long[] pricesCents, int size) {
+        this.version = version;
+        this.pricesCents = pricesCents;
+        this.size = size;
+    }
+
+    /**
+     * Reads a price book from a file. The first line that is not blank or a # comment gives the version,
+     * as in "version 42"; every line after it gives a product and its price, as in "Chips,1.75".
+     * @param file the price book file
+     * @return the price book
+     * @throws IllegalArgumentException if a line is malformed or a product is listed twice
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public static PriceBook read(Path file) {
+        long version = -1;
+        Map<Sku, Long> prices = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    if (version < 0) {
+                        if (!line.startsWith(VERSION)) {
+                            throw new IllegalArgumentException("expected \"" + VERSION + "<n>\"");
+                        }
+                        version = Long.parseLong(line.substring(VERSION.length()).trim());
+                        continue;
+                    }
+                    int comma = line.lastIndexOf(',');
+                    if (comma <= 0) {
+                        throw new IllegalArgumentException("expected \"<product>,<price>\"");
+                    }
+                    Sku sku = Sku.of(line.substring(0, comma).trim());
+                    long cents = Money.toCents(Double.parseDouble(line.substring(comma + 1).trim()));
+                    if (prices.put(sku, cents) != null) {
+                        throw new IllegalArgumentException(sku.getName() + " is listed twice");
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Bad price book line " + number + " in " + file + ": " + e.getMessage(), e);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read price book " + file, e);
+        }
+        if (version < 0) {
+            throw new IllegalArgumentException("Price book " + file + " has no version");
+        }
+        return new PriceBook(version, prices);
+    }
+
+    /**
+     * Looks up the price the book gives a product.
+     * @param sku the product's Sku
+     * @return the price in cents, or NO_PRICE if the book does not list the product
+     */
+    public long priceCents(Sku sku) {
+        int id = sku == null ? -1 : sku.getId();
+        return id < 0 || id >= pricesCents.length ? NO_PRICE : pricesCents[id];
+    }
+
+    /**
+     * Returns a copy of this book that no longer lists a product, with the same version.
+     * @param sku the product to drop
+     * @return the new book, or this book if it did not list the product
+     */
+    public PriceBook without(Sku sku) {
+        if (priceCents(sku) == NO_PRICE) {
+            return this;
+        }
+        long[] prices = pricesCents.clone();
+        prices[sku.getId()] = NO_PRICE;
+        return new PriceBook(version, prices, size - 1);
+    }
+
+    /**
+     * Returns the listed prices.
+     * @return the price in cents of each listed product, in Sku id order
+     */
+    public Map<Sku, Long> getPrices() {
+        Map<Sku, Long> prices = new LinkedHashMap<>();
+        for (int id = 0; id < pricesCents.length; id++) {
+            if (pricesCents[id] != NO_PRICE) {
+                prices.put(Sku.byId(id), pricesCents[id]);
+            }
+        }
+        return prices;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "PriceBook{" +
+                "version=" + version +
+                ", size=" + size +
+                '}';
+    }
+}
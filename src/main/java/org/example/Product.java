@@ -4,32 +4,38 @@ import java.time.LocalDate;
 import java.util.Objects;
 
 public class Product implements Comparable<Product> {
+    /** Expiry day of products that never expire. */
+    public static final long NO_EXPIRY = Long.MAX_VALUE;
+
     private String name;
-    private double price;
+    private Sku sku;
     private String category;
-    private int stock;
-    private int maxCapacity;
+    private Category categoryKey;
+    private final StockRecord record;
     private String nutritionalInfo;
     private LocalDate expiryDate;
+    private volatile long expiryEpochDay;
 
     public Product() {
         this.name = "Unnamed Product";
-        this.price = 0;
+        this.sku = Sku.of(name);
         this.category = "Unknown";
-        this.stock = 0;
-        this.maxCapacity = 5;
+        this.categoryKey = Category.UNKNOWN;
+        this.record = new StockRecord(0, 5, 0);
         this.nutritionalInfo = "";
         this.expiryDate = null;
+        this.expiryEpochDay = NO_EXPIRY;
     }
 
     public Product(String name, double price, String category, int stock, int maxCapacity, String nutritionalInfo, LocalDate expiryDate) {
         this.name = name;
-        this.price = price;
+        this.sku = name == null ? null : Sku.of(name);
         this.category = category;
-        this.stock = stock;
-        this.maxCapacity = maxCapacity;
+        this.categoryKey = category == null ? null : Category.of(category);
+        this.record = new StockRecord(stock, maxCapacity, price);
         this.nutritionalInfo = nutritionalInfo;
         this.expiryDate = expiryDate;
+        this.expiryEpochDay = toEpochDay(expiryDate);
     }
 
     /**
@@ -39,13 +45,7 @@ public class Product implements Comparable<Product> {
      * @throws IllegalArgumentException if quantity is non-positive or exceeds max capacity
      */
     public void restock(int quantity) {
-        if (quantity <= 0) {
-            throw new IllegalArgumentException("Restock quantity must be positive.");
-        }
-        if (stock + quantity > maxCapacity) {
-            throw new IllegalArgumentException("Cannot exceed maximum capacity.");
-        }
-        stock += quantity;
+        record.restock(quantity);
     }
 
     /**
@@ -55,13 +55,35 @@ public class Product implements Comparable<Product> {
      * @throws IllegalArgumentException if quantity is non-positive or exceeds available stock
      */
     public void reduceStock(int quantity) {
-        if (quantity <= 0) {
-            throw new IllegalArgumentException("Reduction quantity must be positive.");
-        }
-        if (quantity > stock) {
-            throw new IllegalArgumentException("Not enough stock to reduce.");
-        }
-        stock -= quantity;
+        record.reduceStock(quantity);
+    }
+
+    /**
+     * Sets units aside for a sale in progress, if enough are in stock.
+     * @param quantity the number of units to reserve
+     * @return true if the units were reserved, false if there was not enough stock
+     * @throws IllegalArgumentException if quantity is non-positive
+     */
+    public boolean tryReserve(int quantity) {
+        return record.tryReserve(quantity);
+    }
+
+    /**
+     * Completes a sale of previously reserved units.
+     * @param quantity the number of reserved units sold
+     * @throws IllegalStateException if fewer units are reserved
+     */
+    public void commit(int quantity) {
+        record.commit(quantity);
+    }
+
+    /**
+     * Puts previously reserved units back into stock.
+     * @param quantity the number of reserved units to put back
+     * @throws IllegalStateException if fewer units are reserved
+     */
+    public void release(int quantity) {
+        record.release(quantity);
     }
 
     /**
@@ -72,19 +94,31 @@ public class Product implements Comparable<Product> {
      */
     public String displayLabel() {
         return String.format("%s - $%.2f (%d left)\nNutritional Info: %s",
-                name, price, stock, getNutritionalInfo());
+                name, getPrice(), getStock(), getNutritionalInfo());
     }
 
     /**
      * Checks whether the product is expired.
      * Products without an expiry date are assumed to be non-perishable.
+     * The expiry date is kept as a day count and compared with the shared cached clock,
+     * so this never reads the system clock.
      * @return true if expired, false otherwise
      */
     public boolean isExpired() {
-        if (expiryDate == null) {
-            return false;
-        }
-        return expiryDate.isBefore(LocalDate.now());
+        return isExpiredOn(CachedClock.shared().today());
+    }
+
+    /**
+     * Checks whether the product is expired on a given day.
+     * @param epochDay the day to check, as counted by LocalDate.toEpochDay
+     * @return true if the product's expiry date is before that day
+     */
+    public boolean isExpiredOn(long epochDay) {
+        return expiryEpochDay < epochDay;
+    }
+
+    private static long toEpochDay(LocalDate date) {
+        return date == null ? NO_EXPIRY : date.toEpochDay();
     }
 
     /**
@@ -94,7 +128,7 @@ public class Product implements Comparable<Product> {
      */
     @Override
     public int compareTo(Product o) {
-        int priceComparison = Double.compare(this.price, o.price);
+        int priceComparison = Double.compare(this.getPrice(), o.getPrice());
         if (priceComparison != 0) {
             return priceComparison;
         }
@@ -105,71 +139,124 @@ public class Product implements Comparable<Product> {
     public String toString() {
         return "Product{" +
                 "name='" + name + '\'' +
-                ", price=" + price +
+                ", price=" + getPrice() +
                 ", category='" + category + '\'' +
-                ", stock=" + stock +
-                ", maxCapacity=" + maxCapacity +
+                ", stock=" + getStock() +
+                ", maxCapacity=" + getMaxCapacity() +
                 ", nutritionalInfo='" + nutritionalInfo + '\'' +
                 ", expiryDate=" + expiryDate +
                 '}';
     }
 
+    /**
+     * Products are identified by their Sku alone, so restocking or repricing a product
+     * never changes its equality or hash, and it stays safe to use as a map key.
+     */
     @Override
     public boolean equals(Object o) {
+        if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Product product = (Product) o;
-        return Double.compare(price, product.price) == 0 &&
-                stock == product.stock &&
-                maxCapacity == product.maxCapacity &&
-                Objects.equals(name, product.name) &&
-                Objects.equals(category, product.category) &&
-                Objects.equals(nutritionalInfo, product.nutritionalInfo) &&
-                Objects.equals(expiryDate, product.expiryDate);
+        return sku == product.sku && (sku != null || Objects.equals(name, product.name));
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, price, category, stock, maxCapacity, nutritionalInfo, expiryDate);
+        return sku == null ? 0 : sku.hashCode();
     }
 
     public String getName() {
         return name;
     }
 
+    /**
+     * Renames the product, which also gives it the Sku of the new name.
+     * Remove the product from any inventory or map before renaming it.
+     * @param name the new name
+     */
     public void setName(String name) {
         this.name = name;
+        this.sku = name == null ? null : Sku.of(name);
+    }
+
+    public Sku getSku() {
+        return sku;
+    }
+
+    public StockRecord getStockRecord() {
+        return record;
     }
 
     public double getPrice() {
-        return price;
+        return record.getPrice();
     }
 
     public void setPrice(double price) {
-        this.price = price;
+        record.setPrice(price);
     }
 
     public String getCategory() {
         return category;
     }
 
+    /**
+     * Returns the interned form of the category name, which is the same object for equal names.
+     * @return the category, or null if the product has none
+     */
+    public Category getCategoryKey() {
+        return categoryKey;
+    }
+
+    /**
+     * Returns the category the product is filed under in an inventory's category partitions.
+     * Products without a category name of their own are filed under their kind's default category.
+     * @return the category, never null
+     */
+    public Category getPartitionCategory() {
+        Category key = categoryKey;
+        if (key == null || key == Category.UNKNOWN || key.getName().isBlank()) {
+            return defaultCategory();
+        }
+        return key;
+    }
+
+    /**
+     * Returns the category the product is filed under when it has no category name of its own.
+     * Subclasses for a kind of product file themselves under that kind.
+     * @return the fallback category
+     */
+    protected Category defaultCategory() {
+        return Category.UNKNOWN;
+    }
+
+    /**
+     * Changes the category. If the product is stocked, use InventoryIndex.recategorize
+     * instead so it moves to its new category partition.
+     * @param category the new category name
+     */
     public void setCategory(String category) {
         this.category = category;
+        this.categoryKey = category == null ? null : Category.of(category);
     }
 
     public int getStock() {
-        return stock;
+        return record.getStock();
     }
 
     public void setStock(int stock) {
-        this.stock = stock;
+        record.setStock(stock);
+    }
+
+    public int getReservedStock() {
+        return record.getReserved();
     }
 
     public int getMaxCapacity() {
-        return maxCapacity;
+        return record.getMaxCapacity();
     }
 
     public void setMaxCapacity(int maxCapacity) {
-        this.maxCapacity = maxCapacity;
+        record.setMaxCapacity(maxCapacity);
     }
 
     public String getNutritionalInfo() {
@@ -184,7 +271,17 @@ public class Product implements Comparable<Product> {
         return expiryDate;
     }
 
+    public long getExpiryEpochDay() {
+        return expiryEpochDay;
+    }
+
+    /**
+     * Changes the expiry date. If the product is stocked and the new date is earlier,
+     * call InventoryIndex.updateExpiry so the next sweep sees it.
+     * @param expiryDate the new expiry date, or null if the product does not expire
+     */
     public void setExpiryDate(LocalDate expiryDate) {
         this.expiryDate = expiryDate;
+        this.expiryEpochDay = toEpochDay(expiryDate);
     }
 }
@@ -0,0 +1,374 @@
+package org.example;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ProfitLedger {
+    /**
+     * One row of the profit sheet: what was sold under a label, and what it earned.
+     */
+    public static final class Line {
+        private final String label;
+        private final String category;
+        private final long units;
+        private final long revenueCents;
+        private final long costCents;
+
+        Line(String label, String category, long units, long revenueCents, long costCents) {
+            this.label = label;
+            this.category = category;
+            this.units = units;
+            this.revenueCents = revenueCents;
+            this.costCents = costCents;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Returns the category of a product line.
+         * @return the category name, or null for category, day and total lines
+         */
+        public String getCategory() {
+            return category;
+        }
+
+        public long getUnits() {
+            return units;
+        }
+
+        public long getRevenueCents() {
+            return revenueCents;
+        }
+
+        public long getCostCents() {
+            return costCents;
+        }
+
+        public long getMarginCents() {
+            return revenueCents - costCents;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s,%s%d,%.2f,%.2f,%.2f", label, category == null ? "" : category + ",",
+                    units, revenueCents / 100.0, costCents / 100.0, getMarginCents() / 100.0);
+        }
+    }
+
+    /**
+     * Running totals for one product or one day. Sales on different threads add to different cells.
+     */
+    private static final class Totals {
+        final LongAdder units = new LongAdder();
+        final LongAdder revenueCents = new LongAdder();
+        final LongAdder costCents = new LongAdder();
+        volatile Category category;
+        volatile long unitCostCents;
+
+        void add(long priceCents, long costCents) {
+            units.increment();
+            revenueCents.add(priceCents);
+            this.costCents.add(costCents);
+        }
+
+        void addAll(long units, long revenueCents, long costCents) {
+            this.units.add(units);
+            this.revenueCents.add(revenueCents);
+            this.costCents.add(costCents);
+        }
+
+        Line toLine(String label, String category) {
+            return new Line(label, category, units.sum(), revenueCents.sum(), costCents.sum());
+        }
+    }
+
+    /**
+     * The day sales are currently being filed under. Most sales fall on the same day as the last one,
+     * so the day is only worked out from the time zone when a sale falls outside it.
+     */
+    private static final class Day {
+        final long epochDay;
+        final long startMillis;
+        final long endMillis;
+        final Totals totals;
+
+        Day(long epochDay, long startMillis, long endMillis, Totals totals) {
+            this.epochDay = epochDay;
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+            this.totals = totals;
+        }
+    }
+
+    private final ZoneId zone;
+    private final Map<Sku, Totals> byProduct;
+    private final Map<Long, Totals> byDay;
+    private volatile Day currentDay;
+
+    public ProfitLedger() {
+        this(ZoneId.systemDefault());
+    }
+
+    /**
+     * Creates an empty ledger.
+     * @param zone the time zone that decides which day a sale belongs to
+     */
+    public ProfitLedger(ZoneId zone) {
+        if (zone == null) {
+            throw new IllegalArgumentException("Zone cannot be null");
+        }
+        this.zone = zone;
+        this.byProduct = new ConcurrentHashMap<>();
+        this.byDay = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Adds one sale to the running totals of its product and its day. This is all the work a sale costs;
+     * the sheet is built from the totals, never from the history of sales.
+     * @param product the product sold
+     * @param priceCents what the buyer paid, in cents
+     * @param epochMillis when the sale happened
+     */
+    public void record(Product product, long priceCents, long epochMillis) {
+        if (product == null || product.getSku() == null) {
+            throw new IllegalArgumentException("Product must have a name");
+        }
+        record(product.getSku(), product.getPartitionCategory(), priceCents, epochMillis);
+    }
+
+    /**
+     * Adds one sale of a product that may no longer be stocked, as when a journal is replayed.
+     * @param category the product's category, or null to keep the one last recorded
+     */
+    void record(Sku sku, Category category, long priceCents, long epochMillis) {
+        Totals totals = totalsFor(sku);
+        if (category != null) {
+            totals.category = category;
+        }
+        long cost = totals.unitCostCents;
+        totals.add(priceCents, cost);
+        dayOf(epochMillis).add(priceCents, cost);
+    }
+
+    /**
+     * Sets what one unit of a product costs the operator. Sales recorded from now on are charged this cost;
+     * earlier sales keep the cost they were recorded with.
+     * @param sku the product's Sku
+     * @param unitCostCents the cost of one unit, in cents
+     */
+    public void setUnitCost(Sku sku, long unitCostCents) {
+        if (sku == null) {
+            throw new IllegalArgumentException("Sku cannot be null");
+        }
+        if (unitCostCents < 0) {
+            throw new IllegalArgumentException("Unit cost cannot be negative");
+        }
+        totalsFor(sku).unitCostCents = unitCostCents;
+    }
+
+    public long getUnitCostCents(Sku sku) {
+        Totals totals = sku == null ? null : byProduct.get(sku);
+        return totals == null ? 0 : totals.unitCostCents;
+    }
+
+    private Totals totalsFor(Sku sku) {
+        Totals totals = byProduct.get(sku);
+        return totals != null ? totals : byProduct.computeIfAbsent(sku, s -> new Totals());
+    }
+
+    private Totals dayOf(long epochMillis) {
+        Day day = currentDay;
+        if (day != null && epochMillis >= day.startMillis && epochMillis < day.endMillis) {
+            return day.totals;
+        }
+        LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+        long start = date.atStartOfDay(zone).toInstant().toEpochMilli();
+        long end = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        Totals totals = byDay.computeIfAbsent(date.toEpochDay(), d -> new Totals());
+        if (day == null || date.toEpochDay() >= day.epochDay) {
+            currentDay = new Day(date.toEpochDay(), start, end, totals);
+        }
+        return totals;
+    }
+
+    /**
+     * Returns the totals of every product sold, in name order.
+     * @return one line per product, labelled with the product name
+     */
+    public List<Line> byProduct() {
+        List<Line> lines = new ArrayList<>();
+        byProduct.entrySet().stream()
+                .filter(e -> e.getValue().units.sum() > 0)
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(Sku::getName)))
+                .forEach(e -> lines.add(e.getValue().toLine(e.getKey().getName(), categoryName(e.getValue()))));
+        return lines;
+    }
+
+    /**
+     * Returns the totals per category, added up from the product totals.
+     * @return one line per category, in name order
+     */
+    public List<Line> byCategory() {
+        Map<String, long[]> sums = new TreeMap<>();
+        for (Totals totals : byProduct.values()) {
+            long units = totals.units.sum();
+            if (units == 0) {
+                continue;
+            }
+            long[] sum = sums.computeIfAbsent(categoryName(totals), c -> new long[3]);
+            sum[0] += units;
+            sum[1] += totals.revenueCents.sum();
+            sum[2] += totals.costCents.sum();
+        }
+        List<Line> lines = new ArrayList<>(sums.size());
+        sums.forEach((category, sum) -> lines.add(new Line(category, null, sum[0], sum[1], sum[2])));
+        return lines;
+    }
+
+    /**
+     * Returns the totals per day, oldest first.
+     * @return one line per day with sales, labelled with the ISO date
+     */
+    public List<Line> byDay() {
+        List<Line> lines = new ArrayList<>(byDay.size());
+        byDay.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> lines.add(e.getValue().toLine(LocalDate.ofEpochDay(e.getKey()).toString(), null)));
+        return lines;
+    }
+
+    public Line total() {
+        long units = 0;
+        long revenue = 0;
+        long cost = 0;
+        for (Totals totals : byProduct.values()) {
+            units += totals.units.sum();
+            revenue += totals.revenueCents.sum();
+            cost += totals.costCents.sum();
+        }
+        return new Line("Total", null, units, revenue, cost);
+    }
+
+    private static String categoryName(Totals totals) {
+        Category category = totals.category;
+        return category == null ? Category.UNKNOWN.getName() : category.getName();
+    }
+
+    /**
+     * Writes the running totals and unit costs, for MachineSnapshot. Sales made while this runs may be
+     * only partly written, so write while the machine is idle.
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        Map<Sku, Totals> products = Map.copyOf(byProduct);
+        out.writeInt(products.size());
+        for (Map.Entry<Sku, Totals> entry : products.entrySet()) {
+            Totals totals = entry.getValue();
+            MachineSnapshot.writeString(out, entry.getKey().getName());
+            Category category = totals.category;
+            MachineSnapshot.writeString(out, category == null ? null : category.getName());
+            out.writeLong(totals.unitCostCents);
+            writeTotals(out, totals);
+        }
+        Map<Long, Totals> days = Map.copyOf(byDay);
+        out.writeInt(days.size());
+        for (Map.Entry<Long, Totals> entry : days.entrySet()) {
+            out.writeLong(entry.getKey());
+            writeTotals(out, entry.getValue());
+        }
+    }
+
+    private static void writeTotals(DataOutputStream out, Totals totals) throws IOException {
+        out.writeLong(totals.units.sum());
+        out.writeLong(totals.revenueCents.sum());
+        out.writeLong(totals.costCents.sum());
+    }
+
+    /**
+     * Adds totals written by writeTo to this ledger, and takes over their unit costs.
+     */
+    void readFrom(ByteBuffer in) {
+        int products = in.getInt();
+        for (int i = 0; i < products; i++) {
+            Totals totals = totalsFor(Sku.of(MachineSnapshot.readString(in)));
+            String category = MachineSnapshot.readString(in);
+            if (category != null) {
+                totals.category = Category.of(category);
+            }
+            totals.unitCostCents = in.getLong();
+            totals.addAll(in.getLong(), in.getLong(), in.getLong());
+        }
+        int days = in.getInt();
+        for (int i = 0; i < days; i++) {
+            byDay.computeIfAbsent(in.getLong(), d -> new Totals()).addAll(in.getLong(), in.getLong(), in.getLong());
+        }
+    }
+
+    /**
+     * Adds another ledger's totals to this one and takes over its unit costs, as when a machine is restored.
+     */
+    void addAll(ProfitLedger other) {
+        other.byProduct.forEach((sku, from) -> {
+            Totals totals = totalsFor(sku);
+            if (from.category != null) {
+                totals.category = from.category;
+            }
+            totals.unitCostCents = from.unitCostCents;
+            totals.addAll(from.units.sum(), from.revenueCents.sum(), from.costCents.sum());
+        });
+        other.byDay.forEach((day, from) -> byDay.computeIfAbsent(day, d -> new Totals())
+                .addAll(from.units.sum(), from.revenueCents.sum(), from.costCents.sum()));
+    }
+
+    /**
+     * Builds the profit sheet from the running totals. It takes time in proportion to the number of
+     * products, categories and days, however many sales were made.
+     * @return the lines of the sheet
+     */
+    public List<String> renderSheet() {
+        List<String> sheet = new ArrayList<>();
+        sheet.add("=== PROFIT SHEET ===");
+        addSection(sheet, "=== BY PRODUCT ===", "Product,Category,Units,Revenue,Cost,Margin", byProduct());
+        addSection(sheet, "=== BY CATEGORY ===", "Category,Units,Revenue,Cost,Margin", byCategory());
+        addSection(sheet, "=== BY DAY ===", "Day,Units,Revenue,Cost,Margin", byDay());
+        addSection(sheet, "=== TOTAL ===", "Total,Units,Revenue,Cost,Margin", List.of(total()));
+        return sheet;
+    }
+
+    private static void addSection(List<String> sheet, String title, String header, List<Line> lines) {
+        sheet.add("");
+        sheet.add(title);
+        sheet.add(header);
+        lines.forEach(line -> sheet.add(line.toString()));
+    }
+
+    /**
+     * Writes the profit sheet to a file, replacing what was there.
+     * @param file the sheet file
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    public void writeSheet(Path file) {
+        try {
+            Files.write(file, renderSheet(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write profit sheet " + file, e);
+        }
+    }
+}
@@ -0,0 +1,479 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads a profit sheet written by ProfitLedger straight out of a memory-mapped file.
+ * Rows are parsed from the mapped bytes as they are streamed, so nothing is read
+ * into memory beyond the rows a caller actually consumes. The day and product sections
+ * are sorted, which lets range lookups binary-search the file instead of scanning it.
+ */
+public class ProfitSheetReader {
+    /** The sections of a profit sheet, with the title line that starts each. */
+    public enum Section {
+        PRODUCT("=== BY PRODUCT ==="),
+        CATEGORY("=== BY CATEGORY ==="),
+        DAY("=== BY DAY ==="),
+        TOTAL("=== TOTAL ===");
+
+        private final byte[] title;
+
+        Section(String title) {
+            this.title = title.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * One parsed row. The numbers are parsed up front; the label is only decoded if asked for.
+     */
+    public static final class Row {
+        private final Section section;
+        private final ByteBuffer buffer;
+        private final int labelStart;
+        private final int labelEnd;
+        private final int categoryEnd;
+        private final long units;
+        private final long revenueCents;
+        private final long costCents;
+        private String label;
+
+        Row(Section section, ByteBuffer buffer, int labelStart, int labelEnd, int categoryEnd,
+            long units, long revenueCents, long costCents) {
+            this.section = section;
+            this.buffer = buffer;
+            this.labelStart = labelStart;
+            this.labelEnd = labelEnd;
+            this.categoryEnd = categoryEnd;
+            this.units = units;
+            this.revenueCents = revenueCents;
+            this.costCents = costCents;
+        }
+
+        public Section getSection() {
+            return section;
+        }
+
+        public String getLabel() {
+            if (label == null) {
+                label = decode(buffer, labelStart, labelEnd);
+            }
+            return label;
+        }
+
+        /**
+         * Returns the category of a product row.
+         * @return the category name, or null for rows outside the product section
+         */
+        public String getCategory() {
+            return categoryEnd < 0 ? null : decode(buffer, labelEnd + 1, categoryEnd);
+        }
+
+        /**
+         * Returns the day of a row in the day section.
+         * @return the day
+         * @throws IllegalStateException if the row is not in the day section
+         */
+        public LocalDate getDate() {
+            if (section != Section.DAY) {
+                throw new IllegalStateException("Only day rows have a date");
+            }
+            return LocalDate.parse(getLabel());
+        }
+
+        public long getUnits() {
+            return units;
+        }
+
+        public long getRevenueCents() {
+            return revenueCents;
+        }
+
+        public long getCostCents() {
+            return costCents;
+        }
+
+        public long getMarginCents() {
+            return revenueCents - costCents;
+        }
+
+        @Override
+        public String toString() {
+            return "Row{" +
+                    "section=" + section +
+                    ", label='" + getLabel() + '\'' +
+                    ", units=" + units +
+                    ", revenueCents=" + revenueCents +
+                    ", costCents=" + costCents +
+                    '}';
+        }
+    }
+
+    private static final long NOT_A_NUMBER = Long.MIN_VALUE;
+
+    private final ByteBuffer buffer;
+    private int[] sectionBounds;
+
+    /**
+     * Maps a profit sheet into memory. The file is not read until rows are requested.
+     * Sheets are limited to 2 GB, the most a single mapping can hold.
+     * @param file the sheet file
+     * @throws UncheckedIOException if the file cannot be opened or is too large
+     */
+    public ProfitSheetReader(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Profit sheet is larger than 2 GB");
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open profit sheet " + file, e);
+        }
+    }
+
+    public long size() {
+        return buffer.limit();
+    }
+
+    /**
+     * Hands every line of the file to an action, as text, the way the sheet is printed for review.
+     * Files that are not profit sheets are printed just the same.
+     * @param action what to do with each line
+     */
+    public void forEachLine(Consumer<String> action) {
+        int limit = buffer.limit();
+        int start = 0;
+        while (start < limit) {
+            int end = lineEnd(start);
+            action.accept(decode(buffer, start, trimmedEnd(start, end)));
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Streams every row of the sheet in file order. Title, header and blank lines are skipped.
+     * @return a lazy stream of rows
+     */
+    public Stream<Row> rows() {
+        return stream(new RowIterator(null, 0, buffer.limit(), null));
+    }
+
+    /**
+     * Streams the rows of one section.
+     * @param section the section to read
+     * @return a lazy stream of rows, empty if the sheet has no such section
+     */
+    public Stream<Row> rows(Section section) {
+        int[] bounds = bounds(section);
+        return stream(new RowIterator(section, bounds[0], bounds[1], null));
+    }
+
+    /**
+     * Streams the day rows from one day up to, but not including, another.
+     * The first row is found by binary search, so earlier days are never read.
+     * @param from the first day to include
+     * @param to the first day to leave out
+     * @return a lazy stream of day rows
+     */
+    public Stream<Row> days(LocalDate from, LocalDate to) {
+        return range(Section.DAY, from.toString(), to.toString());
+    }
+
+    /**
+     * Streams the product rows whose names fall between two names, the first included and the second not.
+     * @param from the first name to include
+     * @param to the first name to leave out, or null to read to the end of the section
+     * @return a lazy stream of product rows
+     */
+    public Stream<Row> products(String from, String to) {
+        return range(Section.PRODUCT, from, to);
+    }
+
+    /**
+     * Finds the row of one product by binary search.
+     * @param name the product name
+     * @return the row, or empty if the product is not on the sheet
+     */
+    public Optional<Row> product(String name) {
+        byte[] key = name.getBytes(StandardCharsets.UTF_8);
+        int[] bounds = bounds(Section.PRODUCT);
+        int at = seek(Section.PRODUCT, bounds[0], bounds[1], key);
+        if (at >= bounds[1]) {
+            return Optional.empty();
+        }
+        Row row = parse(Section.PRODUCT, at, trimmedEnd(at, lineEnd(at)));
+        return row != null && compareLabel(row, key) == 0 ? Optional.of(row) : Optional.empty();
+    }
+
+    private Stream<Row> range(Section section, String from, String to) {
+        int[] bounds = bounds(section);
+        int start = seek(section, bounds[0], bounds[1], from.getBytes(StandardCharsets.UTF_8));
+        byte[] stop = to == null ? null : to.getBytes(StandardCharsets.UTF_8);
+        return stream(new RowIterator(section, start, bounds[1], stop));
+    }
+
+    private static Stream<Row> stream(Iterator<Row> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Walks the lines of part of the file, parsing rows and keeping track of which section it is in.
+     */
+    private final class RowIterator implements Iterator<Row> {
+        private Section section;
+        private final boolean fixedSection;
+        private int position;
+        private final int end;
+        private final byte[] stopKey;
+        private Row next;
+
+        RowIterator(Section section, int start, int end, byte[] stopKey) {
+            this.section = section;
+            this.fixedSection = section != null;
+            this.position = start;
+            this.end = end;
+            this.stopKey = stopKey;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && position < end) {
+                int lineEnd = lineEnd(position);
+                int start = position;
+                int contentEnd = trimmedEnd(start, lineEnd);
+                position = lineEnd + 1;
+                Section title = titleAt(start, contentEnd);
+                if (title != null) {
+                    if (fixedSection) {
+                        position = end;
+                        return false;
+                    }
+                    section = title;
+                } else if (section != null) {
+                    Row row = parse(section, start, contentEnd);
+                    if (row != null && stopKey != null && compareLabel(row, stopKey) >= 0) {
+                        position = end;
+                        return false;
+                    }
+                    next = row;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Row row = next;
+            next = null;
+            return row;
+        }
+    }
+
+    /**
+     * Finds the first data line of a sorted section whose label is not less than the key.
+     * Works on byte offsets: each probe backs up to the start of the line it lands in.
+     */
+    private int seek(Section section, int lo, int hi, byte[] key) {
+        while (lo < hi) {
+            int lineStart = lineStart(lo + (hi - lo) / 2);
+            int lineEnd = lineEnd(lineStart);
+            Row row = parse(section, lineStart, trimmedEnd(lineStart, lineEnd));
+            if (row != null && compareLabel(row, key) < 0) {
+                lo = lineEnd + 1;
+            } else {
+                hi = lineStart;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns where the rows of a section start and end, past its title and column header.
+     * Every section is found with a single pass over the file the first time one is needed.
+     */
+    private synchronized int[] bounds(Section section) {
+        if (sectionBounds == null) {
+            int[] found = new int[Section.values().length * 2];
+            Section current = null;
+            int limit = buffer.limit();
+            int start = 0;
+            while (start < limit) {
+                int end = lineEnd(start);
+                int contentEnd = trimmedEnd(start, end);
+                Section title = titleAt(start, contentEnd);
+                if (title != null) {
+                    if (current != null) {
+                        found[current.ordinal() * 2 + 1] = start;
+                    }
+                    current = title;
+                    int dataStart = Math.min(end + 1, limit);
+                    int headerEnd = lineEnd(dataStart);
+                    if (dataStart < limit && parse(title, dataStart, trimmedEnd(dataStart, headerEnd)) == null
+                            && titleAt(dataStart, trimmedEnd(dataStart, headerEnd)) == null) {
+                        dataStart = Math.min(headerEnd + 1, limit);
+                    }
+                    found[title.ordinal() * 2] = dataStart;
+                    found[title.ordinal() * 2 + 1] = limit;
+                    end = dataStart - 1;
+                }
+                start = end + 1;
+            }
+            sectionBounds = found;
+        }
+        int i = section.ordinal() * 2;
+        return new int[]{sectionBounds[i], sectionBounds[i + 1]};
+    }
+
+    private Section titleAt(int start, int end) {
+        if (end - start < 3 || buffer.get(start) != '=') {
+            return null;
+        }
+        for (Section section : Section.values()) {
+            if (regionEquals(start, end, section.title)) {
+                return section;
+            }
+        }
+        return null;
+    }
+
+    private boolean regionEquals(int start, int end, byte[] bytes) {
+        if (end - start != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses one data line. The last four fields are numbers, so they are located from the right,
+     * which keeps a label containing commas intact.
+     * @return the row, or null for headers, blank lines and anything else that is not a row
+     */
+    private Row parse(Section section, int start, int end) {
+        int[] commas = new int[4];
+        int found = 0;
+        for (int i = end - 1; i >= start && found < 4; i--) {
+            if (buffer.get(i) == ',') {
+                commas[found++] = i;
+            }
+        }
+        if (found < 4) {
+            return null;
+        }
+        // commas[0] precedes margin, [1] cost, [2] revenue, [3] units
+        long units = parseNumber(commas[3] + 1, commas[2], false);
+        long revenue = parseNumber(commas[2] + 1, commas[1], true);
+        long cost = parseNumber(commas[1] + 1, commas[0], true);
+        if (units == NOT_A_NUMBER || revenue == NOT_A_NUMBER || cost == NOT_A_NUMBER) {
+            return null;
+        }
+        int labelEnd = commas[3];
+        int categoryEnd = -1;
+        if (section == Section.PRODUCT) {
+            categoryEnd = labelEnd;
+            labelEnd = -1;
+            for (int i = categoryEnd - 1; i >= start; i--) {
+                if (buffer.get(i) == ',') {
+                    labelEnd = i;
+                    break;
+                }
+            }
+            if (labelEnd < 0) {
+                return null;
+            }
+        }
+        return new Row(section, buffer, start, labelEnd, categoryEnd, units, revenue, cost);
+    }
+
+    /**
+     * Parses a whole number, or an amount with up to two decimals as cents.
+     */
+    private long parseNumber(int start, int end, boolean cents) {
+        if (start >= end) {
+            return NOT_A_NUMBER;
+        }
+        boolean negative = buffer.get(start) == '-';
+        int i = negative ? start + 1 : start;
+        long value = 0;
+        int decimals = -1;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && cents && decimals < 0) {
+                decimals = 0;
+            } else if (b >= '0' && b <= '9' && decimals < 2) {
+                value = value * 10 + (b - '0');
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else {
+                return NOT_A_NUMBER;
+            }
+        }
+        if (cents) {
+            for (int d = Math.max(decimals, 0); d < 2; d++) {
+                value *= 10;
+            }
+        }
+        return negative ? -value : value;
+    }
+
+    private int compareLabel(Row row, byte[] key) {
+        int length = row.labelEnd - row.labelStart;
+        int n = Math.min(length, key.length);
+        for (int i = 0; i < n; i++) {
+            int c = Integer.compare(buffer.get(row.labelStart + i) & 0xFF, key[i] & 0xFF);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private int lineEnd(int start) {
+        int limit = buffer.limit();
+        int i = start;
+        while (i < limit && buffer.get(i) != '\n') {
+            i++;
+        }
+        return i;
+    }
+
+    private int lineStart(int position) {
+        int i = position;
+        while (i > 0 && buffer.get(i - 1) != '\n') {
+            i--;
+        }
+        return i;
+    }
+
+    private int trimmedEnd(int start, int end) {
+        return end > start && buffer.get(end - 1) == '\r' ? end - 1 : end;
+    }
+
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        return StandardCharsets.UTF_8.decode(buffer.slice(start, end - start)).toString();
+    }
+}
@@ -0,0 +1,309 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+public class PurchaseHistory {
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * One purchase as it happened: what was bought, what was paid and when. Later price changes do not touch it.
+     */
+    public static final class Purchase {
+        private final Sku sku;
+        private final long priceCents;
+        private final long epochMillis;
+
+        Purchase(Sku sku, long priceCents, long epochMillis) {
+            this.sku = sku;
+            this.priceCents = priceCents;
+            this.epochMillis = epochMillis;
+        }
+
+        public Sku getSku() {
+            return sku;
+        }
+
+        public long getPriceCents() {
+            return priceCents;
+        }
+
+        public long getEpochMillis() {
+            return epochMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "Purchase{" + "sku=" + sku.getName() + ", priceCents=" + priceCents + ", epochMillis=" + epochMillis + '}';
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == null || getClass() != o.getClass()) return false;
+            Purchase purchase = (Purchase) o;
+            return sku == purchase.sku && priceCents == purchase.priceCents && epochMillis == purchase.epochMillis;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sku, priceCents, epochMillis);
+        }
+    }
+
+    // The newest purchases, oldest overwritten first.
+    private final int[] skuIds;
+    private final long[] pricesCents;
+    private final long[] times;
+    private int next;
+    private int size;
+    private long total;
+
+    // One slot per Sku in the ring, holding how many times it appears there and what kind of product it was.
+    // Slots with the same count form a linked list, so the most bought Sku is always at the head of the highest count.
+    private final int[] slotSku;
+    private final int[] slotCount;
+    private final CatalogItem.Kind[] slotKind;
+    private final String[] slotCategory;
+    private final int[] slotNext;
+    private final int[] slotPrev;
+    private final int[] countHead;
+    private int freeSlot;
+    private int maxCount;
+
+    // Open-addressed index from Sku id to slot, holding slot + 1 so that 0 means empty.
+    private final int[] index;
+
+    public PurchaseHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty history.
+     * @param capacity how many of the newest purchases to keep
+     */
+    public PurchaseHistory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.skuIds = new int[capacity];
+        this.pricesCents = new long[capacity];
+        this.times = new long[capacity];
+        // A new purchase is counted before the oldest is dropped, so one more slot and count than the capacity are needed.
+        int slots = capacity + 1;
+        this.slotSku = new int[slots];
+        this.slotCount = new int[slots];
+        this.slotKind = new CatalogItem.Kind[slots];
+        this.slotCategory = new String[slots];
+        this.slotNext = new int[slots];
+        this.slotPrev = new int[slots];
+        this.countHead = new int[slots + 1];
+        Arrays.fill(countHead, -1);
+        for (int slot = 0; slot < slots; slot++) {
+            slotNext[slot] = slot + 1 < slots ? slot + 1 : -1;
+        }
+        this.freeSlot = 0;
+        this.index = new int[Integer.highestOneBit(slots) * 4];
+    }
+
+    /**
+     * Records a purchase, dropping the oldest one if the history is full.
+     * @param product the product bought
+     * @param priceCents what was paid, in cents
+     * @param epochMillis when it was bought
+     */
+    public synchronized void add(Product product, long priceCents, long epochMillis) {
+        Sku sku = product.getSku();
+        if (sku == null) {
+            throw new IllegalArgumentException("Product must have a name");
+        }
+        int slot = slotOf(sku.getId());
+        if (slot < 0) {
+            slot = newSlot(sku.getId());
+        }
+        slotKind[slot] = kindOf(product);
+        slotCategory[slot] = product.getCategory();
+        setCount(slot, slotCount[slot] + 1);
+        if (size == skuIds.length) {
+            int evicted = slotOf(skuIds[next]);
+            setCount(evicted, slotCount[evicted] - 1);
+        } else {
+            size++;
+        }
+        skuIds[next] = sku.getId();
+        pricesCents[next] = priceCents;
+        times[next] = epochMillis;
+        next = (next + 1) % skuIds.length;
+        total++;
+    }
+
+    private static CatalogItem.Kind kindOf(Product product) {
+        if (product instanceof Drink) {
+            return CatalogItem.Kind.DRINK;
+        }
+        return product instanceof Snack ? CatalogItem.Kind.SNACK : CatalogItem.Kind.PRODUCT;
+    }
+
+    /**
+     * Moves a slot to the list of its new count, freeing it when the count drops to zero.
+     */
+    private void setCount(int slot, int count) {
+        int old = slotCount[slot];
+        if (old > 0) {
+            if (slotPrev[slot] >= 0) {
+                slotNext[slotPrev[slot]] = slotNext[slot];
+            } else {
+                countHead[old] = slotNext[slot];
+            }
+            if (slotNext[slot] >= 0) {
+                slotPrev[slotNext[slot]] = slotPrev[slot];
+            }
+            if (old == maxCount && countHead[old] < 0 && count < old) {
+                maxCount = count;
+            }
+        }
+        slotCount[slot] = count;
+        if (count == 0) {
+            removeFromIndex(slotSku[slot]);
+            slotCategory[slot] = null;
+            slotNext[slot] = freeSlot;
+            freeSlot = slot;
+            return;
+        }
+        slotPrev[slot] = -1;
+        slotNext[slot] = countHead[count];
+        if (countHead[count] >= 0) {
+            slotPrev[countHead[count]] = slot;
+        }
+        countHead[count] = slot;
+        maxCount = Math.max(maxCount, count);
+    }
+
+    private int newSlot(int skuId) {
+        int slot = freeSlot;
+        freeSlot = slotNext[slot];
+        slotSku[slot] = skuId;
+        slotCount[slot] = 0;
+        int mask = index.length - 1;
+        int i = home(skuId);
+        while (index[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        index[i] = slot + 1;
+        return slot;
+    }
+
+    private int slotOf(int skuId) {
+        int mask = index.length - 1;
+        for (int i = home(skuId); index[i] != 0; i = (i + 1) & mask) {
+            if (slotSku[index[i] - 1] == skuId) {
+                return index[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes an entry from the index, shifting later entries of the same probe run back into the gap.
+     */
+    private void removeFromIndex(int skuId) {
+        int mask = index.length - 1;
+        int hole = home(skuId);
+        while (slotSku[index[hole] - 1] != skuId) {
+            hole = (hole + 1) & mask;
+        }
+        for (int i = (hole + 1) & mask; index[i] != 0; i = (i + 1) & mask) {
+            int home = home(slotSku[index[i] - 1]);
+            boolean canMove = hole <= i ? home <= hole || home > i : home <= hole && home > i;
+            if (canMove) {
+                index[hole] = index[i];
+                hole = i;
+            }
+        }
+        index[hole] = 0;
+    }
+
+    private int home(int skuId) {
+        int hash = skuId * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (index.length - 1);
+    }
+
+    /**
+     * Returns the product bought most often among the kept purchases. Ties go to the product that reached the count last.
+     * @return the Sku, or null if nothing was bought
+     */
+    public synchronized Sku favorite() {
+        return maxCount == 0 ? null : Sku.byId(slotSku[countHead[maxCount]]);
+    }
+
+    /**
+     * Returns the products bought most often among the kept purchases, most bought first.
+     * @param limit the most products to return
+     * @return up to limit Skus
+     */
+    public synchronized List<Sku> favorites(int limit) {
+        List<Sku> favorites = new ArrayList<>();
+        for (int count = maxCount; count > 0 && favorites.size() < limit; count--) {
+            for (int slot = countHead[count]; slot >= 0 && favorites.size() < limit; slot = slotNext[slot]) {
+                favorites.add(Sku.byId(slotSku[slot]));
+            }
+        }
+        return favorites;
+    }
+
+    /**
+     * Counts how often a product appears among the kept purchases.
+     * @param sku the product's Sku
+     * @return the number of kept purchases of it
+     */
+    public synchronized int count(Sku sku) {
+        int slot = sku == null ? -1 : slotOf(sku.getId());
+        return slot < 0 ? 0 : slotCount[slot];
+    }
+
+    /**
+     * Returns the kept purchases, oldest first.
+     * @return a copy of the purchases
+     */
+    public synchronized List<Purchase> getPurchases() {
+        List<Purchase> purchases = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int at = (next - size + i + skuIds.length) % skuIds.length;
+            purchases.add(new Purchase(Sku.byId(skuIds[at]), pricesCents[at], times[at]));
+        }
+        return purchases;
+    }
+
+    /**
+     * Returns the kept purchases as products, oldest first. Each is a new product of the kind bought,
+     * priced at what was paid and holding no stock.
+     * @return a copy of the purchases as products
+     */
+    public synchronized List<Product> toProducts() {
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int at = (next - size + i + skuIds.length) % skuIds.length;
+            int slot = slotOf(skuIds[at]);
+            products.add(new CatalogItem(Sku.byId(skuIds[at]).getName(), slotKind[slot], slotCategory[slot],
+                    pricesCents[at] / 100.0, "", null, 0).newProduct(0, 0));
+        }
+        return products;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns how many purchases were ever recorded, including those no longer kept.
+     * @return the number of purchases
+     */
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    public int getCapacity() {
+        return skuIds.length;
+    }
+}
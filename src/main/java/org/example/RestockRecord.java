@@ -0,0 +1,111 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class RestockRecord {
+    private final long epochMillis;
+    private final int operatorId;
+    private final Map<Sku, Integer> amounts;
+
+    /**
+     * Creates the record of one restock batch.
+     * @param epochMillis when the batch was applied
+     * @param operatorId the id of the operator who restocked
+     * @param amounts how many units of each product were added
+     */
+    public RestockRecord(long epochMillis, int operatorId, Map<Sku, Integer> amounts) {
+        if (amounts == null) {
+            throw new IllegalArgumentException("Amounts cannot be null");
+        }
+        this.epochMillis = epochMillis;
+        this.operatorId = operatorId;
+        this.amounts = Collections.unmodifiableMap(new LinkedHashMap<>(amounts));
+    }
+
+    /**
+     * Encodes the batch as a journal payload: time, operator id, the number of products,
+     * then for each product its amount, the length of its name and the name in UTF-8.
+     * @return the encoded bytes
+     */
+    public byte[] encode() {
+        byte[][] names = new byte[amounts.size()][];
+        int size = Long.BYTES + Integer.BYTES * 2;
+        int i = 0;
+        for (Sku sku : amounts.keySet()) {
+            names[i] = sku.getName().getBytes(StandardCharsets.UTF_8);
+            size += Integer.BYTES * 2 + names[i].length;
+            i++;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size)
+                .putLong(epochMillis)
+                .putInt(operatorId)
+                .putInt(amounts.size());
+        i = 0;
+        for (int amount : amounts.values()) {
+            buffer.putInt(amount).putInt(names[i].length).put(names[i]);
+            i++;
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a batch written by encode. The buffer's position is left untouched.
+     * @param payload the journal payload
+     * @return the decoded batch
+     */
+    public static RestockRecord decode(ByteBuffer payload) {
+        ByteBuffer in = payload.duplicate();
+        long epochMillis = in.getLong();
+        int operatorId = in.getInt();
+        int count = in.getInt();
+        Map<Sku, Integer> amounts = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            int amount = in.getInt();
+            byte[] name = new byte[in.getInt()];
+            in.get(name);
+            amounts.put(Sku.of(new String(name, StandardCharsets.UTF_8)), amount);
+        }
+        return new RestockRecord(epochMillis, operatorId, amounts);
+    }
+
+    /**
+     * Adds up the units of the batch.
+     * @return the total number of units restocked
+     */
+    public int getTotalUnits() {
+        int total = 0;
+        for (int amount : amounts.values()) {
+            total += amount;
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "RestockRecord{" +
+                "epochMillis=" + epochMillis +
+                ", operatorId=" + operatorId +
+                ", amounts=" + amounts +
+                '}';
+    }
+
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    public int getOperatorId() {
+        return operatorId;
+    }
+
+    /**
+     * Returns the units added per product, in the order the batch listed them.
+     * @return a read-only map
+     */
+    public Map<Sku, Integer> getAmounts() {
+        return amounts;
+    }
+}
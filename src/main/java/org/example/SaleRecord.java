@@ -0,0 +1,141 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+
+public class SaleRecord {
+    public static final int UNKNOWN_BUYER = -1;
+    private static final String SOLD_FOR = " sold for $";
+
+    private final long epochMillis;
+    private final long priceCents;
+    private final int buyerId;
+    private final String productName;
+
+    public SaleRecord(long epochMillis, long priceCents, int buyerId, String productName) {
+        if (productName == null) {
+            throw new IllegalArgumentException("Product name cannot be null");
+        }
+        this.epochMillis = epochMillis;
+        this.priceCents = priceCents;
+        this.buyerId = buyerId;
+        this.productName = productName;
+    }
+
+    /**
+     * Encodes the sale as a journal payload: time, price in cents, buyer id, then the product name in UTF-8.
+     * @return the encoded bytes
+     */
+    public byte[] encode() {
+        byte[] name = productName.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(Long.BYTES * 2 + Integer.BYTES + name.length)
+                .putLong(epochMillis)
+                .putLong(priceCents)
+                .putInt(buyerId)
+                .put(name)
+                .array();
+    }
+
+    /**
+     * Decodes a sale written by encode. The buffer's position is left untouched.
+     * @param payload the journal payload
+     * @return the decoded sale
+     */
+    public static SaleRecord decode(ByteBuffer payload) {
+        int start = payload.position();
+        long epochMillis = payload.getLong(start);
+        long priceCents = payload.getLong(start + Long.BYTES);
+        int buyerId = payload.getInt(start + Long.BYTES * 2);
+        String name = StandardCharsets.UTF_8.decode(productNameBytes(payload)).toString();
+        return new SaleRecord(epochMillis, priceCents, buyerId, name);
+    }
+
+    static long epochMillisOf(ByteBuffer payload) {
+        return payload.getLong(payload.position());
+    }
+
+    static long priceCentsOf(ByteBuffer payload) {
+        return payload.getLong(payload.position() + Long.BYTES);
+    }
+
+    static int buyerIdOf(ByteBuffer payload) {
+        return payload.getInt(payload.position() + Long.BYTES * 2);
+    }
+
+    /**
+     * Returns the UTF-8 product name of an encoded sale without decoding it.
+     * Equal names give equal buffers, so the result can be used as a map key.
+     * @param payload the journal payload
+     * @return a view of the name bytes
+     */
+    static ByteBuffer productNameBytes(ByteBuffer payload) {
+        int nameStart = payload.position() + Long.BYTES * 2 + Integer.BYTES;
+        return payload.slice(nameStart, payload.limit() - nameStart);
+    }
+
+    /**
+     * Formats the sale the way it appears in the sales log.
+     * @return a line such as "2025-05-11 22:41:25 - Chips sold for $1.50"
+     */
+    public String toLogLine() {
+        StringBuilder line = new StringBuilder(TimestampFormat.PATTERN.length() + productName.length() + 24);
+        line.append(TimestampFormat.shared().format(epochMillis)).append(" - ").append(productName).append(SOLD_FOR);
+        long whole = priceCents / 100;
+        long fraction = Math.abs(priceCents % 100);
+        if (priceCents < 0 && whole == 0) {
+            line.append('-');
+        }
+        line.append(whole).append('.');
+        if (fraction < 10) {
+            line.append('0');
+        }
+        return line.append(fraction).toString();
+    }
+
+    /**
+     * Reads a sales log line back into a sale. The line carries no buyer, so the sale gets UNKNOWN_BUYER.
+     * @param line a line written by toLogLine
+     * @return the sale, or null if the line is not a sale
+     */
+    public static SaleRecord parseLogLine(String line) {
+        int nameStart = line.indexOf(" - ");
+        int nameEnd = line.lastIndexOf(SOLD_FOR);
+        if (nameStart < 0 || nameEnd < nameStart) {
+            return null;
+        }
+        try {
+            long epochMillis = TimestampFormat.shared().parse(line.substring(0, nameStart));
+            double price = Double.parseDouble(line.substring(nameEnd + SOLD_FOR.length()).trim());
+            return new SaleRecord(epochMillis, Money.toCents(price), UNKNOWN_BUYER, line.substring(nameStart + 3, nameEnd));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SaleRecord{" +
+                "epochMillis=" + epochMillis +
+                ", priceCents=" + priceCents +
+                ", buyerId=" + buyerId +
+                ", productName='" + productName + '\'' +
+                '}';
+    }
+
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    public int getBuyerId() {
+        return buyerId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+}
@@ -0,0 +1,326 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SalesStore {
+    public static final long DEFAULT_BUCKET_MILLIS = 3_600_000L;
+    public static final int DEFAULT_RETAINED_BUCKETS = 24 * 31;
+
+    private static final int INITIAL_BUCKET_CAPACITY = 16;
+
+    /**
+     * Receives one sale at a time as its separate fields, so a scan does not build an object per sale.
+     */
+    @FunctionalInterface
+    public interface SaleVisitor {
+        void visit(long epochMillis, Sku sku, long priceCents, int buyerId);
+    }
+
+    /**
+     * The sales of one time slot, one array per field, kept in time order,
+     * with the count and revenue of the slot added up as sales come in.
+     */
+    private static final class Bucket {
+        final long startMillis;
+        long[] times = new long[INITIAL_BUCKET_CAPACITY];
+        int[] skuIds = new int[INITIAL_BUCKET_CAPACITY];
+        long[] pricesCents = new long[INITIAL_BUCKET_CAPACITY];
+        int[] buyerIds = new int[INITIAL_BUCKET_CAPACITY];
+        int size;
+        long revenueCents;
+
+        Bucket(long startMillis) {
+            this.startMillis = startMillis;
+        }
+
+        void add(long epochMillis, int skuId, long priceCents, int buyerId) {
+            if (size == times.length) {
+                int capacity = size * 2;
+                times = Arrays.copyOf(times, capacity);
+                skuIds = Arrays.copyOf(skuIds, capacity);
+                pricesCents = Arrays.copyOf(pricesCents, capacity);
+                buyerIds = Arrays.copyOf(buyerIds, capacity);
+            }
+            int at = size;
+            if (size > 0 && times[size - 1] > epochMillis) {
+                at = indexAfter(epochMillis);
+                System.arraycopy(times, at, times, at + 1, size - at);
+                System.arraycopy(skuIds, at, skuIds, at + 1, size - at);
+                System.arraycopy(pricesCents, at, pricesCents, at + 1, size - at);
+                System.arraycopy(buyerIds, at, buyerIds, at + 1, size - at);
+            }
+            times[at] = epochMillis;
+            skuIds[at] = skuId;
+            pricesCents[at] = priceCents;
+            buyerIds[at] = buyerId;
+            size++;
+            revenueCents += priceCents;
+        }
+
+        /**
+         * Returns the index of the first sale at or after a time.
+         */
+        int indexOf(long epochMillis) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] < epochMillis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int indexAfter(long epochMillis) {
+            return epochMillis == Long.MAX_VALUE ? size : indexOf(epochMillis + 1);
+        }
+
+        SaleRecord get(int index) {
+            return new SaleRecord(times[index], pricesCents[index], buyerIds[index], Sku.byId(skuIds[index]).getName());
+        }
+    }
+
+    private final long bucketMillis;
+    private final int retainedBuckets;
+    private final List<Bucket> buckets;
+    private long size;
+
+    public SalesStore() {
+        this(DEFAULT_BUCKET_MILLIS, DEFAULT_RETAINED_BUCKETS);
+    }
+
+    /**
+     * Creates an empty store.
+     * @param bucketMillis how much time one bucket covers
+     * @param retainedBuckets how many of the newest buckets are kept; older ones are dropped whole
+     */
+    public SalesStore(long bucketMillis, int retainedBuckets) {
+        if (bucketMillis <= 0) {
+            throw new IllegalArgumentException("Bucket length must be positive");
+        }
+        if (retainedBuckets <= 0) {
+            throw new IllegalArgumentException("At least one bucket must be retained");
+        }
+        this.bucketMillis = bucketMillis;
+        this.retainedBuckets = retainedBuckets;
+        this.buckets = new ArrayList<>();
+    }
+
+    /**
+     * Adds a sale to the bucket of its time slot. Sales nearly always arrive in time order and go to the end
+     * of the newest bucket; an older sale is slotted into place.
+     * @param epochMillis when the sale happened
+     * @param sku the product sold
+     * @param priceCents what the buyer paid, in cents
+     * @param buyerId the buyer's id, or SaleRecord.UNKNOWN_BUYER
+     */
+    public synchronized void add(long epochMillis, Sku sku, long priceCents, int buyerId) {
+        if (sku == null) {
+            throw new IllegalArgumentException("Sku cannot be null");
+        }
+        bucketFor(Math.floorDiv(epochMillis, bucketMillis) * bucketMillis).add(epochMillis, sku.getId(), priceCents, buyerId);
+        size++;
+        while (buckets.size() > retainedBuckets) {
+            size -= buckets.remove(0).size;
+        }
+    }
+
+    public void add(SaleRecord sale) {
+        add(sale.getEpochMillis(), Sku.of(sale.getProductName()), sale.getPriceCents(), sale.getBuyerId());
+    }
+
+    private Bucket bucketFor(long startMillis) {
+        int last = buckets.size() - 1;
+        if (last >= 0 && buckets.get(last).startMillis == startMillis) {
+            return buckets.get(last);
+        }
+        int index = bucketIndex(startMillis);
+        if (index < buckets.size() && buckets.get(index).startMillis == startMillis) {
+            return buckets.get(index);
+        }
+        Bucket bucket = new Bucket(startMillis);
+        buckets.add(index, bucket);
+        return bucket;
+    }
+
+    /**
+     * Returns the index of the first bucket that starts at or after a time. The bucket start times
+     * are the store's time index: one entry per bucket rather than one per sale.
+     */
+    private int bucketIndex(long startMillis) {
+        int low = 0;
+        int high = buckets.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buckets.get(mid).startMillis < startMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int firstBucketIndex(long fromMillis) {
+        if (buckets.isEmpty() || fromMillis <= buckets.get(0).startMillis) {
+            return 0;
+        }
+        return bucketIndex(Math.floorDiv(fromMillis, bucketMillis) * bucketMillis);
+    }
+
+    /**
+     * Visits the sales in a time range, oldest first. The store is locked while visiting,
+     * so the visitor must not add sales.
+     * @param fromMillis the start of the range, inclusive
+     * @param toMillis the end of the range, exclusive
+     * @param visitor what to do with each sale
+     */
+    public synchronized void forEach(long fromMillis, long toMillis, SaleVisitor visitor) {
+        for (int i = firstBucketIndex(fromMillis); i < buckets.size(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket.startMillis >= toMillis) {
+                break;
+            }
+            int end = bucket.indexOf(toMillis);
+            for (int j = bucket.indexOf(fromMillis); j < end; j++) {
+                visitor.visit(bucket.times[j], Sku.byId(bucket.skuIds[j]), bucket.pricesCents[j], bucket.buyerIds[j]);
+            }
+        }
+    }
+
+    /**
+     * Returns the sales in a time range, oldest first.
+     * @param fromMillis the start of the range, inclusive
+     * @param toMillis the end of the range, exclusive
+     * @return the sales, copied out of the store
+     */
+    public synchronized List<SaleRecord> between(long fromMillis, long toMillis) {
+        List<SaleRecord> sales = new ArrayList<>();
+        for (int i = firstBucketIndex(fromMillis); i < buckets.size(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket.startMillis >= toMillis) {
+                break;
+            }
+            int end = bucket.indexOf(toMillis);
+            for (int j = bucket.indexOf(fromMillis); j < end; j++) {
+                sales.add(bucket.get(j));
+            }
+        }
+        return sales;
+    }
+
+    /**
+     * Counts the sales in a time range. Buckets that lie wholly inside the range are counted
+     * from their totals; only the two buckets at the ends are searched.
+     * @param fromMillis the start of the range, inclusive
+     * @param toMillis the end of the range, exclusive
+     * @return the number of sales
+     */
+    public synchronized long count(long fromMillis, long toMillis) {
+        long count = 0;
+        for (int i = firstBucketIndex(fromMillis); i < buckets.size(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket.startMillis >= toMillis) {
+                break;
+            }
+            if (covers(bucket, fromMillis, toMillis)) {
+                count += bucket.size;
+            } else {
+                count += bucket.indexOf(toMillis) - bucket.indexOf(fromMillis);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Adds up the revenue of the sales in a time range, using bucket totals where a bucket lies wholly inside the range.
+     * @param fromMillis the start of the range, inclusive
+     * @param toMillis the end of the range, exclusive
+     * @return the revenue in cents
+     */
+    public synchronized long revenueCents(long fromMillis, long toMillis) {
+        long revenue = 0;
+        for (int i = firstBucketIndex(fromMillis); i < buckets.size(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket.startMillis >= toMillis) {
+                break;
+            }
+            if (covers(bucket, fromMillis, toMillis)) {
+                revenue += bucket.revenueCents;
+                continue;
+            }
+            int end = bucket.indexOf(toMillis);
+            for (int j = bucket.indexOf(fromMillis); j < end; j++) {
+                revenue += bucket.pricesCents[j];
+            }
+        }
+        return revenue;
+    }
+
+    private boolean covers(Bucket bucket, long fromMillis, long toMillis) {
+        return bucket.startMillis >= fromMillis && toMillis - bucket.startMillis >= bucketMillis;
+    }
+
+    /**
+     * Returns a sale counting back from the newest.
+     * @param back 0 for the newest sale, 1 for the one before it, and so on
+     * @return the sale
+     * @throws IndexOutOfBoundsException if fewer sales are stored
+     */
+    public synchronized SaleRecord fromNewest(long back) {
+        if (back < 0 || back >= size) {
+            throw new IndexOutOfBoundsException("No sale " + back + " back from the newest of " + size);
+        }
+        for (int i = buckets.size() - 1; ; i--) {
+            Bucket bucket = buckets.get(i);
+            if (back < bucket.size) {
+                return bucket.get(bucket.size - 1 - (int) back);
+            }
+            back -= bucket.size;
+        }
+    }
+
+    /**
+     * Returns the newest sales, oldest first.
+     * @param limit the most sales to return
+     * @return up to limit sales, copied out of the store
+     */
+    public synchronized List<SaleRecord> newest(int limit) {
+        int count = (int) Math.min(size, Math.max(limit, 0));
+        SaleRecord[] sales = new SaleRecord[count];
+        int filled = 0;
+        for (int i = buckets.size() - 1; i >= 0 && filled < count; i--) {
+            Bucket bucket = buckets.get(i);
+            for (int j = bucket.size - 1; j >= 0 && filled < count; j--) {
+                sales[count - 1 - filled++] = bucket.get(j);
+            }
+        }
+        return Arrays.asList(sales);
+    }
+
+    public synchronized void clear() {
+        buckets.clear();
+        size = 0;
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    public synchronized int getBucketCount() {
+        return buckets.size();
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    public int getRetainedBuckets() {
+        return retainedBuckets;
+    }
+}
@@ -0,0 +1,74 @@
+package org.example;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class SerialExecutor implements Executor {
+    /** Tasks run per turn on the pool before the drain yields to other executors sharing it. */
+    public static final int MAX_BATCH = 64;
+
+    private final Executor pool;
+    private final Queue<Runnable> tasks;
+    private final AtomicBoolean scheduled;
+
+    /**
+     * Creates an executor that runs its tasks one at a time, in submission order, on a shared pool.
+     * Many serial executors can share one pool, so each owner gets a single writer without a thread of its own.
+     * @param pool the pool the tasks run on
+     */
+    public SerialExecutor(Executor pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        this.pool = pool;
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.scheduled = new AtomicBoolean();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task cannot be null");
+        }
+        tasks.add(task);
+        schedule();
+    }
+
+    /**
+     * Hands a drain to the pool unless one is already queued or running.
+     * Only the drain that won the flag runs tasks, which is what keeps them from overlapping.
+     */
+    private void schedule() {
+        if (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+            try {
+                pool.execute(this::drain);
+            } catch (RuntimeException e) {
+                scheduled.set(false);
+                throw e;
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            Runnable task;
+            for (int i = 0; i < MAX_BATCH && (task = tasks.poll()) != null; i++) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    Thread current = Thread.currentThread();
+                    current.getUncaughtExceptionHandler().uncaughtException(current, e);
+                }
+            }
+        } finally {
+            scheduled.set(false);
+            schedule();
+        }
+    }
+
+    public int getQueued() {
+        return tasks.size();
+    }
+}
@@ -0,0 +1,72 @@
+package org.example;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class Session {
+    private static final AtomicLong nextId = new AtomicLong();
+
+    private final long id;
+    private final Buyer buyer;
+    private final Money money;
+
+    public Session(Buyer buyer) {
+        this(buyer, new Money());
+    }
+
+    public Session(Buyer buyer, Money money) {
+        if (buyer == null) {
+            throw new IllegalArgumentException("Buyer cannot be null");
+        }
+        if (money == null) {
+            throw new IllegalArgumentException("Money cannot be null");
+        }
+        this.id = nextId.getAndIncrement();
+        this.buyer = buyer;
+        this.money = money;
+    }
+
+    /**
+     * Adds money inserted by the buyer to this session only.
+     * A session belongs to a single buyer, so its money is not shared with other sessions.
+     * @param inserted The money inserted by the buyer
+     */
+    public void addMoney(Money inserted) {
+        if (inserted != null && inserted.totalCents() > 0) {
+            money.addAll(inserted);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Session{" +
+                "id=" + id +
+                ", buyer=" + buyer.getName() +
+                ", money=" + money +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        Session session = (Session) o;
+        return id == session.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Buyer getBuyer() {
+        return buyer;
+    }
+
+    public Money getMoney() {
+        return money;
+    }
+}
@@ -0,0 +1,340 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves one vending machine over a line-based text protocol on the loopback interface.
+ * Every connection gets its own virtual thread and its own buyer session, so buyers never
+ * share inserted money. Each request is one line and gets exactly one reply line starting
+ * with OK or ERR:
+ * <pre>
+ * BUYER name                sets the buyer's name before the first purchase
+ * CHOOSE product            Buyer.chooseProduct
+ * MONEY amount count        adds coins or bills to the session, e.g. MONEY 0.25 4
+ * BUY                       Buyer.buy with the session's money
+ * REFUND                    hands back money inserted but not spent
+ * OPERATOR name             logs in as one of the server's operators
+ * RESTOCK product amount    Operator.restockProduct
+ * PRICE product price       Operator.updateProductPrice
+ * QUIT                      closes the connection
+ * </pre>
+ */
+public class SessionServer implements AutoCloseable {
+    public static final int DEFAULT_BACKLOG = 4096;
+
+    private final VendingMachine machine;
+    private final Map<String, Operator> operators;
+    private final Object operatorLock;
+    private final Set<Socket> connections;
+    private final LongAdder requests;
+    private final LongAdder accepted;
+    private ServerSocket serverSocket;
+    private Thread acceptor;
+
+    /**
+     * Creates a server for a machine. Nothing is bound until start is called.
+     * @param machine the machine buyers and operators act on
+     * @param operators the operators who may log in, by name
+     */
+    public SessionServer(VendingMachine machine, Map<String, Operator> operators) {
+        if (machine == null) {
+            throw new IllegalArgumentException("Vending machine cannot be null");
+        }
+        this.machine = machine;
+        this.operators = operators == null ? Map.of() : Map.copyOf(operators);
+        this.operatorLock = new Object();
+        this.connections = ConcurrentHashMap.newKeySet();
+        this.requests = new LongAdder();
+        this.accepted = new LongAdder();
+    }
+
+    /**
+     * Binds to a port on the loopback address and starts accepting connections.
+     * The server never listens on any other interface.
+     * @param port the port to use, or 0 for any free port
+     * @return the port the server is listening on
+     * @throws UncheckedIOException if the port cannot be bound
+     */
+    public synchronized int start(int port) {
+        if (serverSocket != null) {
+            throw new IllegalStateException("Server is already started");
+        }
+        try {
+            ServerSocket socket = new ServerSocket();
+            socket.setReuseAddress(true);
+            socket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), DEFAULT_BACKLOG);
+            serverSocket = socket;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not bind session server to port " + port, e);
+        }
+        acceptor = Thread.ofPlatform().name("session-acceptor").daemon(true).start(this::acceptLoop);
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        Thread.Builder sessions = Thread.ofVirtual().name("session-", 0);
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                accepted.increment();
+                sessions.start(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    machine.getDisplay().displayMessage(MessageDisplay.Level.ERROR, "Session server could not accept a connection: %s", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        Connection connection = new Connection();
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                requests.increment();
+                String reply = connection.handle(line.trim());
+                out.write(reply);
+                out.newLine();
+                out.flush();
+                if (connection.closed) {
+                    break;
+                }
+            }
+        } catch (SocketException e) {
+            // the client went away or the server is closing
+        } catch (IOException e) {
+            machine.getDisplay().displayMessage(MessageDisplay.Level.WARN, "Session connection failed: %s", e.getMessage());
+        } finally {
+            connection.end();
+            connections.remove(socket);
+        }
+    }
+
+    /**
+     * The state of one client: its buyer, its session and, once logged in, its operator.
+     * Only the connection's own thread touches it.
+     */
+    private final class Connection {
+        Buyer buyer;
+        Session session;
+        Operator operator;
+        boolean closed;
+
+        String handle(String line) {
+            String[] parts = line.split("\\s+");
+            String command = parts[0].toUpperCase(Locale.ROOT);
+            try {
+                return switch (command) {
+                    case "BUYER" -> buyer(parts);
+                    case "CHOOSE" -> choose(parts);
+                    case "MONEY" -> money(parts);
+                    case "BUY" -> buy();
+                    case "REFUND" -> refund();
+                    case "OPERATOR" -> operator(parts);
+                    case "RESTOCK" -> restock(parts);
+                    case "PRICE" -> price(parts);
+                    case "QUIT" -> {
+                        closed = true;
+                        yield "OK bye";
+                    }
+                    default -> "ERR unknown command " + parts[0];
+                };
+            } catch (NumberFormatException e) {
+                return "ERR invalid number";
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                return "ERR " + e.getMessage();
+            }
+        }
+
+        private Session session() {
+            if (session == null) {
+                if (buyer == null) {
+                    buyer = new Buyer();
+                }
+                session = machine.openSession(buyer);
+            }
+            return session;
+        }
+
+        private String buyer(String[] parts) {
+            requireArgs(parts, 2);
+            if (session != null) {
+                return "ERR buyer already chosen";
+            }
+            buyer = new Buyer(parts[1]);
+            session();
+            return "OK buyer " + buyer.getId();
+        }
+
+        private String choose(String[] parts) {
+            requireArgs(parts, 2);
+            Product product = session().getBuyer().chooseProduct(parts[1], machine.getInventory());
+            if (product == null) {
+                return "ERR no such product " + parts[1];
+            }
+            return String.format(Locale.ROOT, "OK %s %.2f %d", product.getName(), machine.getPriceCents(product) / 100.0, product.getStock());
+        }
+
+        private String money(String[] parts) {
+            requireArgs(parts, 3);
+            Session current = session();
+            current.addMoney(new Money(Map.of(Double.parseDouble(parts[1]), Integer.parseInt(parts[2]))));
+            return String.format(Locale.ROOT, "OK %.2f", current.getMoney().totalCents() / 100.0);
+        }
+
+        private String buy() {
+            Session current = session();
+            Product product = current.getBuyer().getSelectedProduct();
+            if (product == null) {
+                return "ERR no product chosen";
+            }
+            long change = current.getMoney().totalCents() - machine.getPriceCents(product);
+            if (!current.getBuyer().buy(machine, current)) {
+                return "ERR purchase failed";
+            }
+            return String.format(Locale.ROOT, "OK %s %.2f", product.getName(), change / 100.0);
+        }
+
+        private String refund() {
+            if (session == null) {
+                return "OK 0.00";
+            }
+            Money refund = machine.closeSession(session);
+            session = null;
+            return String.format(Locale.ROOT, "OK %.2f", refund.totalCents() / 100.0);
+        }
+
+        private String operator(String[] parts) {
+            requireArgs(parts, 2);
+            Operator found = operators.get(parts[1]);
+            if (found == null) {
+                return "ERR no such operator " + parts[1];
+            }
+            operator = found;
+            return "OK operator " + found.getName() + " " + found.getAccessLevel();
+        }
+
+        /**
+         * Operators are shared between connections and their stocking history is not thread-safe,
+         * so operator commands run one at a time. They are rare next to purchases.
+         */
+        private String restock(String[] parts) {
+            requireArgs(parts, 3);
+            Product product = operatorProduct(parts[1]);
+            int amount = Integer.parseInt(parts[2]);
+            synchronized (operatorLock) {
+                operator.restockProduct(product, amount, machine);
+            }
+            return "OK " + product.getName() + " " + product.getStock();
+        }
+
+        private String price(String[] parts) {
+            requireArgs(parts, 3);
+            Product product = operatorProduct(parts[1]);
+            double price = Double.parseDouble(parts[2]);
+            synchronized (operatorLock) {
+                operator.updateProductPrice(product, price, machine);
+            }
+            if (product.getPrice() != price) {
+                return "ERR price not changed";
+            }
+            return String.format(Locale.ROOT, "OK %s %.2f", product.getName(), product.getPrice());
+        }
+
+        private Product operatorProduct(String name) {
+            if (operator == null) {
+                throw new IllegalStateException("operator login required");
+            }
+            Product product = machine.findProduct(Sku.find(name));
+            if (product == null) {
+                throw new IllegalArgumentException("no such product " + name);
+            }
+            return product;
+        }
+
+        private void requireArgs(String[] parts, int count) {
+            if (parts.length < count) {
+                throw new IllegalArgumentException("missing arguments");
+            }
+        }
+
+        /**
+         * Gives back any money left in the session when the client disconnects.
+         */
+        void end() {
+            if (session != null) {
+                machine.closeSession(session);
+                session = null;
+            }
+        }
+    }
+
+    public int getPort() {
+        ServerSocket socket = serverSocket;
+        return socket == null ? -1 : socket.getLocalPort();
+    }
+
+    public InetAddress getAddress() {
+        ServerSocket socket = serverSocket;
+        return socket == null ? null : socket.getInetAddress();
+    }
+
+    public int getOpenConnections() {
+        return connections.size();
+    }
+
+    public long getAcceptedConnections() {
+        return accepted.sum();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones.
+     */
+    @Override
+    public synchronized void close() {
+        if (serverSocket == null) {
+            return;
+        }
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // closing anyway
+        }
+        for (Socket socket : connections) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // closing anyway
+            }
+        }
+        try {
+            acceptor.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
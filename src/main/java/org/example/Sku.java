@@ -0,0 +1,89 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class Sku {
+    private static final ConcurrentHashMap<String, Sku> registry = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextId = new AtomicInteger();
+    private static volatile Sku[] byId = new Sku[64];
+
+    private final int id;
+    private final String name;
+
+    private Sku(int id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    /**
+     * Returns the one Sku for a product name, registering it with the next free id the first time it is seen.
+     * Because every name maps to a single instance, Skus compare by reference and hash by id.
+     * @param name the product name
+     * @return the interned Sku for that name
+     */
+    public static Sku of(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Sku name cannot be null");
+        }
+        Sku sku = registry.get(name);
+        if (sku != null) {
+            return sku;
+        }
+        return registry.computeIfAbsent(name, Sku::register);
+    }
+
+    private static synchronized Sku register(String name) {
+        Sku sku = new Sku(nextId.getAndIncrement(), name);
+        Sku[] table = byId;
+        if (sku.id >= table.length) {
+            table = Arrays.copyOf(table, table.length * 2);
+        }
+        table[sku.id] = sku;
+        byId = table;
+        return sku;
+    }
+
+    /**
+     * Returns the Sku registered with an id, so data stored by id can be turned back into names.
+     * @param id the Sku's id
+     * @return the Sku, or null if no Sku has that id
+     */
+    public static Sku byId(int id) {
+        Sku[] table = byId;
+        return id < 0 || id >= table.length ? null : table[id];
+    }
+
+    /**
+     * Looks up the Sku for a product name without registering a new one.
+     * @param name the product name
+     * @return the Sku, or null if no product has used that name
+     */
+    public static Sku find(String name) {
+        return name == null ? null : registry.get(name);
+    }
+
+    @Override
+    public String toString() {
+        return "Sku{" + "id=" + id + ", name='" + name + '\'' + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -1,7 +1,6 @@
 package org.example;
 
 import java.time.LocalDate;
-import java.util.Objects;
 
 public class Snack extends Product {
     public int weightInGrams;
@@ -16,6 +15,11 @@ public class Snack extends Product {
         this.weightInGrams = weightInGrams;
     }
 
+    @Override
+    protected Category defaultCategory() {
+        return Category.SNACK;
+    }
+
     @Override
     public String toString() {
         return "Snack{" +
@@ -23,19 +27,6 @@ public class Snack extends Product {
                 '}' + super.toString();
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
-        Snack snack = (Snack) o;
-        return weightInGrams == snack.weightInGrams;
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(super.hashCode(), weightInGrams);
-    }
-
     public int getWeightInGrams() {
         return weightInGrams;
     }
@@ -0,0 +1,19 @@
+package org.example;
+
+public interface StockListener {
+    /**
+     * Called after the number of units available for sale changed.
+     * @param record the stock record that changed
+     * @param delta the change in available units; negative when units were sold or reserved
+     */
+    void stockChanged(StockRecord record, int delta);
+
+    /**
+     * Called after the value of the available stock, units times price in cents, changed.
+     * Calls for one record are made one at a time, so the deltas a listener gets add up exactly to the value
+     * it started from at addListener and the value it leaves with at removeListener.
+     * @param record the stock record that changed
+     * @param deltaCents the change in value in cents
+     */
+    void valueChanged(StockRecord record, long deltaCents);
+}
@@ -0,0 +1,285 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class StockRecord {
+    private static final StockListener[] NO_LISTENERS = new StockListener[0];
+
+    private final AtomicLong stockState;
+    private volatile int maxCapacity;
+    private volatile double price;
+    private volatile StockListener[] listeners;
+    // The stock value listeners were last told about; guarded by this record's lock.
+    private long valueCents;
+
+    public StockRecord(int stock, int maxCapacity, double price) {
+        this.stockState = new AtomicLong(pack(stock, 0));
+        this.maxCapacity = maxCapacity;
+        this.price = price;
+        this.listeners = NO_LISTENERS;
+    }
+
+    /**
+     * Registers a listener that is told about every change to the available stock and its value.
+     * Listeners are called on the thread that made the change, after it took effect.
+     * @param listener the listener to add
+     * @return the value of the available stock in cents that the listener's value changes start from
+     */
+    public synchronized long addListener(StockListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        StockListener[] current = listeners;
+        StockListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        // Published before the stock is read, so a change either sees the listener or is seen here.
+        listeners = updated;
+        long now = currentValueCents();
+        long delta = now - valueCents;
+        valueCents = now;
+        if (delta != 0) {
+            for (StockListener existing : current) {
+                existing.valueChanged(this, delta);
+            }
+        }
+        return now;
+    }
+
+    /**
+     * Removes a listener.
+     * @param listener the listener to remove
+     * @return the value of the available stock in cents the listener was last told about, 0 if it was not registered
+     */
+    public synchronized long removeListener(StockListener listener) {
+        StockListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                settleValue();
+                StockListener[] updated = new StockListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return valueCents;
+            }
+        }
+        return 0;
+    }
+
+    private void stockChanged(int delta) {
+        if (delta == 0) {
+            return;
+        }
+        StockListener[] current = listeners;
+        if (current.length == 0) {
+            return;
+        }
+        for (StockListener listener : current) {
+            listener.stockChanged(this, delta);
+        }
+        valueChanged();
+    }
+
+    /**
+     * Tells the listeners how far the stock value moved since they were last told. The value is read again under
+     * the lock rather than worked out from the change, so a sale racing a reprice cannot leave the listeners off.
+     */
+    private void valueChanged() {
+        if (listeners.length == 0) {
+            return;
+        }
+        synchronized (this) {
+            settleValue();
+        }
+    }
+
+    private void settleValue() {
+        long now = currentValueCents();
+        long delta = now - valueCents;
+        if (delta == 0) {
+            return;
+        }
+        valueCents = now;
+        for (StockListener listener : listeners) {
+            listener.valueChanged(this, delta);
+        }
+    }
+
+    private long currentValueCents() {
+        return (long) availableOf(stockState.get()) * Money.toCents(price);
+    }
+
+    /**
+     * Increases the stock by the specified quantity.
+     * Throws an exception if the quantity is invalid or exceeds max capacity.
+     * Units reserved by sales in progress still count towards the capacity.
+     * @param quantity the number of units to add to stock
+     * @throws IllegalArgumentException if quantity is non-positive or exceeds max capacity
+     */
+    public void restock(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Restock quantity must be positive.");
+        }
+        while (true) {
+            long current = stockState.get();
+            int available = availableOf(current);
+            int reserved = reservedOf(current);
+            if ((long) available + reserved + quantity > maxCapacity) {
+                throw new IllegalArgumentException("Cannot exceed maximum capacity.");
+            }
+            if (stockState.compareAndSet(current, pack(available + quantity, reserved))) {
+                stockChanged(quantity);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Decreases the stock by the specified quantity.
+     * Throws an exception if the quantity is invalid or exceeds current stock.
+     * @param quantity the number of units to remove from stock
+     * @throws IllegalArgumentException if quantity is non-positive or exceeds available stock
+     */
+    public void reduceStock(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Reduction quantity must be positive.");
+        }
+        while (true) {
+            long current = stockState.get();
+            int available = availableOf(current);
+            if (quantity > available) {
+                throw new IllegalArgumentException("Not enough stock to reduce.");
+            }
+            if (stockState.compareAndSet(current, pack(available - quantity, reservedOf(current)))) {
+                stockChanged(-quantity);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sets units aside for a sale in progress, if enough are in stock.
+     * Reserved units are no longer available to other buyers until they are committed or released.
+     * @param quantity the number of units to reserve
+     * @return true if the units were reserved, false if there was not enough stock
+     * @throws IllegalArgumentException if quantity is non-positive
+     */
+    public boolean tryReserve(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Reservation quantity must be positive.");
+        }
+        while (true) {
+            long current = stockState.get();
+            int available = availableOf(current);
+            if (quantity > available) {
+                return false;
+            }
+            if (stockState.compareAndSet(current, pack(available - quantity, reservedOf(current) + quantity))) {
+                stockChanged(-quantity);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Completes a sale of previously reserved units; they leave the machine for good.
+     * @param quantity the number of reserved units sold
+     * @throws IllegalStateException if fewer units are reserved
+     */
+    public void commit(int quantity) {
+        moveReserved(quantity, false);
+    }
+
+    /**
+     * Puts previously reserved units back into stock when the sale does not go through.
+     * @param quantity the number of reserved units to put back
+     * @throws IllegalStateException if fewer units are reserved
+     */
+    public void release(int quantity) {
+        moveReserved(quantity, true);
+    }
+
+    private void moveReserved(int quantity, boolean backToStock) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive.");
+        }
+        while (true) {
+            long current = stockState.get();
+            int reserved = reservedOf(current);
+            if (quantity > reserved) {
+                throw new IllegalStateException("Only " + reserved + " units are reserved.");
+            }
+            int available = availableOf(current) + (backToStock ? quantity : 0);
+            if (stockState.compareAndSet(current, pack(available, reserved - quantity))) {
+                if (backToStock) {
+                    stockChanged(quantity);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stock and reservations share one long so both change in a single compare-and-set:
+     * available units in the high half, reserved units in the low half.
+     */
+    private static long pack(int available, int reserved) {
+        return ((long) available << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    private static int availableOf(long state) {
+        return (int) (state >> 32);
+    }
+
+    private static int reservedOf(long state) {
+        return (int) state;
+    }
+
+    @Override
+    public String toString() {
+        return "StockRecord{" +
+                "stock=" + getStock() +
+                ", reserved=" + getReserved() +
+                ", maxCapacity=" + maxCapacity +
+                ", price=" + price +
+                '}';
+    }
+
+    public int getStock() {
+        return availableOf(stockState.get());
+    }
+
+    public void setStock(int stock) {
+        while (true) {
+            long current = stockState.get();
+            if (stockState.compareAndSet(current, pack(stock, reservedOf(current)))) {
+                stockChanged(stock - availableOf(current));
+                return;
+            }
+        }
+    }
+
+    public int getReserved() {
+        return reservedOf(stockState.get());
+    }
+
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public void setMaxCapacity(int maxCapacity) {
+        this.maxCapacity = maxCapacity;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        double oldPrice = this.price;
+        this.price = price;
+        if (oldPrice != price) {
+            valueChanged();
+        }
+    }
+}
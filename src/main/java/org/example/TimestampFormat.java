@@ -0,0 +1,77 @@
+package org.example;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+public final class TimestampFormat {
+    public static final String PATTERN = "yyyy-MM-dd HH:mm:ss";
+
+    private static final TimestampFormat SHARED = new TimestampFormat(ZoneId.systemDefault());
+
+    /**
+     * A second and its formatted text, replaced as a whole so readers never see one without the other.
+     */
+    private static final class Second {
+        final long epochSecond;
+        final String text;
+
+        Second(long epochSecond, String text) {
+            this.epochSecond = epochSecond;
+            this.text = text;
+        }
+    }
+
+    private final ZoneId zone;
+    private final DateTimeFormatter formatter;
+    private volatile Second last;
+
+    public TimestampFormat(ZoneId zone) {
+        if (zone == null) {
+            throw new IllegalArgumentException("Zone cannot be null");
+        }
+        this.zone = zone;
+        this.formatter = DateTimeFormatter.ofPattern(PATTERN).withZone(zone);
+    }
+
+    /**
+     * Returns the format used for sales log lines, in the time zone the JVM started with.
+     * @return the shared format
+     */
+    public static TimestampFormat shared() {
+        return SHARED;
+    }
+
+    /**
+     * Formats a time to the second. Sales come in bursts within the same second, so the text
+     * of the last second formatted is kept and handed out again until the second changes.
+     * @param epochMillis the time to format
+     * @return text such as "2025-05-11 22:41:25"
+     */
+    public String format(long epochMillis) {
+        long epochSecond = Math.floorDiv(epochMillis, 1000);
+        Second cached = last;
+        if (cached != null && cached.epochSecond == epochSecond) {
+            return cached.text;
+        }
+        String text = formatter.format(Instant.ofEpochSecond(epochSecond));
+        last = new Second(epochSecond, text);
+        return text;
+    }
+
+    /**
+     * Reads a time written by format.
+     * @param text the formatted time
+     * @return the start of that second, in epoch milliseconds
+     * @throws DateTimeParseException if the text is not a time in this format
+     */
+    public long parse(CharSequence text) {
+        return LocalDateTime.parse(text, formatter).atZone(zone).toInstant().toEpochMilli();
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+}
@@ -0,0 +1,84 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+public class TransactionIntent {
+    private final long id;
+    private final long paidCents;
+    private final SaleRecord sale;
+
+    /**
+     * Creates the intent of a sale that is about to be charged.
+     * @param id the transaction id, matched by its COMMIT or ABORT record
+     * @param paidCents what the buyer had put in when the transaction started, in cents
+     * @param sale the sale the transaction will make if it commits
+     */
+    public TransactionIntent(long id, long paidCents, SaleRecord sale) {
+        if (sale == null) {
+            throw new IllegalArgumentException("Sale cannot be null");
+        }
+        this.id = id;
+        this.paidCents = paidCents;
+        this.sale = sale;
+    }
+
+    /**
+     * Encodes the intent as a journal payload: the id, the money paid, then the sale as SaleRecord encodes it.
+     * @return the encoded bytes
+     */
+    public byte[] encode() {
+        byte[] sale = this.sale.encode();
+        return ByteBuffer.allocate(Long.BYTES * 2 + sale.length)
+                .putLong(id)
+                .putLong(paidCents)
+                .put(sale)
+                .array();
+    }
+
+    /**
+     * Decodes an intent written by encode. The buffer's position is left untouched.
+     * @param payload the journal payload
+     * @return the decoded intent
+     */
+    public static TransactionIntent decode(ByteBuffer payload) {
+        int start = payload.position();
+        long id = payload.getLong(start);
+        long paidCents = payload.getLong(start + Long.BYTES);
+        SaleRecord sale = SaleRecord.decode(payload.slice(start + Long.BYTES * 2, payload.limit() - start - Long.BYTES * 2));
+        return new TransactionIntent(id, paidCents, sale);
+    }
+
+    /**
+     * Encodes the payload of a COMMIT or ABORT record, which is just the transaction id.
+     * @param id the transaction id
+     * @return the encoded bytes
+     */
+    public static byte[] encodeOutcome(long id) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(id).array();
+    }
+
+    public static long decodeOutcome(ByteBuffer payload) {
+        return payload.getLong(payload.position());
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionIntent{" +
+                "id=" + id +
+                ", paidCents=" + paidCents +
+                ", sale=" + sale +
+                '}';
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getPaidCents() {
+        return paidCents;
+    }
+
+    public SaleRecord getSale() {
+        return sale;
+    }
+}
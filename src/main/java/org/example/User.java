@@ -1,23 +1,47 @@
 package org.example;
 
+import java.util.Arrays;
 import java.util.Objects;
 
 public abstract class User implements MessageDisplay {
     private int id;
     private String name;
 
-    private static int nextId = 0;
+    private static final IdAllocator DEFAULT_IDS = new IdAllocator();
+    private static volatile IdAllocator ids = DEFAULT_IDS;
+    private static final UserRegistry[] NO_REGISTRIES = new UserRegistry[0];
+
+    // The registries holding this user, told when the name changes so their name index stays current.
+    private UserRegistry[] registries = NO_REGISTRIES;
 
     public User() {
-        this.id = nextId++;
+        this.id = ids.next();
         this.name = "Unknown User";
     }
 
     public User(String name) {
-        this.id = nextId++;
+        this.id = ids.next();
         this.name = name;
     }
 
+    /**
+     * Sets where new users get their ids from, e.g. an IdAllocator.persistent file shared by a fleet
+     * so ids stay unique across restarts and machines. The new allocator skips past the ids the current one
+     * has already handed out, so users created before the switch keep unique ids.
+     * @param allocator the allocator to use, or null to go back to the in-memory one
+     */
+    public static synchronized void setIdAllocator(IdAllocator allocator) {
+        IdAllocator next = allocator == null ? DEFAULT_IDS : allocator;
+        if (next != ids) {
+            next.skipTo(ids.peek());
+            ids = next;
+        }
+    }
+
+    public static IdAllocator getIdAllocator() {
+        return ids;
+    }
+
     public abstract void displayMessage(String message);
 
     @Override
@@ -48,11 +72,36 @@ public abstract class User implements MessageDisplay {
         return name;
     }
 
-    public void setName(String name) {
+    /**
+     * Renames the user. Every registry holding the user files it under the new name.
+     * @param name the new name
+     */
+    public synchronized void setName(String name) {
+        String oldName = this.name;
         this.name = name;
+        for (UserRegistry registry : registries) {
+            registry.renamed(this, oldName);
+        }
+    }
+
+    synchronized void attach(UserRegistry registry) {
+        registries = Arrays.copyOf(registries, registries.length + 1);
+        registries[registries.length - 1] = registry;
+    }
+
+    synchronized void detach(UserRegistry registry) {
+        for (int i = 0; i < registries.length; i++) {
+            if (registries[i] == registry) {
+                UserRegistry[] remaining = new UserRegistry[registries.length - 1];
+                System.arraycopy(registries, 0, remaining, 0, i);
+                System.arraycopy(registries, i + 1, remaining, i, remaining.length - i);
+                registries = remaining;
+                return;
+            }
+        }
     }
 
     public static int getNextId() {
-        return nextId;
+        return ids.peek();
     }
 }
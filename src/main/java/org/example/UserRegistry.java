@@ -0,0 +1,157 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class UserRegistry {
+    private final ConcurrentHashMap<Integer, User> byId;
+    // Names need not be unique, so each name maps to the users registered under it, oldest first.
+    private final ConcurrentHashMap<String, List<User>> byName;
+
+    public UserRegistry() {
+        this.byId = new ConcurrentHashMap<>();
+        this.byName = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Registers a user under its id and its name. The id must be free; several users may share a name.
+     * Users can register from several threads at once, and a renamed user is filed under its new name.
+     * @param user the user to register
+     * @throws IllegalArgumentException if the user is null or has no name, or its id is already registered
+     */
+    public void register(User user) {
+        if (user == null || user.getName() == null) {
+            throw new IllegalArgumentException("User must have a name");
+        }
+        if (byId.putIfAbsent(user.getId(), user) != null) {
+            throw new IllegalArgumentException("User id " + user.getId() + " is already registered");
+        }
+        synchronized (user) {
+            user.attach(this);
+            index(user.getName(), user);
+        }
+    }
+
+    /**
+     * Removes a user from the registry.
+     * @param user the user to remove
+     * @return true if the user was registered
+     */
+    public boolean unregister(User user) {
+        if (user == null || !byId.remove(user.getId(), user)) {
+            return false;
+        }
+        synchronized (user) {
+            user.detach(this);
+            unindex(user.getName(), user);
+        }
+        return true;
+    }
+
+    /**
+     * Files a registered user under its new name. Called by User.setName while it holds the user's lock.
+     */
+    void renamed(User user, String oldName) {
+        unindex(oldName, user);
+        index(user.getName(), user);
+    }
+
+    private void index(String name, User user) {
+        if (name == null) {
+            return;
+        }
+        byName.compute(name, (key, users) -> {
+            if (users == null) {
+                return List.of(user);
+            }
+            if (users.contains(user)) {
+                return users;
+            }
+            List<User> more = new ArrayList<>(users);
+            more.add(user);
+            return List.copyOf(more);
+        });
+    }
+
+    private void unindex(String name, User user) {
+        if (name == null) {
+            return;
+        }
+        byName.computeIfPresent(name, (key, users) -> {
+            List<User> rest = new ArrayList<>(users);
+            rest.removeIf(u -> u == user);
+            return rest.isEmpty() ? null : List.copyOf(rest);
+        });
+    }
+
+    /**
+     * Looks up a user by id.
+     * @param id the user's id
+     * @return the user, or null if none is registered with that id
+     */
+    public User find(int id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Looks up a user by name. If several users share the name, the one registered first is returned.
+     * @param name the user's name
+     * @return the user, or null if none is registered with that name
+     */
+    public User find(String name) {
+        List<User> users = name == null ? null : byName.get(name);
+        return users == null ? null : users.getFirst();
+    }
+
+    /**
+     * Looks up every user registered under a name.
+     * @param name the name to look for
+     * @return the users with that name, oldest registration first; empty if there are none
+     */
+    public List<User> findAll(String name) {
+        List<User> users = name == null ? null : byName.get(name);
+        return users == null ? List.of() : users;
+    }
+
+    public boolean contains(User user) {
+        return user != null && byId.get(user.getId()) == user;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public void clear() {
+        for (User user : byId.values()) {
+            unregister(user);
+        }
+    }
+
+    /**
+     * Returns the registered users in id order.
+     * @return a copy of the registered users
+     */
+    public List<User> getUsers() {
+        List<User> users = new ArrayList<>(byId.values());
+        users.sort(Comparator.comparingInt(User::getId));
+        return users;
+    }
+
+    @Override
+    public String toString() {
+        return getUsers().toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        return byId.equals(((UserRegistry) o).byId);
+    }
+
+    @Override
+    public int hashCode() {
+        return byId.hashCode();
+    }
+}
@@ -2,60 +2,255 @@ package org.example;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.example.MessageDisplay.Level;
 
 public class VendingMachine implements TransactionHandler{
-    private List<User> users;
-    private List<Product> inventory;
+    public static final int MAX_SALES_LOG = 1000;
+    public static final long NO_TRANSACTION = -1;
+    /**
+     * Where a machine keeps the files it generates unless told otherwise: the directory named by the
+     * vendingmachine.dataDir system property, or ./data.
+     */
+    public static final Path DEFAULT_DATA_DIRECTORY = Path.of(System.getProperty("vendingmachine.dataDir", "data"));
+    public static final String PROFIT_SHEET_FILE = "ProfitSheet.txt";
+    /** What sellItem returns when nothing was sold. */
+    public static final long NOT_SOLD = -1;
+
+    private static final ScheduledExecutorService PRICE_BOOK_TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "price-book-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final UserRegistry users;
+    private volatile InventoryIndex inventory;
     private Money currentSessionMoney;
-    private List<String> salesLog;
+    private final Money machineFloat;
+    private final Map<Long, Session> sessions;
+    private final SalesStore salesStore;
+    private final List<String> salesLog;
+    private Journal journal;
+    private MessageDisplay display;
+    private final ProfitLedger profitLedger;
+    private volatile boolean writeAheadLogging;
+    private volatile Path dataDirectory = DEFAULT_DATA_DIRECTORY;
+    private final AtomicLong nextTransactionId = new AtomicLong(System.currentTimeMillis() << 16);
+    private final List<TransactionIntent> rolledBack = new ArrayList<>();
+    private final Object restockLock = new Object();
+    private final AtomicReference<PriceBook> priceBook = new AtomicReference<>(PriceBook.EMPTY);
+    private final ConcurrentSkipListMap<Long, PriceBook> scheduledPriceBooks = new ConcurrentSkipListMap<>();
 
     public VendingMachine() {
-        this.users = new ArrayList<>();
-        this.inventory = new LinkedList<>();
+        this.users = new UserRegistry();
+        this.inventory = new InventoryIndex();
         this.currentSessionMoney = new Money();
-        this.salesLog = new ArrayList<>();
+        this.machineFloat = new Money();
+        this.sessions = new ConcurrentHashMap<>();
+        this.salesStore = new SalesStore();
+        this.salesLog = new SalesLogView();
+        this.profitLedger = new ProfitLedger();
     }
 
     public VendingMachine(List<User> users, List<Product> inventory, Money currentSessionMoney) {
-        this.users = users;
-        this.inventory = inventory;
+        this.users = new UserRegistry();
+        setUsers(users);
+        this.inventory = new InventoryIndex(inventory);
         this.currentSessionMoney = currentSessionMoney;
-        this.salesLog = new ArrayList<>();
+        this.machineFloat = new Money();
+        this.sessions = new ConcurrentHashMap<>();
+        this.salesStore = new SalesStore();
+        this.salesLog = new SalesLogView();
+        this.profitLedger = new ProfitLedger();
+    }
+
+    /**
+     * Opens a new session for a buyer. Each session holds its own money,
+     * so several buyers can use the machine at the same time.
+     * @param buyer The buyer starting the session
+     * @return the new session
+     */
+    public Session openSession(Buyer buyer) {
+        Session session = new Session(buyer);
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+     * Closes a session and hands back any money the buyer inserted but did not spend.
+     * @param session The session to close
+     * @return the unspent money, empty if everything was spent
+     */
+    public Money closeSession(Session session) {
+        Money refund = new Money();
+        if (session == null) {
+            return refund;
+        }
+        sessions.remove(session.getId());
+        refund.addAll(session.getMoney());
+        session.getMoney().clear();
+        return refund;
     }
 
     /**
      * Dispenses the selected item once the transaction is successful.
+     * Uses the machine's shared session money; concurrent buyers should use sessions instead.
      * @param buyer The given buyer performing the action
      * @param item The given item to dispense
      * @return a boolean value showing if the action was successful or not
      */
     public boolean dispenseItem(Buyer buyer, Product item) {
+        return dispenseItem(new Session(buyer, currentSessionMoney), item);
+    }
+
+    /**
+     * Dispenses the selected item to the buyer of a session once the transaction is successful.
+     * The unit is reserved before the buyer is charged, so two sessions can never be sold the last one,
+     * and is committed or released depending on the payment. A copy of a stocked product stands for it:
+     * the stocked product is the one reserved and sold.
+     * @param session The session of the buyer performing the action
+     * @param item The given item to dispense
+     * @return a boolean value showing if the action was successful or not
+     */
+    public boolean dispenseItem(Session session, Product item) {
+        return sellItem(session, item) != NOT_SOLD;
+    }
+
+    /**
+     * Dispenses the selected item like dispenseItem, and returns what the buyer was charged for it.
+     * The price is read once, when the sale is charged, so callers that total revenue should use this figure
+     * rather than a price read before or after the sale.
+     * @param session The session of the buyer performing the action
+     * @param item The given item to dispense
+     * @return the price charged in cents, or NOT_SOLD if the item was not dispensed
+     */
+    public long sellItem(Session session, Product item) {
         if (item == null) {
-            System.out.println("No item selected to dispense.");
-            return false;
+            getDisplay().displayMessage(Level.WARN, "No item selected to dispense.");
+            return NOT_SOLD;
         }
-        if (!inventory.contains(item) || item.getStock() <= 0) {
-            System.out.println(item.getName() + " is not available.");
-            return false;
+        Product stocked = inventory.snapshot().resolve(item);
+        if (stocked == null || stocked.getStock() <= 0) {
+            getDisplay().displayMessage(Level.WARN, "%s is not available.", item.getName());
+            return NOT_SOLD;
         }
-        if (item.isExpired()) {
-            System.out.println("Cannot dispense " + item.getName() + " because it is expired (expired on " + item.getExpiryDate() + ").");
-            return false;
+        if (stocked.isExpired()) {
+            getDisplay().displayMessage(Level.WARN, "Cannot dispense %s because it is expired (expired on %s).", stocked.getName(), stocked.getExpiryDate());
+            return NOT_SOLD;
         }
-        if (!processTransaction(buyer, item)) {
-            System.out.println("Selected item has not been dispensed due to transaction failure.");
-            return false;
+        if (!stocked.tryReserve(1)) {
+            getDisplay().displayMessage(Level.WARN, "%s is not available.", stocked.getName());
+            return NOT_SOLD;
+        }
+        long now = CachedClock.shared().millis();
+        long priceCents = priceCentsOf(stocked);
+        long transactionId;
+        try {
+            transactionId = beginTransaction(session, stocked, priceCents, now);
+        } catch (UncheckedIOException e) {
+            stocked.release(1);
+            getDisplay().displayMessage(Level.ERROR, "Could not record transaction in the journal: %s", e.getMessage());
+            return NOT_SOLD;
         }
+        if (!charge(session, priceCents)) {
+            stocked.release(1);
+            endTransaction(transactionId, Journal.ABORT);
+            getDisplay().displayMessage(Level.WARN, "Selected item has not been dispensed due to transaction failure.");
+            return NOT_SOLD;
+        }
+        stocked.commit(1);
 
-        item.reduceStock(1);
-        System.out.println(item.getName() + " has been dispensed");
-        String time = new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
-        String log = String.format("%s - %s sold for $%.2f", time, item.getName(), item.getPrice());
-        salesLog.add(log);
-        return true;
+        getDisplay().displayMessage(Level.INFO, "%s has been dispensed", stocked.getName());
+        profitLedger.record(stocked, priceCents, now);
+        session.getBuyer().getPurchases().add(stocked, priceCents, now);
+        recordSale(now, stocked.getSku(), priceCents, session.getBuyer().getId(), transactionId);
+        return priceCents;
+    }
+
+    /**
+     * Writes the intent of a sale ahead of charging for it, if write-ahead logging is on.
+     * The intent is on disk before this returns; sales made at the same time share one fsync.
+     * @return the transaction id, or NO_TRANSACTION if nothing was written
+     */
+    private long beginTransaction(Session session, Product item, long priceCents, long epochMillis) {
+        Journal journal = this.journal;
+        if (!writeAheadLogging || journal == null) {
+            return NO_TRANSACTION;
+        }
+        long id = nextTransactionId.getAndIncrement();
+        SaleRecord sale = new SaleRecord(epochMillis, priceCents, session.getBuyer().getId(), item.getName());
+        journal.appendDurable(Journal.INTENT, new TransactionIntent(id, session.getMoney().totalCents(), sale).encode());
+        return id;
+    }
+
+    private void endTransaction(long transactionId, byte outcome) {
+        if (transactionId == NO_TRANSACTION || journal == null) {
+            return;
+        }
+        try {
+            journal.append(outcome, TransactionIntent.encodeOutcome(transactionId));
+        } catch (UncheckedIOException e) {
+            getDisplay().displayMessage(Level.ERROR, "Could not record transaction outcome in the journal: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Records a sale in the sales store, which keeps recent sales as fields rather than text,
+     * and appends it to the journal if one is set. The journal is what keeps the full history.
+     * No SaleRecord is built unless the sale is journaled, and no text at all: log lines are formatted when read.
+     * A sale whose intent was written ahead is journaled as the COMMIT of that intent instead of a SALE record.
+     * @param epochMillis when the sale happened
+     * @param sku the product sold
+     * @param priceCents what the buyer paid, in cents
+     * @param buyerId the buyer's id
+     * @param transactionId the id of the sale's intent, or NO_TRANSACTION
+     */
+    private void recordSale(long epochMillis, Sku sku, long priceCents, int buyerId, long transactionId) {
+        salesStore.add(epochMillis, sku, priceCents, buyerId);
+        if (transactionId != NO_TRANSACTION) {
+            endTransaction(transactionId, Journal.COMMIT);
+        } else if (journal != null) {
+            try {
+                journal.append(Journal.SALE, new SaleRecord(epochMillis, priceCents, buyerId, sku.getName()).encode());
+            } catch (UncheckedIOException e) {
+                getDisplay().displayMessage(Level.ERROR, "Could not record sale in the journal: %s", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The sales log as text: the newest MAX_SALES_LOG sales in the store, each formatted only when it is read.
+     */
+    private class SalesLogView extends AbstractList<String> {
+        @Override
+        public String get(int index) {
+            int size = size();
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+            }
+            return salesStore.fromNewest(size - 1 - index).toLogLine();
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(salesStore.size(), MAX_SALES_LOG);
+        }
     }
 
     /**
@@ -65,168 +260,655 @@ public class VendingMachine implements TransactionHandler{
      */
     public Product selectItem(Product product) {
         if (product == null) return null;
-        for (Product p : inventory) {
-            if (p.getName().equals(product.getName()) && p.getStock() > 0) {
-                if (p.isExpired()) {
-                    System.out.println("Cannot select " + p.getName() + " because it is expired.");
-                    return null;
-                }
-                return p;
+        Product p = inventory.snapshot().find(product.getSku());
+        if (p != null && p.getStock() > 0) {
+            if (p.isExpired()) {
+                getDisplay().displayMessage(Level.WARN, "Cannot select %s because it is expired.", p.getName());
+                return null;
             }
+            return p;
         }
-        System.out.println("Product " + product.getName() + " is out of stock or not found");
+        getDisplay().displayMessage(Level.WARN, "Product %s is out of stock or not found", product.getName());
         return null;
     }
 
+    /**
+     * Looks up a stocked product by its Sku, whether or not it is in stock.
+     * @param sku the Sku of the product
+     * @return the product, or null if the machine does not carry it
+     */
+    public Product findProduct(Sku sku) {
+        return sku == null ? null : inventory.snapshot().find(sku);
+    }
+
     /**
      * Adds money to the current session.
      * @param money The given money to add to the session
      */
     public void addMoney(Money money) {
-        if (money != null && money.calculateTotal() > 0) {
-            currentSessionMoney.add(money.getCashMap());
+        if (money != null && money.totalCents() > 0) {
+            currentSessionMoney.addAll(money);
         }
     }
 
     /**
-     * Displays all products in stock.
+     * Displays all products in stock, as of the latest inventory snapshot.
      */
     public void showInventory() {
-        inventory.forEach(Product::displayLabel);
+        inventory.snapshot().getProducts().forEach(Product::displayLabel);
     }
 
     /**
      * Reloads stock for a product, respecting max capacity.
+     * If a product with the item's Sku is already stocked, that product is restocked, not the given item;
+     * otherwise the item is restocked and added. The reload is journaled as a RESTOCK record of one product,
+     * so restore replays it like a batch.
      * @param item the given item to reload
      * @param amount the given amount to reload by
      * @param operator the given operator performing the action
      */
     public void reloadProduct(Product item, int amount, Operator operator) {
         if (amount <= 0) {
-            System.out.println("Invalid amount to reload. Must be positive.");
+            getDisplay().displayMessage(Level.WARN, "Invalid amount to reload. Must be positive.");
             return;
         }
-        if (item.isExpired()) {
-            System.out.println("Cannot reload " + item.getName() + " because it is expired.");
-            return;
+        Product stocked;
+        boolean added = false;
+        synchronized (restockLock) {
+            stocked = inventory.snapshot().resolve(item);
+            Product target = stocked == null ? item : stocked;
+            if (target.isExpired()) {
+                getDisplay().displayMessage(Level.WARN, "Cannot reload %s because it is expired.", target.getName());
+                return;
+            }
+            if (stocked == null) {
+                // Added before it is restocked, so a journaled ADD holds the stock without this reload's units.
+                if ((long) item.getStock() + item.getReservedStock() + amount > item.getMaxCapacity()) {
+                    throw new IllegalArgumentException("Cannot exceed maximum capacity.");
+                }
+                added = inventory.addIfAbsent(item);
+                stocked = item;
+            }
+            stocked.restock(amount);
+        }
+        if (added) {
+            long bookCents = priceBook.get().priceCents(stocked.getSku());
+            if (bookCents != PriceBook.NO_PRICE && bookCents != Money.toCents(stocked.getPrice())) {
+                inventory.reprice(stocked, bookCents / 100.0);
+            }
+        }
+        journalRestock(new RestockRecord(CachedClock.shared().millis(), operator.getId(), Map.of(stocked.getSku(), amount)));
+        operator.recordRestock(stocked, amount);
+        getDisplay().displayMessage(Level.INFO, "Product reloaded: %s by %d units.", stocked.getName(), amount);
+    }
+
+    /**
+     * Restocks several stocked products in one go. The whole batch is checked first, and every problem is reported
+     * together: a product that is not stocked here, an amount that is not positive, an expired product,
+     * or more units than fit. Nothing is restocked unless the whole batch fits. The batch is journaled
+     * as one RESTOCK record and announced with one message.
+     * @param amounts how many units to add per product
+     * @param operator the operator doing the restock
+     * @return the record of the batch
+     * @throws IllegalArgumentException if the batch is empty or any product in it cannot be restocked
+     */
+    public RestockRecord restockBatch(Map<Sku, Integer> amounts, Operator operator) {
+        if (amounts == null || amounts.isEmpty()) {
+            throw new IllegalArgumentException("Restock batch cannot be empty");
+        }
+        if (operator == null) {
+            throw new IllegalArgumentException("Operator cannot be null");
+        }
+        long today = CachedClock.shared().today();
+        Product[] products = new Product[amounts.size()];
+        int[] units = new int[amounts.size()];
+        StringBuilder problems = new StringBuilder();
+        synchronized (restockLock) {
+            int i = 0;
+            for (Map.Entry<Sku, Integer> entry : amounts.entrySet()) {
+                Sku sku = entry.getKey();
+                Product product = sku == null ? null : inventory.find(sku);
+                int amount = entry.getValue() == null ? 0 : entry.getValue();
+                String problem = null;
+                if (product == null) {
+                    problem = (sku == null ? "null" : sku.getName()) + " is not stocked";
+                } else if (amount <= 0) {
+                    problem = sku.getName() + " amount must be positive";
+                } else if (product.isExpiredOn(today)) {
+                    problem = sku.getName() + " is expired";
+                } else if ((long) product.getStock() + product.getReservedStock() + amount > product.getMaxCapacity()) {
+                    problem = sku.getName() + " has room for "
+                            + (product.getMaxCapacity() - product.getStock() - product.getReservedStock()) + " units";
+                }
+                if (problem != null) {
+                    problems.append(problems.length() == 0 ? "" : "; ").append(problem);
+                }
+                products[i] = product;
+                units[i++] = amount;
+            }
+            if (problems.length() > 0) {
+                throw new IllegalArgumentException("Cannot restock batch: " + problems);
+            }
+            // Sales only take stock away, so a batch that fit when checked still fits, as long as restocks are serialized.
+            for (i = 0; i < products.length; i++) {
+                products[i].restock(units[i]);
+                operator.recordRestock(products[i], units[i]);
+            }
+        }
+        RestockRecord record = new RestockRecord(CachedClock.shared().millis(), operator.getId(), amounts);
+        journalRestock(record);
+        getDisplay().displayMessage(Level.INFO, "Batch reloaded: %d products by %d units.", amounts.size(), record.getTotalUnits());
+        return record;
+    }
+
+    private void journalAdd(Product product) {
+        Journal journal = this.journal;
+        if (journal != null) {
+            try {
+                journal.append(Journal.ADD, MachineSnapshot.encodeProduct(product));
+            } catch (UncheckedIOException e) {
+                getDisplay().displayMessage(Level.ERROR, "Could not record new product in the journal: %s", e.getMessage());
+            }
         }
-        item.restock(amount);
-        if (!inventory.contains(item)) {
-            inventory.add(item);
+    }
+
+    private void journalRestock(RestockRecord record) {
+        Journal journal = this.journal;
+        if (journal != null) {
+            try {
+                journal.append(Journal.RESTOCK, record.encode());
+            } catch (UncheckedIOException e) {
+                getDisplay().displayMessage(Level.ERROR, "Could not record restock in the journal: %s", e.getMessage());
+            }
         }
-        operator.getStockingHistory().put(item, amount);
-        System.out.println("Product reloaded: " + item.getName() + " by " + amount + " units.");
     }
 
     /**
      * Changes product price if operator has ADMIN access.
+     * The product stops following the price book in effect until the next book is applied.
      * @param item the item whose price needs to be changed
      * @param price the given price to set
      * @param operator the given operator performing the action
      */
     public void changePrice(Product item, double price, Operator operator) {
         if (price < 0) {
-            System.out.println("Invalid price. Price cannot be negative.");
+            getDisplay().displayMessage(Level.WARN, "Invalid price. Price cannot be negative.");
             return;
         }
         if (operator.getAccessLevel() == AccessLevel.ADMIN) {
-            item.setPrice(price);
-            System.out.println("Successfully changed price of " + item.getName() + ". New price: " + price);
+            inventory.reprice(item, price);
+            priceBook.updateAndGet(book -> book.without(item.getSku()));
+            getDisplay().displayMessage(Level.INFO, "Successfully changed price of %s. New price: %s", item.getName(), price);
         } else {
-            System.out.println("You don't have access to perform this operation.");
+            getDisplay().displayMessage(Level.WARN, "You don't have access to perform this operation.");
+        }
+    }
+
+    /**
+     * Returns what a product sells for right now: its price in the price book in effect, or its own price
+     * if the book does not list it.
+     * @param item the product
+     * @return the price in cents
+     */
+    public long getPriceCents(Product item) {
+        return priceCentsOf(item);
+    }
+
+    /**
+     * Reads the price book once, so a sale is priced entirely by the old book or entirely by the new one.
+     * This is a single volatile read: scheduled books are put into effect by the price book timer, not here.
+     */
+    private long priceCentsOf(Product item) {
+        long cents = priceBook.get().priceCents(item.getSku());
+        return cents == PriceBook.NO_PRICE ? Money.toCents(item.getPrice()) : cents;
+    }
+
+    /**
+     * Puts every scheduled book whose time has come into effect, then reprices the stocked products to the book
+     * in effect. Called by the price book timer and when a book is scheduled for a time already past,
+     * so the repricing, which takes the inventory's writer lock, never runs on the dispense path.
+     * @return the number of books put into effect; books older than the one in effect are dropped and not counted
+     */
+    public int activateDuePriceBooks() {
+        long now = CachedClock.shared().millis();
+        int activated = 0;
+        Map.Entry<Long, PriceBook> due;
+        while ((due = scheduledPriceBooks.firstEntry()) != null && due.getKey() <= now) {
+            if (scheduledPriceBooks.remove(due.getKey(), due.getValue()) && install(due.getValue())) {
+                activated++;
+            }
+        }
+        if (activated > 0) {
+            repriceFromBook();
+            getDisplay().displayMessage(Level.INFO, "Price book version %d is now in effect.", priceBook.get().getVersion());
+        }
+        return activated;
+    }
+
+    private void armPriceBookTimer(long effectiveMillis) {
+        long delay = Math.max(0, effectiveMillis - CachedClock.shared().millis());
+        PRICE_BOOK_TIMER.schedule(() -> onPriceBookTimer(effectiveMillis), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs on the price book timer. The timer may fire a little before the wall clock reaches the effective time,
+     * in which case the book is still waiting and the timer is armed again.
+     */
+    private void onPriceBookTimer(long effectiveMillis) {
+        try {
+            activateDuePriceBooks();
+        } catch (RuntimeException e) {
+            getDisplay().displayMessage(Level.ERROR, "Price book activation failed: %s", e);
+        }
+        Map.Entry<Long, PriceBook> next = scheduledPriceBooks.firstEntry();
+        if (next != null && next.getKey() <= effectiveMillis) {
+            armPriceBookTimer(next.getKey());
+        }
+    }
+
+    /**
+     * Swaps in a price book if it is newer than the one in effect.
+     * @return true if the book was swapped in
+     */
+    private boolean install(PriceBook book) {
+        while (true) {
+            PriceBook current = priceBook.get();
+            if (book.getVersion() <= current.getVersion()) {
+                return false;
+            }
+            if (priceBook.compareAndSet(current, book)) {
+                return true;
+            }
         }
     }
 
+    /**
+     * Moves the stocked products to the prices of the book in effect, so displays, the sorted views,
+     * category values and purchase histories show what a sale charges. Products the book does not list keep their price.
+     */
+    private void repriceFromBook() {
+        inventory.repriceAll(product -> {
+            long cents = priceBook.get().priceCents(product.getSku());
+            return cents == PriceBook.NO_PRICE ? product.getPrice() : cents / 100.0;
+        });
+    }
+
+    /**
+     * Puts a price book into effect with a single swap if operator has ADMIN access. Sales in progress
+     * are priced by the old book or the new one, never a mix. The stocked products are then repriced to the book,
+     * and products the book does not list keep their own price.
+     * @param book the price book to apply
+     * @param operator the given operator performing the action
+     * @return true if the book is now in effect, false if access was denied or a book of the same or a higher version already is
+     */
+    public boolean applyPriceBook(PriceBook book, Operator operator) {
+        if (book == null) {
+            throw new IllegalArgumentException("Price book cannot be null");
+        }
+        if (operator.getAccessLevel() != AccessLevel.ADMIN) {
+            getDisplay().displayMessage(Level.WARN, "You don't have access to perform this operation.");
+            return false;
+        }
+        if (!install(book)) {
+            getDisplay().displayMessage(Level.WARN, "Price book version %d is not newer than version %d in effect.",
+                    book.getVersion(), priceBook.get().getVersion());
+            return false;
+        }
+        repriceFromBook();
+        getDisplay().displayMessage(Level.INFO, "Price book version %d applied: %d prices.", book.getVersion(), book.size());
+        return true;
+    }
+
+    /**
+     * Schedules a price book to come into effect at a time if operator has ADMIN access.
+     * A shared timer thread swaps the book in at that time and reprices the stocked products to it; a book scheduled
+     * for a time already past is swapped in right away on the caller's thread. Sales only ever read the book in effect.
+     * When it comes due, a book is dropped if one of the same or a higher version is already in effect,
+     * so versions should rise with effective times.
+     * @param book the price book to apply
+     * @param effectiveMillis when the book comes into effect
+     * @param operator the given operator performing the action
+     * @return true if the book was scheduled
+     * @throws IllegalArgumentException if another book is already scheduled for the same time
+     */
+    public boolean schedulePriceBook(PriceBook book, long effectiveMillis, Operator operator) {
+        if (book == null) {
+            throw new IllegalArgumentException("Price book cannot be null");
+        }
+        if (operator.getAccessLevel() != AccessLevel.ADMIN) {
+            getDisplay().displayMessage(Level.WARN, "You don't have access to perform this operation.");
+            return false;
+        }
+        if (scheduledPriceBooks.putIfAbsent(effectiveMillis, book) != null) {
+            throw new IllegalArgumentException("A price book is already scheduled for " + TimestampFormat.shared().format(effectiveMillis));
+        }
+        getDisplay().displayMessage(Level.INFO, "Price book version %d scheduled for %s.",
+                book.getVersion(), TimestampFormat.shared().format(effectiveMillis));
+        if (effectiveMillis <= CachedClock.shared().millis()) {
+            activateDuePriceBooks();
+        } else {
+            armPriceBookTimer(effectiveMillis);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the price book in effect now.
+     * @return the price book, PriceBook.EMPTY if none was applied
+     */
+    public PriceBook getPriceBook() {
+        return priceBook.get();
+    }
+
+    /**
+     * Returns the price books still waiting for their time.
+     * @return a read-only map from effective time to book, earliest first
+     */
+    public NavigableMap<Long, PriceBook> getScheduledPriceBooks() {
+        return Collections.unmodifiableNavigableMap(scheduledPriceBooks);
+    }
+
     /**
      * Processes the payment and dispenses change if possible.
+     * Uses the machine's shared session money; concurrent buyers should use sessions instead.
      * @param buyer the buyer doing the transaction
      * @param item the item involved transaction
      * @return a boolean value to show if it's process was successful or not
      */
     public boolean processTransaction(Buyer buyer, Product item) {
+        return processTransaction(new Session(buyer, currentSessionMoney), item);
+    }
+
+    /**
+     * Processes the payment of a session and dispenses change if possible.
+     * @param session the session of the buyer doing the transaction
+     * @param item the item involved transaction
+     * @return a boolean value to show if it's process was successful or not
+     */
+    public boolean processTransaction(Session session, Product item) {
         Product available = selectItem(item);
         if (available == null) {
-            System.out.println("Selected item not available.");
-            return false;
-        }
-        double total = currentSessionMoney.calculateTotal();
-        if (total < available.getPrice()) {
-            System.out.println("Insufficient funds");
+            getDisplay().displayMessage(Level.WARN, "Selected item not available.");
             return false;
         }
-        double change = total - available.getPrice();
-        Map<Double, Integer> changeMap = change > 0
-                ? currentSessionMoney.getChange(change)
-                : Collections.emptyMap();
-        if (change < 0 && changeMap.isEmpty()) {
-            System.out.printf("Unable to provide exact change ($%.2f). Transaction cancelled.%n", change);
+        return charge(session, priceCentsOf(available));
+    }
+
+    /**
+     * Moves the session's money into the machine float and pays change back out of it.
+     * The float is shared by all sessions, so the whole exchange happens under its lock.
+     * @param session the session paying
+     * @param price the price of the item being paid for, in cents
+     * @return true if the payment went through, false otherwise
+     */
+    private boolean charge(Session session, long price) {
+        Money paid = session.getMoney();
+        long total = paid.totalCents();
+        if (total < price) {
+            getDisplay().displayMessage(Level.WARN, "Insufficient funds");
             return false;
         }
-        if (!changeMap.isEmpty()) {
-            currentSessionMoney.subtract(changeMap);
-            System.out.println("Change dispensed: " + changeMap);
+        long change = total - price;
+        synchronized (machineFloat) {
+            machineFloat.addAll(paid);
+            if (change > 0 && !machineFloat.dispenseChange(change)) {
+                machineFloat.subtractAll(paid);
+                getDisplay().displayMessage(Level.WARN, "Unable to provide exact change ($%.2f). Transaction cancelled.", change / 100.0);
+                return false;
+            }
         }
-        buyer.addPurchaseHistory(item);
-        currentSessionMoney.clear();
-        System.out.printf("Transaction successful. Change returned: $%.2f%n", change);
+        paid.clear();
+        getDisplay().displayMessage(Level.INFO, "Transaction successful. Change returned: $%.2f", change / 100.0);
         return true;
     }
 
     /**
-     * Removes expired products
+     * Loads coins and bills into the machine float so it can give change.
+     * @param money The money to load
+     */
+    public void loadFloat(Money money) {
+        if (money == null) {
+            return;
+        }
+        synchronized (machineFloat) {
+            machineFloat.addAll(money);
+        }
+    }
+
+    /**
+     * Removes expired products. Only products the expiry index has seen cross their expiry date are touched,
+     * so the cost depends on how many products expired rather than on the size of the inventory.
      */
     public void removeExpiredProducts() {
-        Iterator<Product> iterator = inventory.iterator();
-        while (iterator.hasNext()) {
-            Product product = iterator.next();
-            if (product.isExpired()) {
-                iterator.remove();
-                System.out.println("Removed expired product: " + product.getName());
-            }
+        for (Product product : inventory.removeExpired(CachedClock.shared().today())) {
+            getDisplay().displayMessage(Level.INFO, "Removed expired product: %s", product.getName());
         }
     }
 
     /**
-     * Reads a profit sheet from a file path.
+     * Runs removeExpiredProducts on a schedule, e.g. once a minute to match the cached clock.
+     * The sweep runs on the scheduler's thread and removes products under the inventory's writer lock,
+     * so it is serialized with every other change to the inventory. A sweep that fails is reported
+     * and the next one still runs.
+     * @param scheduler the scheduler to run the sweep on
+     * @param period the time between sweeps
+     * @param unit the unit of the period
+     * @return the scheduled sweep, which can be cancelled
+     */
+    public ScheduledFuture<?> scheduleExpirySweep(ScheduledExecutorService scheduler, long period, TimeUnit unit) {
+        return scheduler.scheduleAtFixedRate(() -> {
+            try {
+                removeExpiredProducts();
+            } catch (RuntimeException e) {
+                getDisplay().displayMessage(Level.ERROR, "Expiry sweep failed: %s", e);
+            }
+        }, 0, period, unit);
+    }
+
+    /**
+     * Reads a profit sheet from a file path and prints it line by line.
+     * The file is memory-mapped rather than scanned; use ProfitSheetReader directly for parsed rows.
      * @param fileName The given file from which to read the profit from
      */
     public static void readProfitSheet(Path fileName) {
         File file = fileName.toFile();
         if (!file.exists()) {
-            System.out.println("Profit sheet file not found: " + fileName);
+            Displays.get().displayMessage(Level.WARN, "Profit sheet file not found: %s", fileName);
             return;
         }
-        System.out.println("=== PROFIT SHEET: " + fileName + " ===");
-        try (Scanner scanner = new Scanner(file)) {
-            while (scanner.hasNextLine()) {
-                System.out.println(scanner.nextLine());
+        Displays.get().displayMessage(Level.INFO, "=== PROFIT SHEET: %s ===", fileName);
+        try {
+            MessageDisplay display = Displays.get();
+            new ProfitSheetReader(fileName).forEachLine(line -> display.displayMessage(Level.INFO, line));
+        } catch (UncheckedIOException e) {
+            Displays.get().displayMessage(Level.ERROR, "Error reading profit sheet: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the profit sheet for the sales made on this machine, built from the running totals
+     * of its profit ledger rather than from the sales history. Missing parent directories are created.
+     * @param file the sheet file to write
+     * @return true if the sheet was written, false otherwise
+     */
+    public boolean writeProfitSheet(Path file) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
             }
-        } catch (FileNotFoundException e) {
-            System.out.println("Error reading profit sheet: " + e.getMessage());
+            profitLedger.writeSheet(file);
+            getDisplay().displayMessage(Level.INFO, "Profit sheet written to %s", file);
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            getDisplay().displayMessage(Level.ERROR, "Could not write profit sheet: %s", e.getMessage());
+            return false;
         }
     }
 
     /**
      * Writes inventory and sales data to a history file.
+     * If a journal is set, sales are already on disk in the journal, so it is only flushed
+     * and the history file points to it instead of copying every sale again.
      */
     public void writeToFile() {
-        try (PrintWriter writer = new PrintWriter("src/main/resources/VendingMachine_History.txt")) {
+        writeToFile(Path.of("src/main/resources/VendingMachine_History.txt"));
+    }
+
+    /**
+     * Writes inventory and sales data to the given history file.
+     * @param file the history file to write
+     */
+    public void writeToFile(Path file) {
+        if (journal != null) {
+            try {
+                journal.flush();
+            } catch (UncheckedIOException e) {
+                getDisplay().displayMessage(Level.ERROR, "Could not flush the journal: %s", e.getMessage());
+            }
+        }
+        try (PrintWriter writer = new PrintWriter(file.toFile())) {
             writer.println("=== INVENTORY ===");
             for (Product item : inventory) {
                 writer.printf("%s,%.2f,%d%n", item.getName(), item.getPrice(), item.getStock());
             }
             writer.println("\n=== TRANSACTIONS ===");
-            if (!salesLog.isEmpty()) {
-                salesLog.forEach(writer::println);
+            if (journal != null) {
+                writer.println("Recorded in journal: " + journal.getDirectory());
+            } else if (salesStore.size() > 0) {
+                for (SaleRecord sale : salesStore.between(Long.MIN_VALUE, Long.MAX_VALUE)) {
+                    writer.println(sale.toLogLine());
+                }
             } else {
                 writer.println("No transactions recorded.");
             }
-            System.out.println("Vending machine data written to file.");
+            getDisplay().displayMessage(Level.INFO, "Vending machine data written to file.");
         } catch (FileNotFoundException e) {
-            System.out.println("Could not write to file. Please check the file path.");
+            getDisplay().displayMessage(Level.ERROR, "Could not write to file. Please check the file path.");
         }
     }
 
+    /**
+     * Saves the inventory, float and recent sales as a binary snapshot, flushing the journal first
+     * so the snapshot and the journal agree on where it ends.
+     * @param file where to write the snapshot
+     */
+    public void saveSnapshot(Path file) {
+        if (journal != null) {
+            journal.flush();
+        }
+        MachineSnapshot.capture(this).writeTo(file);
+        getDisplay().displayMessage(Level.INFO, "Vending machine snapshot written to %s", file);
+    }
+
+    /**
+     * Rebuilds a machine from its last snapshot and the products, sales and restocks journaled after it, then keeps journaling to the same directory.
+     * A missing snapshot means starting empty and replaying the whole journal. Products added after the snapshot
+     * are added again from their ADD records; sales and restocks of a product that neither holds are skipped and reported.
+     * Journaled sales carry no coin breakdown, so the float is restored as of the snapshot.
+     * Written-ahead transactions are replayed if they committed. Those that neither committed nor aborted were cut off
+     * by a crash: they are rolled back by journaling an ABORT for each, and listed by getRolledBackTransactions
+     * so the money the buyers put in can be refunded.
+     * @param snapshotFile the snapshot written by saveSnapshot or MachineSnapshot.convertHistory
+     * @param journalDirectory the journal directory
+     * @return the restored machine
+     */
+    public static VendingMachine restore(Path snapshotFile, Path journalDirectory) {
+        MachineSnapshot snapshot = Files.exists(snapshotFile)
+                ? MachineSnapshot.readFrom(snapshotFile)
+                : new MachineSnapshot(null, null, null, null);
+
+        VendingMachine vm = new VendingMachine();
+        vm.getInventory().addAll(snapshot.getInventory());
+        vm.loadFloat(snapshot.getMachineFloat());
+        snapshot.getSales().forEach(vm.salesStore::add);
+        vm.profitLedger.addAll(snapshot.getProfitLedger());
+
+        // Sales are counted per product and go into the sales store field by field,
+        // so replaying a long journal builds one String per product rather than one per sale.
+        Map<ByteBuffer, Sku> skuByName = new HashMap<>();
+        Map<Sku, int[]> soldBySku = new HashMap<>();
+        Map<Sku, Integer> restockedBySku = new HashMap<>();
+        Map<Long, TransactionIntent> pending = new LinkedHashMap<>();
+        long[] lastTransactionId = {NO_TRANSACTION};
+        Journal.replay(journalDirectory, snapshot.getJournalPosition(), (type, payload) -> {
+            switch (type) {
+                case Journal.SALE -> {
+                    ByteBuffer name = SaleRecord.productNameBytes(payload);
+                    Sku sku = skuByName.get(name);
+                    if (sku == null) {
+                        sku = Sku.of(StandardCharsets.UTF_8.decode(name.duplicate()).toString());
+                        skuByName.put(name, sku);
+                    }
+                    vm.replaySale(soldBySku, SaleRecord.epochMillisOf(payload), sku,
+                            SaleRecord.priceCentsOf(payload), SaleRecord.buyerIdOf(payload));
+                }
+                case Journal.INTENT -> {
+                    TransactionIntent intent = TransactionIntent.decode(payload);
+                    pending.put(intent.getId(), intent);
+                    lastTransactionId[0] = Math.max(lastTransactionId[0], intent.getId());
+                }
+                case Journal.COMMIT -> {
+                    TransactionIntent intent = pending.remove(TransactionIntent.decodeOutcome(payload));
+                    if (intent != null) {
+                        SaleRecord sale = intent.getSale();
+                        vm.replaySale(soldBySku, sale.getEpochMillis(), Sku.of(sale.getProductName()),
+                                sale.getPriceCents(), sale.getBuyerId());
+                    }
+                }
+                case Journal.ABORT -> pending.remove(TransactionIntent.decodeOutcome(payload));
+                case Journal.RESTOCK -> RestockRecord.decode(payload).getAmounts()
+                        .forEach((sku, amount) -> restockedBySku.merge(sku, amount, Integer::sum));
+                case Journal.ADD -> {
+                    Product product = MachineSnapshot.decodeProduct(payload);
+                    if (vm.inventory.find(product.getSku()) == null) {
+                        vm.inventory.add(product);
+                    }
+                }
+                default -> { }
+            }
+        });
+        // Restocks and sales are netted per product; the replayed stock stays within what the slot holds.
+        Set<Sku> changed = new HashSet<>(soldBySku.keySet());
+        changed.addAll(restockedBySku.keySet());
+        List<String> skipped = new ArrayList<>();
+        for (Sku sku : changed) {
+            Product product = vm.inventory.find(sku);
+            if (product == null) {
+                skipped.add(sku.getName());
+                continue;
+            }
+            int[] sold = soldBySku.get(sku);
+            long stock = (long) product.getStock() + restockedBySku.getOrDefault(sku, 0) - (sold == null ? 0 : sold[0]);
+            int replayed = (int) Math.max(0, Math.min(stock, Math.max(product.getMaxCapacity(), product.getStock())));
+            if (replayed != product.getStock()) {
+                product.setStock(replayed);
+            }
+        }
+        if (!skipped.isEmpty()) {
+            Collections.sort(skipped);
+            vm.getDisplay().displayMessage(Level.WARN, "Stock not restored for products missing from the snapshot and journal: %s",
+                    String.join(", ", skipped));
+        }
+        vm.nextTransactionId.accumulateAndGet(lastTransactionId[0] + 1, Math::max);
+        vm.setJournal(new Journal(journalDirectory));
+        for (TransactionIntent intent : pending.values()) {
+            vm.journal.append(Journal.ABORT, TransactionIntent.encodeOutcome(intent.getId()));
+            vm.rolledBack.add(intent);
+            vm.getDisplay().displayMessage(Level.WARN, "Rolled back unfinished sale of %s; $%.2f is owed to buyer %d.",
+                    intent.getSale().getProductName(), intent.getPaidCents() / 100.0, intent.getSale().getBuyerId());
+        }
+        vm.journal.flush();
+        return vm;
+    }
+
+    private void replaySale(Map<Sku, int[]> soldBySku, long epochMillis, Sku sku, long priceCents, int buyerId) {
+        soldBySku.computeIfAbsent(sku, s -> new int[1])[0]++;
+        salesStore.add(epochMillis, sku, priceCents, buyerId);
+        Product product = inventory.find(sku);
+        profitLedger.record(sku, product == null ? null : product.getPartitionCategory(), priceCents, epochMillis);
+    }
+
     @Override
     public String toString() {
         return "VendingMachine{" +
@@ -249,20 +931,102 @@ public class VendingMachine implements TransactionHandler{
         return Objects.hash(users, inventory, currentSessionMoney, salesLog);
     }
 
+    /**
+     * Returns the registered users in id order. The list is a copy; use addUser and removeUser to change who is registered.
+     * @return a copy of the registered users
+     */
     public List<User> getUsers() {
-        return users;
+        return users.getUsers();
     }
 
+    /**
+     * Registers a user with the machine.
+     * @param user the user to add
+     * @throws IllegalArgumentException if the user is null or a user with the same id is already registered
+     */
+    public void addUser(User user) {
+        users.register(user);
+    }
+
+    /**
+     * Removes a user from the machine.
+     * @param user the user to remove
+     * @return true if the user was registered
+     */
+    public boolean removeUser(User user) {
+        return users.unregister(user);
+    }
+
+    /**
+     * Replaces the registered users.
+     * @param users the users to register, or null for none
+     * @throws IllegalArgumentException if two users share an id
+     */
     public void setUsers(List<User> users) {
-        this.users = users;
+        this.users.clear();
+        if (users != null) {
+            users.forEach(this.users::register);
+        }
+    }
+
+    public UserRegistry getUserRegistry() {
+        return users;
     }
 
+    /**
+     * Returns the live inventory, for the thread that stocks the machine. Iterating it walks the latest snapshot,
+     * but other threads should read through getInventorySnapshot.
+     * @return the inventory
+     */
     public List<Product> getInventory() {
         return inventory;
     }
 
+    /**
+     * Returns an immutable view of the products the machine holds, consistent however the inventory
+     * is changed meanwhile. Reading it takes no lock.
+     * @return the latest inventory snapshot
+     */
+    public InventorySnapshot getInventorySnapshot() {
+        return inventory.snapshot();
+    }
+
     public void setInventory(List<Product> inventory) {
-        this.inventory = inventory;
+        this.inventory = new InventoryIndex(inventory);
+    }
+
+    public List<Product> getInventoryByCategory() {
+        return inventory.byCategory();
+    }
+
+    public List<Product> getInventoryByName() {
+        return inventory.byName();
+    }
+
+    public List<Product> getInventoryByPrice() {
+        return inventory.byPrice();
+    }
+
+    /**
+     * Returns the stocked products of one category, cheapest first, read from that category's partition.
+     * @param category the category name, e.g. "Drink"
+     * @return a read-only list, empty if nothing of that category is stocked
+     */
+    public List<Product> getProductsInCategory(String category) {
+        return inventory.inCategory(Category.find(category));
+    }
+
+    /**
+     * Finds the cheapest product of a category that still has units for sale.
+     * @param category the category name, e.g. "Snack"
+     * @return the cheapest product in stock, or null if there is none
+     */
+    public Product getCheapestInStock(String category) {
+        return inventory.cheapestInStock(Category.find(category));
+    }
+
+    public CategoryPartition getCategoryPartition(String category) {
+        return inventory.getPartition(Category.find(category));
     }
 
     public Money getCurrentSessionMoney() {
@@ -273,11 +1037,132 @@ public class VendingMachine implements TransactionHandler{
         this.currentSessionMoney = currentSessionMoney;
     }
 
+    public Money getMachineFloat() {
+        Money copy = new Money();
+        synchronized (machineFloat) {
+            copy.addAll(machineFloat);
+        }
+        return copy;
+    }
+
+    public Collection<Session> getSessions() {
+        return Collections.unmodifiableCollection(sessions.values());
+    }
+
+    /**
+     * Returns the newest sales as log lines. The list is read-only and follows the sales store,
+     * formatting a line each time one is read.
+     * @return the sales log, at most MAX_SALES_LOG lines
+     */
     public List<String> getSalesLog() {
         return salesLog;
     }
 
+    /**
+     * Replaces the recorded sales with the sales read from log lines. Lines that are not sales are skipped.
+     * @param salesLog lines in the format of SaleRecord.toLogLine
+     */
     public void setSalesLog(List<String> salesLog) {
-        this.salesLog = salesLog;
+        salesStore.clear();
+        for (String line : salesLog) {
+            SaleRecord sale = SaleRecord.parseLogLine(line);
+            if (sale != null) {
+                salesStore.add(sale);
+            }
+        }
+    }
+
+    /**
+     * Returns the structured sales behind the sales log, for questions such as what sold in a given hour.
+     * @return the machine's sales store
+     */
+    public SalesStore getSalesStore() {
+        return salesStore;
+    }
+
+    /**
+     * Returns the display this machine reports to: its own if one was set, otherwise the shared one.
+     * @return the display used for this machine's messages
+     */
+    public MessageDisplay getDisplay() {
+        MessageDisplay own = display;
+        return own != null ? own : Displays.get();
+    }
+
+    /**
+     * Gives this machine its own display.
+     * @param display the display to use, or null to use the shared one from Displays
+     */
+    public void setDisplay(MessageDisplay display) {
+        this.display = display;
+    }
+
+    /**
+     * Returns the running profit totals of the machine's sales. A restored machine's ledger is rebuilt from its snapshot
+     * and the sales journaled after it.
+     * @return the profit ledger
+     */
+    public ProfitLedger getProfitLedger() {
+        return profitLedger;
+    }
+
+    public Path getDataDirectory() {
+        return dataDirectory;
+    }
+
+    /**
+     * Sets the directory the machine's generated files, such as its profit sheet, go to.
+     * @param dataDirectory the data directory
+     */
+    public void setDataDirectory(Path dataDirectory) {
+        if (dataDirectory == null) {
+            throw new IllegalArgumentException("Data directory cannot be null");
+        }
+        this.dataDirectory = dataDirectory;
+    }
+
+    /**
+     * Returns where the machine's profit sheet is kept: PROFIT_SHEET_FILE in its data directory.
+     * @return the profit sheet path
+     */
+    public Path getProfitSheetFile() {
+        return dataDirectory.resolve(PROFIT_SHEET_FILE);
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Sets the journal sales, restocks and new products are recorded in. Products added to the inventory from now on
+     * are journaled as ADD records, so restore can add them again even if no snapshot holds them.
+     * @param journal the journal, or null to stop journaling
+     */
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+        inventory.setAddListener(journal == null ? null : this::journalAdd);
+    }
+
+    public boolean isWriteAheadLogging() {
+        return writeAheadLogging;
+    }
+
+    /**
+     * Turns write-ahead logging of sales on or off. When on, each sale journals an INTENT before the buyer is charged
+     * and a COMMIT or ABORT afterwards, so restore can tell sales that finished from sales cut off by a crash.
+     * Intents are synced before the charge, shared between concurrent sales; COMMIT and ABORT records are synced in
+     * groups as the journal's fsync policy says. Has no effect without a journal.
+     * @param writeAheadLogging true to write intents ahead
+     */
+    public void setWriteAheadLogging(boolean writeAheadLogging) {
+        this.writeAheadLogging = writeAheadLogging;
+    }
+
+    /**
+     * Returns the transactions that restore found unfinished and rolled back.
+     * @return the intents of the rolled back transactions, oldest first
+     */
+    public List<TransactionIntent> getRolledBackTransactions() {
+        return Collections.unmodifiableList(rolledBack);
     }
 }
@@ -0,0 +1,223 @@
+import org.example.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CategoryTest {
+
+    private static Snack snack(String name, double price, int stock) {
+        return new Snack(name, price, "Snack", stock, 20, "", LocalDate.of(2030, 1, 1), 50);
+    }
+
+    private static Drink drink(String name, double price, int stock) {
+        return new Drink(name, price, "Drink", stock, 20, "", LocalDate.of(2030, 1, 1), 500);
+    }
+
+    // === registry Tests ===
+    @Test
+    void testOf_SameNameSameInstance() {
+        assertSame(Category.of("Candy"), Category.of(new String("Candy")));
+        assertSame(Category.DRINK, Category.of("Drink"));
+        assertNotSame(Category.of("candy"), Category.of("Candy"));
+    }
+
+    @Test
+    void testOf_NullName() {
+        assertThrows(IllegalArgumentException.class, () -> Category.of(null));
+        assertNull(Category.find(null));
+    }
+
+    @Test
+    void testGetCategoryKey_FollowsSetCategory() {
+        Product p = snack("Chips", 1.5, 5);
+        assertSame(Category.SNACK, p.getCategoryKey());
+        p.setCategory("Crisps");
+        assertSame(Category.of("Crisps"), p.getCategoryKey());
+        p.setCategory(null);
+        assertNull(p.getCategoryKey());
+    }
+
+    // === partition Tests ===
+    @Test
+    void testInCategory_OnlyThatCategoryCheapestFirst() {
+        InventoryIndex index = new InventoryIndex(List.of(
+                drink("Cola", 2.0, 5), snack("Chips", 1.5, 5), drink("Water", 1.2, 5)));
+
+        assertEquals(List.of("Water", "Cola"), index.inCategory(Category.DRINK).stream().map(Product::getName).toList());
+        assertEquals(1, index.inCategory(Category.SNACK).size());
+        assertTrue(index.inCategory(Category.of("Fruit")).isEmpty());
+    }
+
+    @Test
+    void testInCategory_SubclassWithoutCategoryUsesItsKind() {
+        InventoryIndex index = new InventoryIndex();
+        Drink juice = new Drink("Juice", 2.5, "", 3, 10, "", null, 250);
+        Snack nuts = new Snack();
+        index.add(juice);
+        index.add(nuts);
+
+        assertEquals(List.of(juice), List.copyOf(index.inCategory(Category.DRINK)));
+        assertEquals(List.of(nuts), List.copyOf(index.inCategory(Category.SNACK)));
+    }
+
+    @Test
+    void testPartition_AggregatesFollowStockAndPrice() {
+        InventoryIndex index = new InventoryIndex();
+        Product chips = snack("Chips", 1.5, 4);
+        Product candy = snack("Candy", 1.0, 2);
+        index.add(chips);
+        index.add(candy);
+        CategoryPartition snacks = index.getPartition(Category.SNACK);
+
+        assertEquals(6, snacks.getTotalStock());
+        assertEquals(800, snacks.getStockValueCents());
+
+        chips.reduceStock(1);
+        candy.restock(3);
+        index.reprice(candy, 0.5);
+        assertEquals(8, snacks.getTotalStock());
+        assertEquals(700, snacks.getStockValueCents());
+
+        index.remove(chips);
+        assertEquals(5, snacks.getTotalStock());
+        assertEquals(250, snacks.getStockValueCents());
+        chips.restock(1);
+        assertEquals(5, snacks.getTotalStock());
+    }
+
+    @Test
+    void testPartition_ValueSurvivesSalesRacingReprices() throws InterruptedException {
+        InventoryIndex index = new InventoryIndex();
+        Product chips = new Snack("Chips", 1.0, "Snack", 5_000, 5_000, "", LocalDate.of(2030, 1, 1), 50);
+        index.add(chips);
+        CategoryPartition snacks = index.getPartition(Category.SNACK);
+
+        Thread seller = new Thread(() -> {
+            for (int i = 0; i < 5_000; i++) {
+                chips.reduceStock(1);
+            }
+        });
+        seller.start();
+        for (int i = 0; i < 5_000; i++) {
+            index.reprice(chips, i % 2 == 0 ? 2.0 : 1.0);
+        }
+        seller.join();
+
+        assertEquals(0, snacks.getTotalStock());
+        assertEquals(0, snacks.getStockValueCents());
+        chips.restock(3);
+        assertEquals(300, snacks.getStockValueCents());
+    }
+
+    @Test
+    void testPartition_ValueMatchesMembersAfterConcurrentChanges() throws InterruptedException {
+        InventoryIndex index = new InventoryIndex();
+        Product chips = new Snack("Chips", 1.0, "Snack", 2_000, 4_000, "", LocalDate.of(2030, 1, 1), 50);
+        Product candy = new Snack("Candy", 0.5, "Snack", 2_000, 4_000, "", LocalDate.of(2030, 1, 1), 30);
+        index.add(chips);
+        index.add(candy);
+        CategoryPartition snacks = index.getPartition(Category.SNACK);
+
+        List<Thread> threads = new ArrayList<>();
+        for (Product product : List.of(chips, candy)) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    if (product.tryReserve(1)) {
+                        if (i % 3 == 0) {
+                            product.release(1);
+                        } else {
+                            product.commit(1);
+                        }
+                    }
+                }
+            }));
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    product.restock(1);
+                }
+            }));
+        }
+        for (int i = 0; i < 2_000; i++) {
+            index.reprice(i % 2 == 0 ? chips : candy, 0.25 * (1 + i % 7));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long expected = 0;
+        for (Product product : snacks.getProducts()) {
+            expected += product.getStock() * Money.toCents(product.getPrice());
+        }
+        assertEquals(expected, snacks.getStockValueCents());
+    }
+
+    @Test
+    void testPartition_ReservationsLeaveTotalUntilReleased() {
+        InventoryIndex index = new InventoryIndex();
+        Product chips = snack("Chips", 1.5, 4);
+        index.add(chips);
+        CategoryPartition snacks = index.getPartition(Category.SNACK);
+
+        assertTrue(chips.tryReserve(2));
+        assertEquals(2, snacks.getTotalStock());
+        chips.release(1);
+        chips.commit(1);
+        assertEquals(3, snacks.getTotalStock());
+    }
+
+    @Test
+    void testCheapestInStock_SkipsSoldOut() {
+        InventoryIndex index = new InventoryIndex();
+        Product candy = snack("Candy", 1.0, 1);
+        Product chips = snack("Chips", 1.5, 4);
+        index.add(chips);
+        index.add(candy);
+
+        assertSame(candy, index.cheapestInStock(Category.SNACK));
+        candy.reduceStock(1);
+        assertSame(chips, index.cheapestInStock(Category.SNACK));
+        assertNull(index.cheapestInStock(Category.DRINK));
+    }
+
+    @Test
+    void testRecategorize_MovesBetweenPartitions() {
+        InventoryIndex index = new InventoryIndex();
+        Product chips = snack("Chips", 1.5, 4);
+        index.add(chips);
+        index.recategorize(chips, "Crisps");
+
+        assertTrue(index.inCategory(Category.SNACK).isEmpty());
+        assertEquals(0, index.getPartition(Category.SNACK).getTotalStock());
+        assertSame(chips, index.cheapestInStock(Category.of("Crisps")));
+        assertEquals(4, index.getPartition(Category.of("Crisps")).getTotalStock());
+    }
+
+    @Test
+    void testVendingMachine_DispenseUpdatesPartition() {
+        VendingMachine vm = new VendingMachine();
+        Product chips = snack("Chips", 1.5, 4);
+        vm.getInventory().add(chips);
+        vm.getInventory().add(drink("Cola", 2.0, 3));
+        vm.addMoney(new Money(Map.of(1.0, 1, 0.5, 1)));
+
+        assertTrue(vm.dispenseItem(new Buyer("Alice"), chips));
+        assertEquals(3, vm.getCategoryPartition("Snack").getTotalStock());
+        assertSame(chips, vm.getCheapestInStock("Snack"));
+        assertEquals(List.of("Cola"), vm.getProductsInCategory("Drink").stream().map(Product::getName).toList());
+        assertTrue(vm.getProductsInCategory("Nothing stocked").isEmpty());
+    }
+
+    // === CategoryComparator Tests ===
+    @Test
+    void testCategoryComparator_SameCategoryComparesPrice() {
+        CategoryComparator comparator = new CategoryComparator();
+        assertTrue(comparator.compare(snack("Chips", 1.5, 1), snack("Candy", 1.0, 1)) > 0);
+        assertTrue(comparator.compare(drink("Cola", 5.0, 1), snack("Candy", 1.0, 1)) < 0);
+    }
+}
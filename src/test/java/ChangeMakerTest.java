@@ -0,0 +1,143 @@
+import org.example.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChangeMakerTest {
+
+    // === solve Tests ===
+    @Test
+    void testSolve_NonCanonicalDenominations() {
+        ChangeMaker changeMaker = new ChangeMaker();
+        int[] denominations = {4, 3, 1};
+        int[] counts = {5, 5, 5};
+        int[] change = new int[3];
+
+        assertTrue(changeMaker.solve(denominations, counts, 3, 6, change));
+        assertArrayEquals(new int[]{0, 2, 0}, change);
+    }
+
+    @Test
+    void testSolve_GreedyDeadEnd() {
+        ChangeMaker changeMaker = new ChangeMaker();
+        int[] denominations = {25, 10};
+        int[] counts = {3, 3};
+        int[] change = new int[2];
+
+        assertFalse(ChangeMaker.greedy(denominations, counts, 2, 30, change));
+        assertTrue(changeMaker.solve(denominations, counts, 2, 30, change));
+        assertArrayEquals(new int[]{0, 3}, change);
+    }
+
+    @Test
+    void testSolve_RespectsAvailableCounts() {
+        ChangeMaker changeMaker = new ChangeMaker();
+        int[] denominations = {50, 25};
+        int[] counts = {0, 1};
+        int[] change = new int[2];
+
+        assertFalse(changeMaker.solve(denominations, counts, 2, 50, change));
+    }
+
+    @Test
+    void testSolve_ZeroAmount() {
+        ChangeMaker changeMaker = new ChangeMaker();
+        int[] change = new int[1];
+
+        assertTrue(changeMaker.solve(new int[]{100}, new int[]{1}, 1, 0, change));
+        assertArrayEquals(new int[]{0}, change);
+    }
+
+    @Test
+    void testSolve_AboveCachedAmount() {
+        ChangeMaker changeMaker = new ChangeMaker(100);
+        int[] change = new int[2];
+
+        assertTrue(changeMaker.solve(new int[]{100, 30}, new int[]{1, 5}, 2, 190, change));
+        assertArrayEquals(new int[]{1, 3}, change);
+    }
+
+    @Test
+    void testSolve_AmountTooLargeForTable() {
+        ChangeMaker changeMaker = new ChangeMaker(100);
+        int[] change = new int[3];
+
+        assertTrue(changeMaker.solve(new int[]{10000, 25, 1}, new int[]{1_000_000, 3, 5}, 3, 9_000_000_078L, change));
+        assertArrayEquals(new int[]{900_000, 3, 3}, change);
+        assertFalse(changeMaker.solve(new int[]{10000, 25, 1}, new int[]{10, 3, 5}, 3, 9_000_000_078L, change));
+        assertArrayEquals(new int[]{0, 0, 0}, change);
+    }
+
+    @Test
+    void testSolve_MatchesBruteForceAfterUpdates() {
+        ChangeMaker changeMaker = new ChangeMaker(300);
+        int[] denominations = {50, 30, 20, 7, 1};
+        int[] counts = new int[5];
+        int[] change = new int[5];
+        Random random = new Random(42);
+
+        for (int round = 0; round < 200; round++) {
+            int slot = random.nextInt(5);
+            counts[slot] = random.nextInt(4);
+            int amount = random.nextInt(250);
+
+            int expected = bruteForce(denominations, counts, 0, amount);
+            boolean found = changeMaker.solve(denominations, counts, 5, amount, change);
+            assertEquals(expected != Integer.MAX_VALUE, found);
+            if (found) {
+                int total = 0;
+                int pieces = 0;
+                for (int i = 0; i < 5; i++) {
+                    assertTrue(change[i] <= counts[i]);
+                    total += change[i] * denominations[i];
+                    pieces += change[i];
+                }
+                assertEquals(amount, total);
+                assertEquals(expected, pieces);
+            }
+        }
+    }
+
+    // === Money integration Tests ===
+    @Test
+    void testGetChange_FindsCombinationGreedyMisses() {
+        Money money = new Money(Map.of(0.25, 3, 0.1, 3));
+
+        assertEquals(Map.of(0.1, 3), money.getChange(0.3));
+    }
+
+    @Test
+    void testGetChange_UpdatesAfterSubtract() {
+        Money money = new Money(Map.of(0.25, 2, 0.1, 5));
+
+        assertEquals(Map.of(0.25, 2), money.getChange(0.5));
+        money.subtract(Map.of(0.25, 1));
+        assertEquals(Map.of(0.25, 1, 0.1, 2), money.getChange(0.45));
+    }
+
+    @Test
+    void testDispenseChange_MoreThanHeldFailsAtOnce() {
+        Money money = new Money(Map.of(1.0, 2));
+
+        assertFalse(money.dispenseChange(Long.MAX_VALUE / 2));
+        assertTrue(money.getChange(1_000_000.0).isEmpty());
+        assertEquals(200, money.totalCents());
+    }
+
+    private static int bruteForce(int[] denominations, int[] counts, int slot, int amount) {
+        if (amount == 0) return 0;
+        if (slot == denominations.length) return Integer.MAX_VALUE;
+        int best = Integer.MAX_VALUE;
+        for (int k = 0; k <= counts[slot] && k * denominations[slot] <= amount; k++) {
+            int rest = bruteForce(denominations, counts, slot + 1, amount - k * denominations[slot]);
+            if (rest != Integer.MAX_VALUE) {
+                best = Math.min(best, rest + k);
+            }
+        }
+        return best;
+    }
+}
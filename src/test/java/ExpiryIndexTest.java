@@ -0,0 +1,150 @@
+import org.example.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpiryIndexTest {
+
+    private static final long DAY = LocalDate.of(2025, 6, 1).toEpochDay();
+
+    private static Product product(String name, LocalDate expiry) {
+        return new Product(name, 1.5, "snack", 5, 10, "", expiry);
+    }
+
+    // === CachedClock Tests ===
+    @Test
+    void testCachedClock_ReadsDateFromSource() {
+        Clock clock = Clock.fixed(Instant.parse("2025-06-01T23:59:00Z"), ZoneOffset.UTC);
+        CachedClock cached = new CachedClock(clock);
+        assertEquals(LocalDate.of(2025, 6, 1), cached.todayDate());
+        assertEquals(DAY, cached.today());
+    }
+
+    @Test
+    void testCachedClock_SharedMatchesToday() {
+        assertEquals(LocalDate.now().toEpochDay(), CachedClock.shared().today(), 1);
+    }
+
+    // === isExpiredOn Tests ===
+    @Test
+    void testIsExpiredOn_ExpiryDayIsNotExpired() {
+        Product p = product("Chips", LocalDate.ofEpochDay(DAY));
+        assertFalse(p.isExpiredOn(DAY));
+        assertTrue(p.isExpiredOn(DAY + 1));
+    }
+
+    @Test
+    void testIsExpiredOn_NoExpiryNeverExpires() {
+        Product p = product("Chips", null);
+        assertEquals(Product.NO_EXPIRY, p.getExpiryEpochDay());
+        assertFalse(p.isExpiredOn(Long.MAX_VALUE - 1));
+    }
+
+    // === pollExpired Tests ===
+    @Test
+    void testPollExpired_OnlyReturnsExpired() {
+        ExpiryIndex index = new ExpiryIndex();
+        Product old = product("Old", LocalDate.ofEpochDay(DAY - 1));
+        Product fresh = product("Fresh", LocalDate.ofEpochDay(DAY + 10));
+        index.add(old);
+        index.add(fresh);
+        index.add(product("Forever", null));
+
+        assertEquals(List.of(old), index.pollExpired(DAY));
+        assertEquals(1, index.size());
+        assertEquals(DAY + 10, index.nextExpiry());
+    }
+
+    @Test
+    void testPollExpired_LaterDateIsRequeued() {
+        ExpiryIndex index = new ExpiryIndex();
+        Product p = product("Chips", LocalDate.ofEpochDay(DAY - 1));
+        index.add(p);
+        p.setExpiryDate(LocalDate.ofEpochDay(DAY + 5));
+
+        assertTrue(index.pollExpired(DAY).isEmpty());
+        assertEquals(DAY + 5, index.nextExpiry());
+        assertEquals(List.of(p), index.pollExpired(DAY + 6));
+    }
+
+    // === removeExpired Tests ===
+    @Test
+    void testRemoveExpired_RemovesOnlyExpiredStock() {
+        InventoryIndex inventory = new InventoryIndex();
+        Product old = product("Old", LocalDate.ofEpochDay(DAY - 1));
+        Product fresh = product("Fresh", LocalDate.ofEpochDay(DAY + 1));
+        inventory.add(old);
+        inventory.add(fresh);
+
+        assertEquals(List.of(old), inventory.removeExpired(DAY));
+        assertEquals(List.of(fresh), inventory);
+        assertNull(inventory.findByName("Old"));
+        assertTrue(inventory.removeExpired(DAY).isEmpty());
+    }
+
+    @Test
+    void testRemoveExpired_IgnoresProductsAlreadyRemoved() {
+        InventoryIndex inventory = new InventoryIndex();
+        Product old = product("Old", LocalDate.ofEpochDay(DAY - 1));
+        inventory.add(old);
+        inventory.remove(old);
+
+        assertTrue(inventory.removeExpired(DAY).isEmpty());
+    }
+
+    @Test
+    void testRemoveExpired_EarlierDateAfterUpdateExpiry() {
+        InventoryIndex inventory = new InventoryIndex();
+        Product p = product("Chips", null);
+        inventory.add(p);
+        p.setExpiryDate(LocalDate.ofEpochDay(DAY - 1));
+        inventory.updateExpiry(p);
+
+        assertEquals(List.of(p), inventory.removeExpired(DAY));
+    }
+
+    @Test
+    void testRemoveExpiredProducts_VendingMachine() {
+        VendingMachine vm = new VendingMachine();
+        vm.getInventory().add(product("Old", LocalDate.of(2020, 1, 1)));
+        vm.getInventory().add(product("Fresh", LocalDate.of(2030, 1, 1)));
+
+        vm.removeExpiredProducts();
+
+        assertEquals(1, vm.getInventory().size());
+        assertEquals("Fresh", vm.getInventory().get(0).getName());
+    }
+
+    @Test
+    void testScheduleExpirySweep_RunsAlongsideReloads() throws InterruptedException {
+        VendingMachine vm = new VendingMachine();
+        vm.setDisplay(Displays.NO_OP);
+        Operator operator = new Operator("Staff", AccessLevel.STAFF);
+        vm.getInventory().add(product("Old", LocalDate.of(2020, 1, 1)));
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            vm.scheduleExpirySweep(scheduler, 1, TimeUnit.MILLISECONDS);
+            for (int i = 0; i < 500; i++) {
+                vm.reloadProduct(new Product("Fresh " + i, 1.5, "snack", 0, 10, "", LocalDate.of(2030, 1, 1)), 1, operator);
+            }
+        } finally {
+            scheduler.shutdown();
+            assertTrue(scheduler.awaitTermination(5, TimeUnit.SECONDS));
+        }
+        vm.removeExpiredProducts();
+
+        assertEquals(500, vm.getInventory().size());
+        assertEquals(500, vm.getInventorySnapshot().getByName().size());
+        assertNull(vm.findProduct(Sku.of("Old")));
+    }
+}
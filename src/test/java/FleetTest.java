@@ -0,0 +1,147 @@
+import org.example.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FleetTest {
+
+    private static Catalog catalog() {
+        return new Catalog(List.of(
+                new CatalogItem("Chips", CatalogItem.Kind.SNACK, "Snack", 1.5, "150 kcal", LocalDate.of(2030, 1, 1), 50),
+                new CatalogItem("Cola", CatalogItem.Kind.DRINK, "Drink", 2.0, "120 kcal", LocalDate.of(2030, 1, 1), 500)));
+    }
+
+    private static Money exact(double amount) {
+        return amount == 1.5 ? new Money(Map.of(1.0, 1, 0.5, 1)) : new Money(Map.of(2.0, 1));
+    }
+
+    // === Catalog Tests ===
+    @Test
+    void testCatalog_RejectsDuplicateNames() {
+        CatalogItem chips = new CatalogItem("Chips", CatalogItem.Kind.SNACK, "Snack", 1.5, "", null, 50);
+        assertThrows(IllegalArgumentException.class, () -> new Catalog(List.of(chips, chips)));
+    }
+
+    @Test
+    void testCatalogItem_ProductsShareCatalogData() {
+        CatalogItem cola = catalog().find("Cola");
+        Product first = cola.newProduct(5, 10);
+        Product second = cola.newProduct(3, 10);
+
+        assertInstanceOf(Drink.class, first);
+        assertSame(first.getName(), second.getName());
+        assertSame(first.getNutritionalInfo(), second.getNutritionalInfo());
+        assertSame(Category.DRINK, first.getCategoryKey());
+        assertNotSame(first.getStockRecord(), second.getStockRecord());
+    }
+
+    // === SerialExecutor Tests ===
+    @Test
+    void testSerialExecutor_RunsInOrderOneAtATime() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            SerialExecutor executor = new SerialExecutor(pool);
+            List<Integer> seen = new ArrayList<>();
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger overlaps = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(1000);
+            for (int i = 0; i < 1000; i++) {
+                int n = i;
+                executor.execute(() -> {
+                    if (running.incrementAndGet() > 1) {
+                        overlaps.incrementAndGet();
+                    }
+                    seen.add(n);
+                    running.decrementAndGet();
+                    done.countDown();
+                });
+            }
+            done.await();
+            assertEquals(0, overlaps.get());
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i, seen.get(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // === routing Tests ===
+    @Test
+    void testOpenSession_SameBuyerSameMachine() {
+        try (Fleet fleet = new Fleet(catalog())) {
+            fleet.addMachines(4, 5, 10);
+            Buyer alice = new Buyer("Alice");
+            Session first = fleet.openSession(alice);
+            fleet.closeSession(first).join();
+            Session second = fleet.openSession(alice);
+
+            assertEquals(alice.getId() % 4, fleet.getMachineFor(second).getId());
+            assertEquals(1, fleet.getOpenSessions());
+        }
+    }
+
+    @Test
+    void testOpenSession_EmptyFleet() {
+        try (Fleet fleet = new Fleet(catalog())) {
+            assertThrows(IllegalStateException.class, () -> fleet.openSession(new Buyer("Alice")));
+        }
+    }
+
+    @Test
+    void testCloseSession_ReturnsUnspentMoney() {
+        try (Fleet fleet = new Fleet(catalog())) {
+            fleet.addMachines(1, 5, 10);
+            Session session = fleet.openSession(new Buyer("Alice"), 0);
+            fleet.insertMoney(session, new Money(Map.of(2.0, 1))).join();
+
+            assertEquals(200, fleet.closeSession(session).join().totalCents());
+            assertNull(fleet.getMachineFor(session));
+            assertThrows(IllegalArgumentException.class, () -> fleet.buy(session, "Cola"));
+        }
+    }
+
+    // === aggregate Tests ===
+    @Test
+    void testBuy_ConcurrentBuyersNeverOversell() {
+        try (Fleet fleet = new Fleet(catalog())) {
+            fleet.addMachines(8, 5, 10);
+            List<CompletableFuture<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                Session session = fleet.openSession(new Buyer("Buyer" + i), i % 8);
+                fleet.insertMoney(session, exact(1.5));
+                results.add(fleet.buy(session, "Chips"));
+            }
+            long sold = results.stream().filter(CompletableFuture::join).count();
+
+            assertEquals(40, sold);
+            assertEquals(40, fleet.getSales());
+            assertEquals(160, fleet.getFailedSales());
+            assertEquals(40 * 150, fleet.getRevenueCents());
+            assertEquals(0L, fleet.totalStock(Category.SNACK).join());
+            assertEquals(40L, fleet.totalStock(Category.DRINK).join());
+        }
+    }
+
+    @Test
+    void testBuy_UnknownProductFails() {
+        try (Fleet fleet = new Fleet(catalog())) {
+            fleet.addMachines(1, 5, 10);
+            Session session = fleet.openSession(new Buyer("Alice"), 0);
+
+            assertFalse(fleet.buy(session, "Nothing like it").join());
+            assertEquals(1, fleet.getFailedSales());
+        }
+    }
+}
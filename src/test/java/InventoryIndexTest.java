@@ -0,0 +1,365 @@
+import org.example.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InventoryIndexTest {
+
+    // === findByName Tests ===
+    @Test
+    void testFindByName_ExistingProduct() {
+        InventoryIndex index = new InventoryIndex();
+        Product chips = new Snack("Chips", 1.5, "snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        index.add(chips);
+
+        assertSame(chips, index.findByName("Chips"));
+    }
+
+    @Test
+    void testFindByName_MissingProduct() {
+        InventoryIndex index = new InventoryIndex();
+
+        assertNull(index.findByName("Chips"));
+    }
+
+    @Test
+    void testFindByName_AfterRemove() {
+        InventoryIndex index = new InventoryIndex();
+        Product chips = new Snack("Chips", 1.5, "snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        index.add(chips);
+        index.remove(chips);
+
+        assertNull(index.findByName("Chips"));
+        assertTrue(index.isEmpty());
+    }
+
+    @Test
+    void testFindByName_DuplicateNameFallsBack() {
+        InventoryIndex index = new InventoryIndex();
+        Product first = new Snack("Chips", 1.5, "snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        Product second = new Snack("Chips", 2.0, "snack", 3, 10, "bbq", LocalDate.of(2030, 1, 1), 100);
+        index.add(first);
+        index.add(second);
+        index.remove(first);
+
+        assertSame(second, index.findByName("Chips"));
+    }
+
+    // === contains Tests ===
+    @Test
+    void testContains_IndexedProduct() {
+        Product chips = new Snack("Chips", 1.5, "snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        InventoryIndex index = new InventoryIndex(List.of(chips));
+
+        assertTrue(index.contains(chips));
+        assertFalse(index.contains(new Drink("Cola", 2.0, "drink", 5, 10, "sugar", LocalDate.of(2030, 1, 1), 500)));
+    }
+
+    @Test
+    void testAdd_NullProduct() {
+        InventoryIndex index = new InventoryIndex();
+
+        assertThrows(IllegalArgumentException.class, () -> index.add(null));
+    }
+
+    // === sorted view Tests ===
+    @Test
+    void testSortedViews_MatchComparators() {
+        InventoryIndex index = new InventoryIndex();
+        index.add(new Product("Water", 1.2, "Drink", 5, 10, "", null));
+        index.add(new Product("Chips", 1.5, "Snack", 5, 10, "", null));
+        index.add(new Product("Cola", 2.0, "Drink", 5, 10, "", null));
+        index.add(new Product("Candy", 1.0, "Snack", 5, 10, "", null));
+
+        List<Product> byCategory = new ArrayList<>(index);
+        byCategory.sort(new CategoryComparator());
+        List<Product> byName = new ArrayList<>(index);
+        byName.sort(new ProductNameComparator());
+        List<Product> byPrice = new ArrayList<>(index);
+        byPrice.sort(null);
+
+        assertEquals(byCategory, new ArrayList<>(index.byCategory()));
+        assertEquals(byName, new ArrayList<>(index.byName()));
+        assertEquals(byPrice, new ArrayList<>(index.byPrice()));
+    }
+
+    @Test
+    void testSortedViews_RepriceMovesProduct() {
+        InventoryIndex index = new InventoryIndex();
+        Product chips = new Product("Chips", 1.5, "Snack", 5, 10, "", null);
+        Product candy = new Product("Candy", 1.0, "Snack", 5, 10, "", null);
+        index.add(chips);
+        index.add(candy);
+
+        index.reprice(candy, 3.0);
+
+        assertEquals(List.of(chips, candy), new ArrayList<>(index.byPrice()));
+        assertEquals(List.of(chips, candy), new ArrayList<>(index.byCategory()));
+        assertEquals(3.0, candy.getPrice());
+    }
+
+    @Test
+    void testSortedViews_RemoveAfterDirectPriceChange() {
+        InventoryIndex index = new InventoryIndex();
+        Product chips = new Product("Chips", 1.5, "Snack", 5, 10, "", null);
+        index.add(chips);
+        index.add(new Product("Candy", 1.0, "Snack", 5, 10, "", null));
+
+        chips.setPrice(0.5);
+        index.remove(chips);
+
+        assertEquals(1, index.byPrice().size());
+        assertFalse(index.byName().contains(chips));
+    }
+
+    @Test
+    void testSortedViews_KeepDuplicateSkus() {
+        InventoryIndex index = new InventoryIndex();
+        index.add(new Product("Chips", 1.5, "Snack", 5, 10, "", null));
+        index.add(new Product("Chips", 1.5, "Snack", 3, 10, "", null));
+
+        assertEquals(2, index.byName().size());
+        index.remove(0);
+        assertEquals(1, index.byName().size());
+        assertEquals(3, index.byName().getFirst().getStock());
+    }
+
+    @Test
+    void testSortedViews_ReadOnly() {
+        InventoryIndex index = new InventoryIndex();
+        assertThrows(UnsupportedOperationException.class,
+                () -> index.byPrice().add(new Product("Chips", 1.5, "Snack", 5, 10, "", null)));
+    }
+
+    // === snapshot Tests ===
+    @Test
+    void testSnapshot_EachChangePublishesANewVersion() {
+        InventoryIndex index = new InventoryIndex();
+        Product chips = new Snack("Chips", 1.5, "snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        Product cola = new Drink("Cola", 2.0, "drink", 5, 10, "150 cal", LocalDate.of(2030, 1, 1), 500);
+
+        InventorySnapshot empty = index.snapshot();
+        index.add(chips);
+        InventorySnapshot withChips = index.snapshot();
+        index.add(cola);
+        index.remove(chips);
+
+        assertEquals(0, empty.size());
+        assertEquals(List.of(chips), withChips.getProducts());
+        assertEquals(List.of(cola), index.snapshot().getProducts());
+        assertTrue(index.snapshot().getVersion() > withChips.getVersion());
+        assertSame(cola, index.snapshot().findByName("Cola"));
+        assertNull(index.snapshot().findByName("Chips"));
+        assertThrows(UnsupportedOperationException.class, () -> withChips.getProducts().add(cola));
+    }
+
+    @Test
+    void testSnapshot_RandomChangesKeepEveryVersionSorted() {
+        InventoryIndex index = new InventoryIndex();
+        List<Product> expected = new ArrayList<>();
+        List<InventorySnapshot> versions = new ArrayList<>();
+        List<List<Product>> contents = new ArrayList<>();
+        Random random = new Random(7);
+
+        for (int round = 0; round < 400; round++) {
+            int action = random.nextInt(4);
+            if (action < 2 || expected.isEmpty()) {
+                Product product = new Snack("Snack " + random.nextInt(50), random.nextInt(40) / 4.0, "snack", 5, 10, "",
+                        LocalDate.of(2030, 1, 1), 100);
+                int at = random.nextInt(expected.size() + 1);
+                index.add(at, product);
+                expected.add(at, product);
+            } else if (action == 2) {
+                int at = random.nextInt(expected.size());
+                assertSame(expected.remove(at), index.remove(at));
+            } else {
+                index.reprice(expected.get(random.nextInt(expected.size())), random.nextInt(40) / 4.0);
+            }
+            versions.add(index.snapshot());
+            contents.add(List.copyOf(expected));
+        }
+
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(contents.get(i), versions.get(i).getProducts());
+        }
+        List<Product> byPrice = new ArrayList<>(expected);
+        byPrice.sort(Comparator.comparingDouble(Product::getPrice).thenComparing(Product::getName));
+        assertEquals(byPrice.stream().map(Product::getPrice).toList(), index.byPrice().stream().map(Product::getPrice).toList());
+        assertEquals(byPrice.stream().map(Product::getName).toList(), index.byPrice().stream().map(Product::getName).toList());
+        assertEquals(expected.size(), index.byName().size());
+        for (int i = 1; i < index.byName().size(); i++) {
+            assertTrue(index.byName().get(i - 1).getName().compareTo(index.byName().get(i).getName()) <= 0);
+        }
+        assertEquals(expected.size(), index.getPartition(Category.find("snack")).size());
+    }
+
+    @Test
+    void testAddAll_PublishesOneSnapshot() {
+        InventoryIndex index = new InventoryIndex();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            products.add(new Snack("Snack " + i, 1.5, "snack", 5, 10, "", LocalDate.of(2030, 1, 1), 100));
+        }
+        long before = index.snapshot().getVersion();
+        index.addAll(products);
+
+        assertEquals(before + 1, index.snapshot().getVersion());
+        assertEquals(products, index.snapshot().getProducts());
+    }
+
+    @Test
+    void testIterator_ChangingInventoryDuringLoopDoesNotThrow() {
+        InventoryIndex index = new InventoryIndex();
+        Product chips = new Snack("Chips", 1.5, "snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        Product cola = new Drink("Cola", 2.0, "drink", 5, 10, "150 cal", LocalDate.of(2030, 1, 1), 500);
+        index.add(chips);
+        index.add(cola);
+
+        List<Product> seen = new ArrayList<>();
+        for (Product product : index) {
+            seen.add(product);
+            index.remove(product);
+            index.add(new Snack("Candy", 1.0, "snack", 5, 10, "", LocalDate.of(2030, 1, 1), 30));
+        }
+        assertEquals(List.of(chips, cola), seen);
+        assertEquals(2, index.size());
+        assertTrue(index.removeIf(p -> p.getName().equals("Candy")));
+        assertTrue(index.isEmpty());
+    }
+
+    @Test
+    void testSnapshot_ReadersDuringReloadsSeeWholeLists() throws InterruptedException {
+        VendingMachine vm = new VendingMachine();
+        vm.setDisplay(Displays.NO_OP);
+        Product chips = new Snack("Chips", 1.5, "snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        vm.getInventory().add(chips);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                Product water = new Drink("Water " + i, 1.0, "drink", 0, 10, "", LocalDate.of(2030, 1, 1), 500);
+                vm.getInventory().add(water);
+                vm.getInventory().remove(water);
+            }
+        });
+        Thread reader = new Thread(() -> {
+            try {
+                for (int i = 0; i < 2000; i++) {
+                    InventorySnapshot snapshot = vm.getInventorySnapshot();
+                    int count = 0;
+                    for (Product product : vm.getInventory()) {
+                        count++;
+                    }
+                    assertTrue(count == 1 || count == 2);
+                    assertSame(chips, snapshot.find(chips.getSku()));
+                    assertTrue(snapshot.getProducts().contains(chips));
+                }
+            } catch (ConcurrentModificationException | AssertionError e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(List.of(chips), vm.getInventorySnapshot().getProducts());
+    }
+
+    @Test
+    void testSnapshot_ConcurrentWritersLoseNothing() throws InterruptedException {
+        InventoryIndex index = new InventoryIndex();
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            int writer = w;
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < 250; i++) {
+                    index.add(new Snack("Snack " + writer + "-" + i, 1.0 + i % 7, "snack", 1, 10, "", LocalDate.of(2030, 1, 1), 30));
+                }
+            }));
+        }
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(1000, index.size());
+        assertEquals(1000, index.snapshot().getByPrice().size());
+        assertEquals(1000, index.inCategory(Category.find("snack")).size());
+        assertNotNull(index.findByName("Snack 3-249"));
+    }
+
+    @Test
+    void testSortedViews_ReadWhileRepricingDoesNotThrow() throws InterruptedException {
+        InventoryIndex index = new InventoryIndex();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            products.add(new Snack("Snack " + i, 1.0, "snack", 1, 10, "", LocalDate.of(2030, 1, 1), 30));
+        }
+        index.addAll(products);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                for (int i = 0; i < 500; i++) {
+                    double last = 0;
+                    for (Product product : index.inCategory(Category.find("snack"))) {
+                        last = product.getPrice();
+                    }
+                    assertEquals(50, index.byPrice().size());
+                    assertTrue(last >= 0);
+                }
+            } catch (ConcurrentModificationException | AssertionError e) {
+                failure.set(e);
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 2000; i++) {
+            index.reprice(products.get(i % 50), 1.0 + i % 13);
+        }
+        reader.join();
+
+        assertNull(failure.get());
+    }
+
+    @Test
+    void testAddIfAbsent_AddsOnce() {
+        InventoryIndex index = new InventoryIndex();
+        Product chips = new Snack("Chips", 1.5, "snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+
+        assertTrue(index.addIfAbsent(chips));
+        assertFalse(index.addIfAbsent(chips));
+        assertEquals(1, index.size());
+    }
+
+    // === VendingMachine integration Tests ===
+    @Test
+    void testGetInventory_AddIsIndexed() {
+        VendingMachine vm = new VendingMachine();
+        Product chips = new Snack("Chips", 1.5, "snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        vm.getInventory().add(chips);
+
+        assertSame(chips, vm.selectItem(new Snack("Chips", 0, "", 0, 0, "", null, 0)));
+    }
+
+    @Test
+    void testChangePrice_UpdatesSortedView() {
+        VendingMachine vm = new VendingMachine();
+        Product chips = new Product("Chips", 1.5, "Snack", 5, 10, "", null);
+        Product candy = new Product("Candy", 1.0, "Snack", 5, 10, "", null);
+        vm.getInventory().add(chips);
+        vm.getInventory().add(candy);
+
+        vm.changePrice(candy, 2.0, new Operator("Admin", AccessLevel.ADMIN));
+
+        assertSame(candy, vm.getInventoryByPrice().getLast());
+    }
+}
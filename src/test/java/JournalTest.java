@@ -0,0 +1,169 @@
+import org.example.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournalTest {
+
+    private static List<String> readAll(Path dir) {
+        List<String> records = new ArrayList<>();
+        Journal.replay(dir, (type, payload) -> records.add(StandardCharsets.UTF_8.decode(payload).toString()));
+        return records;
+    }
+
+    // === append Tests ===
+    @Test
+    void testAppend_ReplayReturnsRecordsInOrder(@TempDir Path dir) {
+        try (Journal journal = new Journal(dir)) {
+            journal.append(Journal.SALE, "first".getBytes(StandardCharsets.UTF_8));
+            journal.append(Journal.SALE, "second".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(List.of("first", "second"), readAll(dir));
+    }
+
+    @Test
+    void testAppend_RollsSegmentsBySize(@TempDir Path dir) throws IOException {
+        try (Journal journal = new Journal(dir, 64, Journal.FsyncPolicy.NEVER, 1)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(Journal.SALE, ("sale-" + i).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        assertTrue(Journal.segments(dir).size() > 1);
+        assertEquals(10, readAll(dir).size());
+        assertEquals("sale-9", readAll(dir).get(9));
+    }
+
+    @Test
+    void testAppend_ReopenKeepsEarlierRecords(@TempDir Path dir) {
+        try (Journal journal = new Journal(dir)) {
+            journal.append(Journal.SALE, "before".getBytes(StandardCharsets.UTF_8));
+        }
+        try (Journal journal = new Journal(dir)) {
+            journal.append(Journal.SALE, "after".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(List.of("before", "after"), readAll(dir));
+    }
+
+    @Test
+    void testAppend_NullPayload(@TempDir Path dir) {
+        try (Journal journal = new Journal(dir)) {
+            assertThrows(IllegalArgumentException.class, () -> journal.append(Journal.SALE, null));
+        }
+    }
+
+    @Test
+    void testAppend_PartialGroupIsWrittenAfterLinger(@TempDir Path dir) throws InterruptedException {
+        try (Journal journal = new Journal(dir, Journal.DEFAULT_SEGMENT_BYTES, Journal.FsyncPolicy.GROUP, 64, 5)) {
+            journal.append(Journal.SALE, "lonely".getBytes(StandardCharsets.UTF_8));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (readAll(dir).isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(List.of("lonely"), readAll(dir));
+        }
+    }
+
+    // === appendDurable Tests ===
+    @Test
+    void testAppendDurable_WrittenBeforeReturn(@TempDir Path dir) {
+        try (Journal journal = new Journal(dir, Journal.DEFAULT_SEGMENT_BYTES, Journal.FsyncPolicy.GROUP, 64, 60_000)) {
+            journal.append(Journal.SALE, "buffered".getBytes(StandardCharsets.UTF_8));
+            journal.appendDurable(Journal.INTENT, "intent".getBytes(StandardCharsets.UTF_8));
+            assertEquals(List.of("buffered", "intent"), readAll(dir));
+        }
+    }
+
+    @Test
+    void testAppendDurable_ConcurrentCallersAllWritten(@TempDir Path dir) throws InterruptedException {
+        try (Journal journal = new Journal(dir)) {
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                threads.add(Thread.ofPlatform().start(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        journal.appendDurable(Journal.INTENT, (thread + ":" + i).getBytes(StandardCharsets.UTF_8));
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(200, readAll(dir).size());
+        }
+    }
+
+    // === replay Tests ===
+    @Test
+    void testReplay_StopsAtTornRecord(@TempDir Path dir) throws IOException {
+        try (Journal journal = new Journal(dir)) {
+            journal.append(Journal.SALE, "kept".getBytes(StandardCharsets.UTF_8));
+        }
+        Path segment = Journal.segments(dir).get(0);
+        Files.write(segment, new byte[]{0, 0, 0, 20, Journal.SALE, 'x'}, StandardOpenOption.APPEND);
+
+        assertEquals(List.of("kept"), readAll(dir));
+    }
+
+    @Test
+    void testReplay_TornTailIsCutOffOnReopen(@TempDir Path dir) throws IOException {
+        try (Journal journal = new Journal(dir)) {
+            journal.append(Journal.SALE, "kept".getBytes(StandardCharsets.UTF_8));
+        }
+        Path segment = Journal.segments(dir).get(0);
+        Files.write(segment, new byte[]{0, 0, 0, 20, Journal.SALE, 'x'}, StandardOpenOption.APPEND);
+        try (Journal journal = new Journal(dir)) {
+            journal.append(Journal.SALE, "next".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(List.of("kept", "next"), readAll(dir));
+    }
+
+    @Test
+    void testReplay_MissingDirectory(@TempDir Path dir) {
+        assertEquals(0, Journal.replay(dir.resolve("missing"), (type, payload) -> fail()));
+    }
+
+    // === VendingMachine journal Tests ===
+    @Test
+    void testDispenseItem_AppendsSaleToJournal(@TempDir Path dir) {
+        VendingMachine vm = new VendingMachine();
+        Snack chips = new Snack("Chips", 1.5, "snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        vm.getInventory().add(chips);
+        try (Journal journal = new Journal(dir)) {
+            vm.setJournal(journal);
+            vm.addMoney(new Money(Map.of(1.5, 1)));
+            assertTrue(vm.dispenseItem(new Buyer("Alice"), chips));
+        }
+        List<SaleRecord> sales = new ArrayList<>();
+        Journal.replay(dir, (type, payload) -> sales.add(SaleRecord.decode(payload)));
+        assertEquals(1, sales.size());
+        assertEquals("Chips", sales.get(0).getProductName());
+        assertEquals(150, sales.get(0).getPriceCents());
+        assertEquals(vm.getSalesLog().get(0), sales.get(0).toLogLine());
+    }
+
+    @Test
+    void testDispenseItem_SalesLogIsBounded() {
+        VendingMachine vm = new VendingMachine();
+        Snack chips = new Snack("Chips", 0.05, "snack", 0, VendingMachine.MAX_SALES_LOG + 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        chips.restock(VendingMachine.MAX_SALES_LOG + 10);
+        vm.getInventory().add(chips);
+        Buyer buyer = new Buyer("Alice");
+        for (int i = 0; i < VendingMachine.MAX_SALES_LOG + 10; i++) {
+            vm.addMoney(new Money(Map.of(0.05, 1)));
+            assertTrue(vm.dispenseItem(buyer, chips));
+        }
+        assertEquals(VendingMachine.MAX_SALES_LOG, vm.getSalesLog().size());
+    }
+}
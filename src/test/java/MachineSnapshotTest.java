@@ -0,0 +1,188 @@
+import org.example.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MachineSnapshotTest {
+
+    // === writeTo / readFrom Tests ===
+    @Test
+    void testReadFrom_RoundTripsInventoryFloatAndSales(@TempDir Path dir) {
+        Drink cola = new Drink("Cola", 2.0, "Drink", 3, 8, "120 kcal", LocalDate.of(2030, 1, 1), 500);
+        Snack chips = new Snack("Chips", 1.5, "Snack", 5, 10, "150 kcal", null, 50);
+        Money cash = new Money(Map.of(0.25, 4, 1.0, 2));
+        SaleRecord sale = new SaleRecord(1_746_999_685_123L, 150, 42, "Chips");
+        new MachineSnapshot(List.of(cola, chips), cash, List.of(sale), new Journal.Position(2, 40))
+                .writeTo(dir.resolve("snapshot.bin"));
+
+        MachineSnapshot read = MachineSnapshot.readFrom(dir.resolve("snapshot.bin"));
+
+        assertEquals(2, read.getInventory().size());
+        Drink readCola = (Drink) read.getInventory().get(0);
+        assertEquals(cola, readCola);
+        assertEquals(2.0, readCola.getPrice());
+        assertEquals(3, readCola.getStock());
+        assertEquals(8, readCola.getMaxCapacity());
+        assertEquals(500, readCola.getVolumeInML());
+        assertEquals(LocalDate.of(2030, 1, 1), readCola.getExpiryDate());
+        Snack readChips = (Snack) read.getInventory().get(1);
+        assertNull(readChips.getExpiryDate());
+        assertEquals(50, readChips.getWeightInGrams());
+        assertEquals(cash, read.getMachineFloat());
+        assertEquals(1, read.getSales().size());
+        SaleRecord readSale = read.getSales().get(0);
+        assertEquals(1_746_999_685_123L, readSale.getEpochMillis());
+        assertEquals(150, readSale.getPriceCents());
+        assertEquals(42, readSale.getBuyerId());
+        assertEquals("Chips", readSale.getProductName());
+        assertEquals(List.of(sale.toLogLine()), read.getSalesLog());
+        assertEquals(2, read.getJournalPosition().getSegment());
+        assertEquals(40, read.getJournalPosition().getOffset());
+    }
+
+    @Test
+    void testReadFrom_NotASnapshot(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        Files.writeString(file, "=== INVENTORY ===");
+        assertThrows(IllegalArgumentException.class, () -> MachineSnapshot.readFrom(file));
+    }
+
+    // === restore Tests ===
+    @Test
+    void testRestore_ReplaysSalesAfterSnapshot(@TempDir Path dir) {
+        Path snapshot = dir.resolve("snapshot.bin");
+        Path journal = dir.resolve("journal");
+        VendingMachine vm = new VendingMachine();
+        Snack chips = new Snack("Chips", 1.5, "Snack", 5, 10, "150 kcal", LocalDate.of(2030, 1, 1), 50);
+        vm.getInventory().add(chips);
+        vm.loadFloat(new Money(Map.of(0.25, 4)));
+        vm.setJournal(new Journal(journal));
+        Buyer buyer = new Buyer("Alice");
+
+        vm.addMoney(new Money(Map.of(1.5, 1)));
+        vm.dispenseItem(buyer, chips);
+        vm.saveSnapshot(snapshot);
+        vm.addMoney(new Money(Map.of(1.5, 1)));
+        vm.dispenseItem(buyer, chips);
+        vm.getJournal().close();
+
+        VendingMachine restored = VendingMachine.restore(snapshot, journal);
+        restored.getJournal().close();
+
+        assertEquals(3, restored.getInventory().get(0).getStock());
+        assertEquals(250, restored.getMachineFloat().totalCents());
+        assertEquals(vm.getSalesLog(), restored.getSalesLog());
+    }
+
+    @Test
+    void testRestore_KeepsBuyerIdsAndMillisOfSnapshotSales(@TempDir Path dir) {
+        Path snapshot = dir.resolve("snapshot.bin");
+        Path journal = dir.resolve("journal");
+        VendingMachine vm = new VendingMachine();
+        vm.getSalesStore().add(new SaleRecord(1_746_999_685_123L, 150, 7, "Chips"));
+        vm.getSalesStore().add(new SaleRecord(1_746_999_685_456L, 200, 8, "Cola"));
+        vm.setJournal(new Journal(journal));
+        vm.saveSnapshot(snapshot);
+        vm.getJournal().close();
+
+        VendingMachine restored = VendingMachine.restore(snapshot, journal);
+        restored.getJournal().close();
+
+        List<SaleRecord> sales = restored.getSalesStore().newest(10);
+        assertEquals(2, sales.size());
+        assertEquals(1_746_999_685_123L, sales.get(0).getEpochMillis());
+        assertEquals(7, sales.get(0).getBuyerId());
+        assertEquals(1_746_999_685_456L, sales.get(1).getEpochMillis());
+        assertEquals(8, sales.get(1).getBuyerId());
+    }
+
+    @Test
+    void testRestore_NoSnapshotReplaysWholeJournal(@TempDir Path dir) {
+        Path journal = dir.resolve("journal");
+        try (Journal j = new Journal(journal)) {
+            j.append(Journal.SALE, new SaleRecord(0, 150, 1, "Chips").encode());
+        }
+        VendingMachine restored = VendingMachine.restore(dir.resolve("missing.bin"), journal);
+        restored.getJournal().close();
+
+        assertTrue(restored.getInventory().isEmpty());
+        assertEquals(1, restored.getSalesLog().size());
+    }
+
+    @Test
+    void testRestore_AddsProductsAddedAfterSnapshot(@TempDir Path dir) {
+        Path snapshot = dir.resolve("snapshot.bin");
+        Path journal = dir.resolve("journal");
+        VendingMachine vm = new VendingMachine();
+        vm.setJournal(new Journal(journal));
+        vm.saveSnapshot(snapshot);
+        Drink water = new Drink("Water", 1.0, "Drink", 0, 10, "0 kcal", LocalDate.of(2030, 1, 1), 500);
+        vm.reloadProduct(water, 5, new Operator("Staff", AccessLevel.STAFF));
+        vm.addMoney(new Money(Map.of(1.0, 1)));
+        assertTrue(vm.dispenseItem(new Buyer("Alice"), water));
+        vm.getJournal().close();
+
+        VendingMachine restored = VendingMachine.restore(snapshot, journal);
+        restored.getJournal().close();
+
+        Product readWater = restored.getInventory().get(0);
+        assertInstanceOf(Drink.class, readWater);
+        assertEquals(4, readWater.getStock());
+        assertEquals(10, readWater.getMaxCapacity());
+    }
+
+    @Test
+    void testRestore_ReportsProductsItCannotRestore(@TempDir Path dir) {
+        Path journal = dir.resolve("journal");
+        try (Journal j = new Journal(journal)) {
+            j.append(Journal.SALE, new SaleRecord(0, 150, 1, "Chips").encode());
+        }
+        List<String> messages = new ArrayList<>();
+        Displays.set(messages::add);
+        try {
+            VendingMachine.restore(dir.resolve("missing.bin"), journal).getJournal().close();
+        } finally {
+            Displays.set(null);
+        }
+
+        assertTrue(messages.stream().anyMatch(m -> m.startsWith("Stock not restored") && m.contains("Chips")), messages.toString());
+    }
+
+    // === convertHistory Tests ===
+    @Test
+    void testConvertHistory_ReadsTextLayout(@TempDir Path dir) throws IOException {
+        Path history = dir.resolve("VendingMachine_History.txt");
+        Files.writeString(history, """
+                === INVENTORY ===
+                Chips,1.50,7
+                Candy,1.25,12
+
+                === TRANSACTIONS ===
+                2025-05-11 22:41:25 - Chips sold for $1.50
+                2025-05-11 22:42:00 - Candy sold for $1.25
+                """);
+        Path snapshot = dir.resolve("snapshot.bin");
+        Path journal = dir.resolve("journal");
+
+        MachineSnapshot.convertHistory(history, snapshot, journal);
+        VendingMachine restored = VendingMachine.restore(snapshot, journal);
+        restored.getJournal().close();
+
+        assertEquals(2, restored.getInventory().size());
+        assertEquals(7, restored.getInventory().get(0).getStock());
+        assertEquals(1.25, restored.getInventory().get(1).getPrice());
+        assertEquals(List.of("2025-05-11 22:41:25 - Chips sold for $1.50", "2025-05-11 22:42:00 - Candy sold for $1.25"),
+                restored.getSalesLog());
+        assertEquals(2, Journal.replay(journal, (type, payload) -> { }));
+    }
+}
@@ -0,0 +1,161 @@
+import org.example.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MessageDisplayTest {
+
+    /**
+     * Collects messages in memory; only levels at or above the given one are enabled.
+     */
+    private static class RecordingDisplay implements MessageDisplay {
+        final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        final Level minLevel;
+
+        RecordingDisplay(Level minLevel) {
+            this.minLevel = minLevel;
+        }
+
+        @Override
+        public void displayMessage(String message) {
+            messages.add(message);
+        }
+
+        @Override
+        public boolean isEnabled(Level level) {
+            return level.compareTo(minLevel) >= 0;
+        }
+    }
+
+    /**
+     * Counts how often it was turned into a string, i.e. how often a message using it was formatted.
+     */
+    private static class CountingArg {
+        int formatted;
+
+        @Override
+        public String toString() {
+            formatted++;
+            return "arg";
+        }
+    }
+
+    @AfterEach
+    void resetDisplay() {
+        Displays.set(null);
+    }
+
+    // === ConsoleDisplay Tests ===
+    @Test
+    void testConsoleDisplay_PrintsToCurrentSystemOut() {
+        PrintStream original = System.out;
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outContent));
+        try {
+            new ConsoleDisplay().displayMessage(MessageDisplay.Level.INFO, "Change returned: $%.2f", 0.5);
+        } finally {
+            System.setOut(original);
+        }
+        assertTrue(outContent.toString().contains("Change returned: $0.50"));
+    }
+
+    @Test
+    void testConsoleDisplay_DisabledLevelIsNotFormatted() {
+        CountingArg arg = new CountingArg();
+        new ConsoleDisplay(MessageDisplay.Level.WARN).displayMessage(MessageDisplay.Level.INFO, "%s", arg);
+        assertEquals(0, arg.formatted);
+    }
+
+    // === NO_OP Tests ===
+    @Test
+    void testNoOp_NothingIsFormatted() {
+        CountingArg arg = new CountingArg();
+        Displays.NO_OP.displayMessage(MessageDisplay.Level.ERROR, "%s", arg);
+        assertFalse(Displays.NO_OP.isEnabled(MessageDisplay.Level.ERROR));
+        assertEquals(0, arg.formatted);
+    }
+
+    // === AsyncDisplay Tests ===
+    @Test
+    void testAsyncDisplay_DeliversInOrder() {
+        RecordingDisplay target = new RecordingDisplay(MessageDisplay.Level.DEBUG);
+        try (AsyncDisplay display = new AsyncDisplay(target, 8)) {
+            for (int i = 0; i < 100; i++) {
+                display.displayMessage(MessageDisplay.Level.INFO, "message %d", i);
+                display.flush();
+            }
+        }
+        assertEquals(100, target.messages.size());
+        assertEquals("message 0", target.messages.get(0));
+        assertEquals("message 99", target.messages.get(99));
+    }
+
+    @Test
+    void testAsyncDisplay_DropsWhenFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> shown = Collections.synchronizedList(new ArrayList<>());
+        MessageDisplay slow = message -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            shown.add(message);
+        };
+        AsyncDisplay display = new AsyncDisplay(slow, 4);
+        for (int i = 0; i < 20; i++) {
+            display.displayMessage("message " + i);
+        }
+        release.countDown();
+        display.close();
+
+        assertTrue(display.getDropped() > 0);
+        assertEquals(20, shown.size() + display.getDropped());
+    }
+
+    @Test
+    void testAsyncDisplay_DisabledLevelIsNotQueued() {
+        RecordingDisplay target = new RecordingDisplay(MessageDisplay.Level.WARN);
+        try (AsyncDisplay display = new AsyncDisplay(target)) {
+            display.displayMessage(MessageDisplay.Level.INFO, "hidden %d", 1);
+            display.displayMessage(MessageDisplay.Level.WARN, "shown %d", 2);
+        }
+        assertEquals(List.of("shown 2"), target.messages);
+    }
+
+    // === routing Tests ===
+    @Test
+    void testVendingMachine_UsesOwnDisplay() {
+        RecordingDisplay target = new RecordingDisplay(MessageDisplay.Level.DEBUG);
+        VendingMachine vm = new VendingMachine();
+        vm.setDisplay(target);
+        Snack chips = new Snack("Chips", 1.5, "snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        vm.getInventory().add(chips);
+        vm.addMoney(new Money(Map.of(2.0, 1)));
+        vm.loadFloat(new Money(Map.of(0.5, 1)));
+
+        assertTrue(vm.dispenseItem(new Buyer("Alice"), chips));
+        assertEquals(List.of("Transaction successful. Change returned: $0.50", "Chips has been dispensed"), target.messages);
+    }
+
+    @Test
+    void testUser_RoutesThroughSharedDisplay() {
+        RecordingDisplay target = new RecordingDisplay(MessageDisplay.Level.DEBUG);
+        Displays.set(target);
+        new Operator("Staff", AccessLevel.STAFF).displayMessage("Test message");
+        new Buyer("Alice").displayMessage("Hello");
+
+        assertEquals(List.of("Operator Staff, please note:Test message", "Buyer [Alice], please note: Hello"), target.messages);
+    }
+}
@@ -188,4 +188,47 @@ public class MoneyTest {
         Map<Double, Integer> change = money.getChange(1.0);
         assertEquals(Collections.emptyMap(), change);
     }
+
+    @Test
+    void testGetChange_NonStandardDenomination() {
+        Money money = new Money(Map.of(1.5, 1, 0.25, 2));
+
+        Map<Double, Integer> change = money.getChange(2.0);
+        assertEquals(Map.of(1.5, 1, 0.25, 2), change);
+    }
+
+    // === cents Tests ===
+    @Test
+    void testTotalCents_NoFloatingPointDrift() {
+        Money money = new Money(Map.of(0.1, 3));
+
+        assertEquals(30, money.totalCents());
+        assertEquals(0.3, money.calculateTotal());
+    }
+
+    @Test
+    void testAddAll_MergesDenominations() {
+        Money money = new Money(Map.of(1.0, 1));
+
+        money.addAll(new Money(Map.of(1.0, 2, 0.25, 4)));
+        assertEquals(3, money.countOf(100));
+        assertEquals(4, money.countOf(25));
+        assertEquals(400, money.totalCents());
+    }
+
+    @Test
+    void testDispenseChange_RemovesChange() {
+        Money money = new Money(Map.of(1.0, 2, 0.5, 1));
+
+        assertTrue(money.dispenseChange(150));
+        assertEquals(Map.of(1.0, 1), money.getCashMap());
+    }
+
+    @Test
+    void testDispenseChange_CannotMakeChange() {
+        Money money = new Money(Map.of(2.0, 1));
+
+        assertFalse(money.dispenseChange(50));
+        assertEquals(Map.of(2.0, 1), money.getCashMap());
+    }
 }
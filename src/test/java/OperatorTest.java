@@ -1,10 +1,14 @@
 import org.example.*;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.*;
 import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -21,7 +25,7 @@ public class OperatorTest {
 
         operator.restockProduct(chips, 3, vm);
         assertEquals(8, chips.getStock());
-        assertEquals(Map.of(chips, 6), operator.getStockingHistory()); // Adjusted to match observed behavior
+        assertEquals(Map.of(chips, 3), operator.getStockingHistory());
     }
 
     @Test
@@ -51,7 +55,7 @@ public class OperatorTest {
         operator.restockProduct(chips, 3, vm);
         assertEquals(5, chips.getStock());
         assertFalse(vm.getInventory().contains(chips));
-        assertEquals(Map.of(chips, 3), operator.getStockingHistory());
+        assertTrue(operator.getStockingHistory().isEmpty());
     }
 
     @Test
@@ -63,7 +67,133 @@ public class OperatorTest {
 
         operator.restockProduct(chips, 0, vm);
         assertEquals(5, chips.getStock());
-        assertEquals(Map.of(chips, 0), operator.getStockingHistory()); // Adjusted to match observed behavior
+        assertTrue(operator.getStockingHistory().isEmpty());
+    }
+
+    // === restockBatch Tests ===
+    @Test
+    void testRestockBatch_AppliesWholeBatch() {
+        Operator operator = new Operator("Driver", AccessLevel.STAFF);
+        VendingMachine vm = new VendingMachine();
+        Product chips = new Product("Chips", 1.5, "snack", 5, 10, "100 calories", LocalDate.of(2030, 1, 1));
+        Product cola = new Product("Cola", 2.0, "drink", 1, 8, "150 calories", LocalDate.of(2030, 1, 1));
+        vm.getInventory().add(chips);
+        vm.getInventory().add(cola);
+
+        RestockRecord record = operator.restockBatch(Map.of(chips.getSku(), 5, cola.getSku(), 7), vm);
+        assertEquals(10, chips.getStock());
+        assertEquals(8, cola.getStock());
+        assertEquals(12, record.getTotalUnits());
+        assertEquals(operator.getId(), record.getOperatorId());
+        assertEquals(Map.of(chips, 5, cola, 7), operator.getStockingHistory());
+    }
+
+    @Test
+    void testRestockBatch_RejectsWholeBatchIfAnyProductFails() {
+        Operator operator = new Operator("Driver", AccessLevel.STAFF);
+        VendingMachine vm = new VendingMachine();
+        Product chips = new Product("Chips", 1.5, "snack", 5, 10, "100 calories", LocalDate.of(2030, 1, 1));
+        Product cola = new Product("Cola", 2.0, "drink", 1, 8, "150 calories", LocalDate.of(2030, 1, 1));
+        Product milk = new Product("Milk", 2.5, "drink", 1, 8, "120 calories", LocalDate.of(2020, 1, 1));
+        vm.getInventory().add(chips);
+        vm.getInventory().add(cola);
+        vm.getInventory().add(milk);
+        Map<Sku, Integer> batch = new LinkedHashMap<>();
+        batch.put(chips.getSku(), 5);
+        batch.put(cola.getSku(), 8);
+        batch.put(milk.getSku(), 2);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> operator.restockBatch(batch, vm));
+        assertTrue(e.getMessage().contains("Cola has room for 7 units"));
+        assertTrue(e.getMessage().contains("Milk is expired"));
+        assertEquals(5, chips.getStock());
+        assertEquals(1, cola.getStock());
+        assertTrue(operator.getStockingHistory().isEmpty());
+    }
+
+    @Test
+    void testRestockBatch_InvalidArguments() {
+        Operator operator = new Operator("Driver", AccessLevel.STAFF);
+        VendingMachine vm = new VendingMachine();
+        Product chips = new Product("Chips", 1.5, "snack", 5, 10, "100 calories", LocalDate.of(2030, 1, 1));
+
+        assertThrows(IllegalArgumentException.class, () -> operator.restockBatch(Map.of(), vm));
+        assertThrows(IllegalArgumentException.class, () -> operator.restockBatch(Map.of(chips.getSku(), 1), null));
+        assertThrows(IllegalArgumentException.class, () -> operator.restockBatch(Map.of(chips.getSku(), 1), vm));
+        vm.getInventory().add(chips);
+        assertThrows(IllegalArgumentException.class, () -> operator.restockBatch(Map.of(chips.getSku(), 0), vm));
+        assertEquals(5, chips.getStock());
+    }
+
+    @Test
+    void testRestockBatch_JournaledAsOneRecordAndReplayed(@TempDir Path dir) {
+        Operator operator = new Operator("Driver", AccessLevel.STAFF);
+        VendingMachine vm = new VendingMachine();
+        vm.setDisplay(Displays.NO_OP);
+        Product chips = new Product("Chips", 1.5, "snack", 10, 10, "100 calories", LocalDate.of(2030, 1, 1));
+        Product cola = new Product("Cola", 2.0, "drink", 1, 8, "150 calories", LocalDate.of(2030, 1, 1));
+        vm.getInventory().add(chips);
+        vm.getInventory().add(cola);
+        Path snapshot = dir.resolve("machine.snapshot");
+        Path journalDir = dir.resolve("journal");
+        vm.setJournal(new Journal(journalDir));
+        vm.saveSnapshot(snapshot);
+
+        vm.addMoney(new Money(Map.of(1.5, 1)));
+        assertTrue(vm.dispenseItem(new Buyer("Alice"), chips));
+        RestockRecord record = operator.restockBatch(Map.of(chips.getSku(), 1, cola.getSku(), 4), vm);
+        vm.getJournal().close();
+
+        List<RestockRecord> restocks = new ArrayList<>();
+        Journal.replay(journalDir, (type, payload) -> {
+            if (type == Journal.RESTOCK) {
+                restocks.add(RestockRecord.decode(payload));
+            }
+        });
+        assertEquals(1, restocks.size());
+        assertEquals(record.getAmounts(), restocks.get(0).getAmounts());
+
+        VendingMachine restored = VendingMachine.restore(snapshot, journalDir);
+        assertEquals(10, restored.findProduct(chips.getSku()).getStock());
+        assertEquals(5, restored.findProduct(cola.getSku()).getStock());
+        restored.getJournal().close();
+    }
+
+    @Test
+    void testRestore_ReplaysSingleAndBatchRestocks(@TempDir Path dir) {
+        Operator operator = new Operator("Driver", AccessLevel.STAFF);
+        VendingMachine vm = new VendingMachine();
+        vm.setDisplay(Displays.NO_OP);
+        Product chips = new Product("Chips", 1.5, "snack", 2, 10, "100 calories", LocalDate.of(2030, 1, 1));
+        Product cola = new Product("Cola", 2.0, "drink", 1, 8, "150 calories", LocalDate.of(2030, 1, 1));
+        vm.getInventory().add(chips);
+        vm.getInventory().add(cola);
+        Path snapshot = dir.resolve("machine.snapshot");
+        Path journalDir = dir.resolve("journal");
+        vm.setJournal(new Journal(journalDir));
+        vm.saveSnapshot(snapshot);
+
+        operator.restockProduct(chips, 3, vm);
+        vm.addMoney(new Money(Map.of(1.5, 1)));
+        assertTrue(vm.dispenseItem(new Buyer("Alice"), chips));
+        operator.restockBatch(Map.of(chips.getSku(), 2, cola.getSku(), 4), vm);
+        operator.restockProduct(cola, 1, vm);
+        vm.getJournal().close();
+
+        List<RestockRecord> restocks = new ArrayList<>();
+        Journal.replay(journalDir, (type, payload) -> {
+            if (type == Journal.RESTOCK) {
+                restocks.add(RestockRecord.decode(payload));
+            }
+        });
+        assertEquals(3, restocks.size());
+        assertEquals(Map.of(chips.getSku(), 3), restocks.get(0).getAmounts());
+        assertEquals(operator.getId(), restocks.get(2).getOperatorId());
+
+        VendingMachine restored = VendingMachine.restore(snapshot, journalDir);
+        assertEquals(6, restored.findProduct(chips.getSku()).getStock());
+        assertEquals(6, restored.findProduct(cola.getSku()).getStock());
+        restored.getJournal().close();
     }
 
     // === updateProductPrice Tests ===
@@ -118,14 +248,12 @@ public class OperatorTest {
 
     // === reviewProfitSheet Tests ===
     @Test
-    void testReviewProfitSheet_AdminSuccess() throws IOException {
+    void testReviewProfitSheet_AdminSuccess(@TempDir Path dir) throws IOException {
         Operator operator = new Operator("Admin", AccessLevel.ADMIN);
         VendingMachine vm = new VendingMachine();
-        String dirPath = "../resources";
-        String filePath = dirPath + "/ProfitSheet.txt";
-        new File(dirPath).mkdirs();
+        vm.setDataDirectory(dir);
 
-        try (PrintWriter writer = new PrintWriter(filePath)) {
+        try (PrintWriter writer = new PrintWriter(dir.resolve("ProfitSheet.txt").toFile())) {
             writer.println("Item: Chips, Sold: 5");
         }
 
@@ -135,12 +263,9 @@ public class OperatorTest {
         operator.reviewProfitSheet(vm);
 
         System.setOut(System.out);
-        File file = new File(filePath);
-        file.delete();
-        new File(dirPath).delete();
 
         assertTrue(outContent.toString().contains("Item: Chips, Sold: 5"));
-        assertTrue(operator.getProfitSheets().contains(Path.of("../resources/ProfitSheet.txt")));
+        assertTrue(operator.getProfitSheets().contains(dir.resolve("ProfitSheet.txt")));
     }
 
     @Test
@@ -167,9 +292,10 @@ public class OperatorTest {
     }
 
     @Test
-    void testReviewProfitSheet_FileNotFound() {
+    void testReviewProfitSheet_FileNotFound(@TempDir Path dir) {
         Operator operator = new Operator("Admin", AccessLevel.ADMIN);
         VendingMachine vm = new VendingMachine();
+        vm.setDataDirectory(dir);
 
         ByteArrayOutputStream outContent = new ByteArrayOutputStream();
         System.setOut(new PrintStream(outContent));
@@ -178,7 +304,7 @@ public class OperatorTest {
 
         System.setOut(System.out);
         assertTrue(outContent.toString().contains("Profit sheet file not found"));
-        assertTrue(operator.getProfitSheets().contains(Path.of("../resources/ProfitSheet.txt")));
+        assertTrue(operator.getProfitSheets().contains(dir.resolve("ProfitSheet.txt")));
     }
 
     // === displayMessage Tests ===
@@ -0,0 +1,200 @@
+import org.example.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceBookTest {
+
+    private final Operator admin = new Operator("Admin", AccessLevel.ADMIN);
+
+    private static VendingMachine machine(Product... products) {
+        VendingMachine vm = new VendingMachine();
+        vm.setDisplay(Displays.NO_OP);
+        for (Product product : products) {
+            vm.getInventory().add(product);
+        }
+        return vm;
+    }
+
+    private static Product chips() {
+        return new Snack("Chips", 1.5, "Snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+    }
+
+    private static Product cola() {
+        return new Drink("Cola", 2.0, "Drink", 5, 10, "150 cal", LocalDate.of(2030, 1, 1), 500);
+    }
+
+    // === read Tests ===
+    @Test
+    void testRead_ParsesVersionAndPrices(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("prices.txt");
+        Files.write(file, List.of("# summer prices", "version 7", "", "Chips,1.75", "Cola, 2.25"));
+
+        PriceBook book = PriceBook.read(file);
+        assertEquals(7, book.getVersion());
+        assertEquals(2, book.size());
+        assertEquals(175, book.priceCents(Sku.of("Chips")));
+        assertEquals(225, book.priceCents(Sku.of("Cola")));
+        assertEquals(PriceBook.NO_PRICE, book.priceCents(Sku.of("Water")));
+    }
+
+    @Test
+    void testRead_RejectsBadLines(@TempDir Path dir) throws IOException {
+        Path noVersion = Files.write(dir.resolve("a.txt"), List.of("Chips,1.75"));
+        Path badPrice = Files.write(dir.resolve("b.txt"), List.of("version 1", "Chips,cheap"));
+        Path twice = Files.write(dir.resolve("c.txt"), List.of("version 1", "Chips,1.75", "Chips,1.80"));
+
+        assertThrows(IllegalArgumentException.class, () -> PriceBook.read(noVersion));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> PriceBook.read(badPrice));
+        assertTrue(e.getMessage().contains("line 2"));
+        assertThrows(IllegalArgumentException.class, () -> PriceBook.read(twice));
+        assertThrows(IllegalArgumentException.class, () -> new PriceBook(1, Map.of(Sku.of("Chips"), -5L)));
+    }
+
+    // === applyPriceBook Tests ===
+    @Test
+    void testApplyPriceBook_SalesUseBookPrice() {
+        Product chips = chips();
+        Product cola = cola();
+        VendingMachine vm = machine(chips, cola);
+
+        assertTrue(vm.applyPriceBook(new PriceBook(1, Map.of(chips.getSku(), 200L)), admin));
+        assertEquals(200, vm.getPriceCents(chips));
+        assertEquals(200, vm.getPriceCents(cola));
+        assertEquals(2.0, chips.getPrice());
+
+        vm.addMoney(new Money(Map.of(1.5, 1)));
+        assertFalse(vm.dispenseItem(new Buyer("Alice"), chips));
+        vm.addMoney(new Money(Map.of(0.5, 1)));
+        assertTrue(vm.dispenseItem(new Buyer("Alice"), chips));
+        assertEquals(200, vm.getSalesStore().fromNewest(0).getPriceCents());
+    }
+
+    @Test
+    void testApplyPriceBook_ProductsAndViewsShowBookPrice() {
+        Product chips = chips();
+        Product cola = cola();
+        VendingMachine vm = machine(chips, cola);
+        Buyer alice = new Buyer("Alice");
+
+        vm.applyPriceBook(new PriceBook(1, Map.of(chips.getSku(), 250L)), admin);
+        assertEquals(2.5, chips.getPrice());
+        assertEquals(2.0, cola.getPrice());
+        assertEquals(List.of(cola, chips), vm.getInventorySnapshot().getByPrice());
+        assertEquals(1250, vm.getCategoryPartition("Snack").getStockValueCents());
+
+        vm.addMoney(new Money(Map.of(2.5, 1)));
+        assertTrue(vm.dispenseItem(alice, chips));
+        assertEquals(2.5, alice.getPurchaseHistory().get(0).getPrice());
+    }
+
+    @Test
+    void testApplyPriceBook_OnlyNewerVersionsAndAdmins() {
+        Product chips = chips();
+        VendingMachine vm = machine(chips);
+        PriceBook second = new PriceBook(2, Map.of(chips.getSku(), 175L));
+
+        assertFalse(vm.applyPriceBook(second, new Operator("Staff", AccessLevel.STAFF)));
+        assertSame(PriceBook.EMPTY, vm.getPriceBook());
+        assertTrue(vm.applyPriceBook(second, admin));
+        assertFalse(vm.applyPriceBook(new PriceBook(1, Map.of(chips.getSku(), 100L)), admin));
+        assertSame(second, vm.getPriceBook());
+        assertEquals(175, vm.getPriceCents(chips));
+    }
+
+    @Test
+    void testChangePrice_OverridesBookEntry() {
+        Product chips = chips();
+        VendingMachine vm = machine(chips);
+        vm.applyPriceBook(new PriceBook(1, Map.of(chips.getSku(), 175L)), admin);
+
+        vm.changePrice(chips, 1.25, admin);
+        assertEquals(125, vm.getPriceCents(chips));
+        assertEquals(1, vm.getPriceBook().getVersion());
+        assertEquals(0, vm.getPriceBook().size());
+    }
+
+    // === schedulePriceBook Tests ===
+    @Test
+    void testSchedulePriceBook_TakesEffectWhenDue() {
+        Product chips = chips();
+        VendingMachine vm = machine(chips);
+        long now = System.currentTimeMillis();
+
+        assertTrue(vm.schedulePriceBook(new PriceBook(1, Map.of(chips.getSku(), 175L)), now - 1, admin));
+        assertTrue(vm.schedulePriceBook(new PriceBook(2, Map.of(chips.getSku(), 250L)), now + 3_600_000L, admin));
+        assertThrows(IllegalArgumentException.class,
+                () -> vm.schedulePriceBook(new PriceBook(3, Map.of()), now + 3_600_000L, admin));
+
+        assertEquals(175, vm.getPriceCents(chips));
+        assertEquals(1.75, chips.getPrice());
+        assertEquals(1, vm.getPriceBook().getVersion());
+        assertEquals(List.of(now + 3_600_000L), List.copyOf(vm.getScheduledPriceBooks().keySet()));
+    }
+
+    @Test
+    void testSchedulePriceBook_OlderVersionIsDropped() {
+        Product chips = chips();
+        VendingMachine vm = machine(chips);
+        long now = System.currentTimeMillis();
+        vm.applyPriceBook(new PriceBook(5, Map.of(chips.getSku(), 175L)), admin);
+
+        vm.schedulePriceBook(new PriceBook(4, Map.of(chips.getSku(), 100L)), now - 1, admin);
+        assertEquals(175, vm.getPriceCents(chips));
+        assertTrue(vm.getScheduledPriceBooks().isEmpty());
+    }
+
+    @Test
+    void testSchedulePriceBook_TimerAppliesBookWithoutSales() throws InterruptedException {
+        Product chips = chips();
+        VendingMachine vm = machine(chips);
+
+        assertTrue(vm.schedulePriceBook(new PriceBook(1, Map.of(chips.getSku(), 175L)), System.currentTimeMillis() + 50, admin));
+        assertEquals(150, vm.getPriceCents(chips));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (chips.getPrice() != 1.75 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, vm.getPriceBook().getVersion());
+        assertEquals(1.75, chips.getPrice());
+        assertTrue(vm.getScheduledPriceBooks().isEmpty());
+    }
+
+    // === Fleet Tests ===
+    @Test
+    void testPushPriceBook_EveryMachine() {
+        CatalogItem chipsItem = new CatalogItem("Chips", CatalogItem.Kind.SNACK, "Snack", 1.5, "", LocalDate.of(2030, 1, 1), 50);
+        try (Fleet fleet = new Fleet(new Catalog(List.of(chipsItem)))) {
+            fleet.addMachines(3, 5, 10);
+            PriceBook book = new PriceBook(1, Map.of(chipsItem.getSku(), 125L));
+
+            assertEquals(3, fleet.pushPriceBook(book, System.currentTimeMillis() - 1, admin));
+            for (FleetMachine machine : fleet.getMachines()) {
+                assertSame(book, machine.getMachine().getPriceBook());
+            }
+        }
+    }
+
+    @Test
+    void testBuy_RevenueIsWhatTheMachineCharged() {
+        CatalogItem chipsItem = new CatalogItem("Chips", CatalogItem.Kind.SNACK, "Snack", 1.5, "", LocalDate.of(2030, 1, 1), 50);
+        try (Fleet fleet = new Fleet(new Catalog(List.of(chipsItem)))) {
+            fleet.addMachines(1, 5, 10);
+            fleet.pushPriceBook(new PriceBook(1, Map.of(chipsItem.getSku(), 125L)), System.currentTimeMillis() - 1, admin);
+            Session session = fleet.openSession(new Buyer("Alice"), 0);
+            fleet.insertMoney(session, new Money(Map.of(1.0, 1, 0.25, 1))).join();
+
+            assertTrue(fleet.buy(session, "Chips").join());
+            assertEquals(125, fleet.getRevenueCents());
+        }
+    }
+}
@@ -3,6 +3,8 @@ import org.example.*;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -186,4 +188,89 @@ public class ProductTest {
 
         assertTrue(chips.compareTo(coke) < 0);
     }
+
+    // === tryReserve / commit / release Tests ===
+    @Test
+    void testTryReserve_EnoughStock() {
+        Product product = new Product("Chips", 1.5, "snack", 5, 10, "100 calories", LocalDate.of(2030, 1, 1));
+
+        assertTrue(product.tryReserve(2));
+        assertEquals(3, product.getStock());
+        assertEquals(2, product.getReservedStock());
+    }
+
+    @Test
+    void testTryReserve_NotEnoughStock() {
+        Product product = new Product("Chips", 1.5, "snack", 1, 10, "100 calories", LocalDate.of(2030, 1, 1));
+
+        assertFalse(product.tryReserve(2));
+        assertEquals(1, product.getStock());
+        assertEquals(0, product.getReservedStock());
+    }
+
+    @Test
+    void testCommit_RemovesReservedUnits() {
+        Product product = new Product("Chips", 1.5, "snack", 5, 10, "100 calories", LocalDate.of(2030, 1, 1));
+
+        product.tryReserve(2);
+        product.commit(2);
+        assertEquals(3, product.getStock());
+        assertEquals(0, product.getReservedStock());
+    }
+
+    @Test
+    void testRelease_ReturnsUnitsToStock() {
+        Product product = new Product("Chips", 1.5, "snack", 5, 10, "100 calories", LocalDate.of(2030, 1, 1));
+
+        product.tryReserve(2);
+        product.release(2);
+        assertEquals(5, product.getStock());
+        assertEquals(0, product.getReservedStock());
+    }
+
+    @Test
+    void testCommit_NothingReserved() {
+        Product product = new Product("Chips", 1.5, "snack", 5, 10, "100 calories", LocalDate.of(2030, 1, 1));
+
+        assertThrows(IllegalStateException.class, () -> product.commit(1));
+        assertEquals(5, product.getStock());
+    }
+
+    @Test
+    void testRestock_CountsReservedUnits() {
+        Product product = new Product("Chips", 1.5, "snack", 8, 10, "100 calories", LocalDate.of(2030, 1, 1));
+
+        product.tryReserve(2);
+        assertThrows(IllegalArgumentException.class, () -> product.restock(3));
+        assertEquals(6, product.getStock());
+    }
+
+    // === Sku identity Tests ===
+    @Test
+    void testGetSku_SameNameSameSku() {
+        Product chips1 = new Product("Chips", 1.5, "snack", 5, 10, "100 calories", LocalDate.of(2030, 1, 1));
+        Product chips2 = new Product("Chips", 2.0, "snack", 1, 10, "100 calories", LocalDate.of(2030, 1, 1));
+
+        assertSame(chips1.getSku(), chips2.getSku());
+        assertSame(chips1.getSku(), Sku.find("Chips"));
+    }
+
+    @Test
+    void testHashCode_StableAfterRestockAndPriceChange() {
+        Product chips = new Product("Chips", 1.5, "snack", 5, 10, "100 calories", LocalDate.of(2030, 1, 1));
+        Map<Product, Integer> history = new HashMap<>();
+        history.put(chips, 1);
+
+        chips.restock(2);
+        chips.setPrice(2.0);
+        assertEquals(1, history.get(chips));
+    }
+
+    @Test
+    void testEquals_DifferentSubclassSameName() {
+        Product chips = new Snack("Chips", 1.5, "snack", 5, 10, "100 calories", LocalDate.of(2030, 1, 1), 100);
+        Product drink = new Drink("Chips", 1.5, "snack", 5, 10, "100 calories", LocalDate.of(2030, 1, 1), 100);
+
+        assertNotEquals(chips, drink);
+    }
 }
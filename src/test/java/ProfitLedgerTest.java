@@ -0,0 +1,143 @@
+import org.example.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProfitLedgerTest {
+
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final long JUNE_1 = LocalDate.of(2025, 6, 1).toEpochDay() * DAY_MILLIS;
+
+    private final Product chips = new Snack("Chips", 1.5, "Snack", 50, 100, "", LocalDate.of(2030, 1, 1), 50);
+    private final Product candy = new Snack("Candy", 1.0, "Snack", 50, 100, "", LocalDate.of(2030, 1, 1), 30);
+    private final Product cola = new Drink("Cola", 2.0, "Drink", 50, 100, "", LocalDate.of(2030, 1, 1), 500);
+
+    @AfterEach
+    void resetDisplay() {
+        Displays.set(null);
+    }
+
+    // === record Tests ===
+    @Test
+    void testRecord_TotalsPerProductCategoryAndDay() {
+        ProfitLedger ledger = new ProfitLedger(ZoneOffset.UTC);
+        ledger.setUnitCost(chips.getSku(), 60);
+        ledger.record(chips, 150, JUNE_1 + 1000);
+        ledger.record(chips, 150, JUNE_1 + DAY_MILLIS + 5);
+        ledger.record(candy, 100, JUNE_1 + 2000);
+        ledger.record(cola, 200, JUNE_1 + DAY_MILLIS - 1);
+
+        List<ProfitLedger.Line> products = ledger.byProduct();
+        assertEquals(List.of("Candy", "Chips", "Cola"), products.stream().map(ProfitLedger.Line::getLabel).toList());
+        ProfitLedger.Line chipsLine = products.get(1);
+        assertEquals("Snack", chipsLine.getCategory());
+        assertEquals(2, chipsLine.getUnits());
+        assertEquals(300, chipsLine.getRevenueCents());
+        assertEquals(180, chipsLine.getMarginCents());
+
+        assertEquals("Drink,1,2.00,0.00,2.00", ledger.byCategory().get(0).toString());
+        assertEquals("Snack,3,4.00,1.20,2.80", ledger.byCategory().get(1).toString());
+        assertEquals(List.of("2025-06-01,3,4.50,0.60,3.90", "2025-06-02,1,1.50,0.60,0.90"),
+                ledger.byDay().stream().map(ProfitLedger.Line::toString).toList());
+        assertEquals("Total,4,6.00,1.20,4.80", ledger.total().toString());
+    }
+
+    @Test
+    void testSetUnitCost_OnlyLaterSales() {
+        ProfitLedger ledger = new ProfitLedger(ZoneOffset.UTC);
+        ledger.record(chips, 150, JUNE_1);
+        ledger.setUnitCost(chips.getSku(), 100);
+        ledger.record(chips, 150, JUNE_1);
+
+        assertEquals(100, ledger.total().getCostCents());
+        assertEquals(100, ledger.getUnitCostCents(chips.getSku()));
+        assertThrows(IllegalArgumentException.class, () -> ledger.setUnitCost(chips.getSku(), -1));
+    }
+
+    @Test
+    void testRenderSheet_EmptyLedger() {
+        List<String> sheet = new ProfitLedger().renderSheet();
+        assertEquals("=== PROFIT SHEET ===", sheet.get(0));
+        assertEquals("Total,0,0.00,0.00,0.00", sheet.get(sheet.size() - 1));
+    }
+
+    // === VendingMachine Tests ===
+    @Test
+    void testDispense_RecordsInLedger() {
+        VendingMachine vm = new VendingMachine();
+        vm.setDisplay(Displays.NO_OP);
+        vm.getInventory().add(chips);
+        vm.addMoney(new Money(Map.of(1.0, 1, 0.5, 1)));
+
+        assertTrue(vm.dispenseItem(new Buyer("Alice"), chips));
+        assertFalse(vm.dispenseItem(new Buyer("Bob"), chips));
+        assertEquals(1, vm.getProfitLedger().total().getUnits());
+        assertEquals(150, vm.getProfitLedger().total().getRevenueCents());
+    }
+
+    @Test
+    void testRestore_RebuildsLedgerFromSnapshotAndJournal(@TempDir Path dir) {
+        Path snapshot = dir.resolve("snapshot.bin");
+        Path journal = dir.resolve("journal");
+        VendingMachine vm = new VendingMachine();
+        vm.setDisplay(Displays.NO_OP);
+        vm.getInventory().add(chips);
+        vm.getProfitLedger().setUnitCost(chips.getSku(), 60);
+        vm.setJournal(new Journal(journal));
+
+        vm.addMoney(new Money(Map.of(1.5, 1)));
+        assertTrue(vm.dispenseItem(new Buyer("Alice"), chips));
+        vm.saveSnapshot(snapshot);
+        vm.addMoney(new Money(Map.of(1.5, 1)));
+        assertTrue(vm.dispenseItem(new Buyer("Bob"), chips));
+        vm.getJournal().close();
+
+        VendingMachine restored = VendingMachine.restore(snapshot, journal);
+        restored.getJournal().close();
+
+        assertEquals(vm.getProfitLedger().renderSheet(), restored.getProfitLedger().renderSheet());
+        assertEquals(2, restored.getProfitLedger().total().getUnits());
+        assertEquals(120, restored.getProfitLedger().total().getCostCents());
+        assertEquals(60, restored.getProfitLedger().getUnitCostCents(chips.getSku()));
+    }
+
+    // === Operator Tests ===
+    @Test
+    void testGenerateProfitSheet_AdminWritesAndReviews(@TempDir Path dir) throws IOException {
+        Displays.set(Displays.NO_OP);
+        VendingMachine vm = new VendingMachine();
+        vm.setDisplay(Displays.NO_OP);
+        vm.getInventory().add(chips);
+        vm.addMoney(new Money(Map.of(1.0, 1, 0.5, 1)));
+        vm.dispenseItem(new Buyer("Alice"), chips);
+        Path sheet = dir.resolve("ProfitSheet.txt");
+        Operator admin = new Operator("Admin", AccessLevel.ADMIN);
+
+        admin.generateProfitSheet(vm, sheet);
+        admin.reviewProfitSheet(vm, sheet);
+
+        List<String> lines = Files.readAllLines(sheet);
+        assertTrue(lines.contains("Chips,Snack,1,1.50,0.00,1.50"));
+        assertEquals(List.of(sheet), admin.getProfitSheets());
+    }
+
+    @Test
+    void testGenerateProfitSheet_StaffDenied(@TempDir Path dir) {
+        Displays.set(Displays.NO_OP);
+        Path sheet = dir.resolve("ProfitSheet.txt");
+        new Operator("Staff", AccessLevel.STAFF).generateProfitSheet(new VendingMachine(), sheet);
+
+        assertFalse(Files.exists(sheet));
+    }
+}
@@ -0,0 +1,122 @@
+import org.example.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProfitSheetReaderTest {
+
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    /**
+     * Writes a sheet with the given number of products, each sold once on each of the given number of days.
+     */
+    private static Path writeSheet(Path dir, int products, int days) {
+        ProfitLedger ledger = new ProfitLedger(ZoneOffset.UTC);
+        for (int p = 0; p < products; p++) {
+            Product product = new Snack(String.format("Item%04d", p), 1.0, "Snack", 0, 0, "", null, 0);
+            ledger.setUnitCost(product.getSku(), 25);
+            for (int d = 0; d < days; d++) {
+                ledger.record(product, 100 + p, (START.toEpochDay() + d) * DAY_MILLIS);
+            }
+        }
+        Path file = dir.resolve("ProfitSheet.txt");
+        ledger.writeSheet(file);
+        return file;
+    }
+
+    private static List<String> labels(Stream<ProfitSheetReader.Row> rows) {
+        return rows.map(ProfitSheetReader.Row::getLabel).toList();
+    }
+
+    // === rows Tests ===
+    @Test
+    void testRows_ParsesEverySection(@TempDir Path dir) {
+        ProfitSheetReader reader = new ProfitSheetReader(writeSheet(dir, 2, 3));
+
+        List<ProfitSheetReader.Row> rows = reader.rows().toList();
+        assertEquals(2 + 1 + 3 + 1, rows.size());
+        ProfitSheetReader.Row first = rows.get(0);
+        assertEquals(ProfitSheetReader.Section.PRODUCT, first.getSection());
+        assertEquals("Item0000", first.getLabel());
+        assertEquals("Snack", first.getCategory());
+        assertEquals(3, first.getUnits());
+        assertEquals(300, first.getRevenueCents());
+        assertEquals(75, first.getCostCents());
+        assertEquals(225, first.getMarginCents());
+        assertEquals(6, rows.get(rows.size() - 1).getUnits());
+    }
+
+    @Test
+    void testRows_OneSection(@TempDir Path dir) {
+        ProfitSheetReader reader = new ProfitSheetReader(writeSheet(dir, 2, 3));
+
+        assertEquals(List.of("Snack"), labels(reader.rows(ProfitSheetReader.Section.CATEGORY)));
+        assertEquals(START.plusDays(2), reader.rows(ProfitSheetReader.Section.DAY).toList().get(2).getDate());
+    }
+
+    // === seek Tests ===
+    @Test
+    void testDays_RangeIsHalfOpen(@TempDir Path dir) {
+        ProfitSheetReader reader = new ProfitSheetReader(writeSheet(dir, 1, 365));
+
+        List<ProfitSheetReader.Row> march = reader.days(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 4, 1)).toList();
+        assertEquals(31, march.size());
+        assertEquals(LocalDate.of(2025, 3, 1), march.get(0).getDate());
+        assertEquals(LocalDate.of(2025, 3, 31), march.get(30).getDate());
+        assertEquals(0, reader.days(LocalDate.of(2026, 1, 1), LocalDate.of(2027, 1, 1)).count());
+        assertEquals(365, reader.days(LocalDate.of(2000, 1, 1), LocalDate.of(2030, 1, 1)).count());
+    }
+
+    @Test
+    void testProduct_BinarySearch(@TempDir Path dir) {
+        ProfitSheetReader reader = new ProfitSheetReader(writeSheet(dir, 500, 1));
+
+        for (int p = 0; p < 500; p += 37) {
+            String name = String.format("Item%04d", p);
+            assertEquals(100 + p, reader.product(name).orElseThrow().getRevenueCents(), name);
+        }
+        assertTrue(reader.product("Item0500").isEmpty());
+        assertTrue(reader.product("Aardvark").isEmpty());
+        assertEquals(List.of("Item0010", "Item0011"), labels(reader.products("Item0010", "Item0012")));
+        assertEquals(2, reader.products("Item0498", null).count());
+    }
+
+    @Test
+    void testProduct_SheetWithoutSection(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("Other.txt");
+        Files.writeString(file, "Item: Chips, Sold: 5\n");
+        ProfitSheetReader reader = new ProfitSheetReader(file);
+
+        assertTrue(reader.product("Chips").isEmpty());
+        assertEquals(0, reader.rows().count());
+    }
+
+    // === forEachLine Tests ===
+    @Test
+    void testForEachLine_PrintsRawLines(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("Other.txt");
+        Files.writeString(file, "first\r\n\nlast without newline");
+        List<String> lines = new ArrayList<>();
+        new ProfitSheetReader(file).forEachLine(lines::add);
+
+        assertEquals(List.of("first", "", "last without newline"), lines);
+    }
+
+    @Test
+    void testOpen_MissingFile(@TempDir Path dir) {
+        assertThrows(UncheckedIOException.class, () -> new ProfitSheetReader(dir.resolve("missing.txt")));
+    }
+}
@@ -0,0 +1,108 @@
+import org.example.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PurchaseHistoryTest {
+
+    private final Product chips = new Snack("Chips", 1.5, "Snack", 5, 10, "", LocalDate.of(2030, 1, 1), 50);
+    private final Product candy = new Snack("Candy", 1.0, "Snack", 5, 10, "", LocalDate.of(2030, 1, 1), 30);
+    private final Product cola = new Drink("Cola", 2.0, "Drink", 5, 10, "", LocalDate.of(2030, 1, 1), 500);
+
+    // === add Tests ===
+    @Test
+    void testAdd_KeepsPricePaid() {
+        PurchaseHistory history = new PurchaseHistory();
+        history.add(chips, 150, 1000);
+        chips.setPrice(9.99);
+
+        PurchaseHistory.Purchase purchase = history.getPurchases().get(0);
+        assertSame(chips.getSku(), purchase.getSku());
+        assertEquals(150, purchase.getPriceCents());
+        assertEquals(1000, purchase.getEpochMillis());
+        assertEquals(1.5, history.toProducts().get(0).getPrice());
+        assertInstanceOf(Snack.class, history.toProducts().get(0));
+    }
+
+    @Test
+    void testAdd_BoundedRing() {
+        PurchaseHistory history = new PurchaseHistory(3);
+        history.add(chips, 150, 1);
+        history.add(candy, 100, 2);
+        history.add(cola, 200, 3);
+        history.add(chips, 150, 4);
+
+        assertEquals(3, history.size());
+        assertEquals(4, history.getTotal());
+        assertEquals(List.of(2L, 3L, 4L), history.getPurchases().stream().map(PurchaseHistory.Purchase::getEpochMillis).toList());
+        assertEquals(1, history.count(chips.getSku()));
+        assertThrows(IllegalArgumentException.class, () -> new PurchaseHistory(0));
+    }
+
+    // === favorite Tests ===
+    @Test
+    void testFavorite_FollowsTheWindow() {
+        PurchaseHistory history = new PurchaseHistory(4);
+        assertNull(history.favorite());
+        history.add(chips, 150, 1);
+        history.add(chips, 150, 2);
+        history.add(cola, 200, 3);
+        assertSame(chips.getSku(), history.favorite());
+
+        history.add(cola, 200, 4);
+        history.add(cola, 200, 5);
+        history.add(candy, 100, 6);
+        assertSame(cola.getSku(), history.favorite());
+        assertEquals(List.of(cola.getSku(), candy.getSku()), history.favorites(2));
+        assertEquals(0, history.count(chips.getSku()));
+    }
+
+    @Test
+    void testFavorite_MatchesRecount() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            products.add(new Snack("History item " + i, 1.0, "Snack", 0, 0, "", null, 0));
+        }
+        PurchaseHistory history = new PurchaseHistory(16);
+        Random random = new Random(42);
+        for (int n = 0; n < 5000; n++) {
+            history.add(products.get(random.nextInt(products.size())), 100, n);
+            Map<Sku, Integer> counts = new HashMap<>();
+            history.getPurchases().forEach(p -> counts.merge(p.getSku(), 1, Integer::sum));
+            int most = counts.values().stream().max(Integer::compare).orElseThrow();
+            assertEquals(most, history.count(history.favorite()));
+            for (Product product : products) {
+                assertEquals(counts.getOrDefault(product.getSku(), 0), history.count(product.getSku()));
+            }
+        }
+    }
+
+    // === Buyer Tests ===
+    @Test
+    void testBuy_RecordedOnce() {
+        Displays.set(Displays.NO_OP);
+        try {
+            VendingMachine vm = new VendingMachine();
+            vm.setDisplay(Displays.NO_OP);
+            vm.getInventory().add(chips);
+            vm.addMoney(new Money(Map.of(1.0, 1, 0.5, 1)));
+            Buyer buyer = new Buyer("Alice");
+            buyer.setSelectedProduct(chips);
+            buyer.buy(vm);
+
+            assertEquals(1, buyer.getPurchaseHistory().size());
+            assertEquals(1, buyer.getPurchases().getTotal());
+            assertSame(chips.getSku(), buyer.getPurchases().favorite());
+        } finally {
+            Displays.set(null);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+import org.example.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SalesStoreTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long START = 1_750_000_000_000L / HOUR * HOUR;
+
+    private final Sku chips = Sku.of("Chips");
+    private final Sku cola = Sku.of("Cola");
+
+    /**
+     * Fills a store with one Chips sale every minute for the given number of hours, each priced at its minute of the hour.
+     */
+    private static SalesStore minutely(SalesStore store, Sku sku, int hours) {
+        for (int minute = 0; minute < hours * 60; minute++) {
+            store.add(START + minute * 60_000L, sku, minute % 60, minute);
+        }
+        return store;
+    }
+
+    // === add Tests ===
+    @Test
+    void testAdd_BucketsByHour() {
+        SalesStore store = minutely(new SalesStore(), chips, 3);
+
+        assertEquals(180, store.size());
+        assertEquals(3, store.getBucketCount());
+    }
+
+    @Test
+    void testAdd_OutOfOrderSaleIsSlottedIn() {
+        SalesStore store = new SalesStore();
+        store.add(START + 3 * HOUR, chips, 150, 1);
+        store.add(START + 10, cola, 200, 2);
+        store.add(START + 5, chips, 150, 3);
+
+        List<SaleRecord> sales = store.between(Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(List.of(START + 5, START + 10, START + 3 * HOUR),
+                sales.stream().map(SaleRecord::getEpochMillis).toList());
+        assertEquals("Cola", sales.get(1).getProductName());
+        assertEquals(2, sales.get(1).getBuyerId());
+    }
+
+    @Test
+    void testAdd_DropsOldestBuckets() {
+        SalesStore store = minutely(new SalesStore(HOUR, 2), chips, 5);
+
+        assertEquals(2, store.getBucketCount());
+        assertEquals(120, store.size());
+        assertEquals(START + 3 * HOUR, store.between(Long.MIN_VALUE, Long.MAX_VALUE).get(0).getEpochMillis());
+    }
+
+    @Test
+    void testAdd_InvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new SalesStore(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new SalesStore(HOUR, 0));
+        assertThrows(IllegalArgumentException.class, () -> new SalesStore().add(START, null, 100, 1));
+    }
+
+    // === range Tests ===
+    @Test
+    void testBetween_HalfOpenAcrossBuckets() {
+        SalesStore store = minutely(new SalesStore(), chips, 4);
+
+        List<SaleRecord> sales = store.between(START + HOUR + 30 * 60_000L, START + 3 * HOUR);
+        assertEquals(90, sales.size());
+        assertEquals(START + HOUR + 30 * 60_000L, sales.get(0).getEpochMillis());
+        assertEquals(START + 3 * HOUR - 60_000L, sales.get(89).getEpochMillis());
+        assertTrue(store.between(START + 5 * HOUR, START + 6 * HOUR).isEmpty());
+    }
+
+    @Test
+    void testCountAndRevenue_MatchAScan() {
+        SalesStore store = minutely(new SalesStore(), chips, 6);
+        long from = START + 45 * 60_000L;
+        long to = START + 4 * HOUR + 15 * 60_000L;
+
+        List<SaleRecord> sales = store.between(from, to);
+        assertEquals(sales.size(), store.count(from, to));
+        assertEquals(sales.stream().mapToLong(SaleRecord::getPriceCents).sum(), store.revenueCents(from, to));
+        assertEquals(6 * 60, store.count(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(6 * (59 * 60 / 2), store.revenueCents(START, START + 6 * HOUR));
+    }
+
+    @Test
+    void testForEach_VisitsFields() {
+        SalesStore store = new SalesStore();
+        store.add(START, chips, 150, 7);
+        store.add(START + 1, cola, 200, 8);
+        List<String> seen = new ArrayList<>();
+        store.forEach(START, START + 1, (time, sku, price, buyer) -> seen.add(sku.getName() + price + "/" + buyer));
+
+        assertEquals(List.of("Chips150/7"), seen);
+    }
+
+    // === newest Tests ===
+    @Test
+    void testNewest_OldestFirst() {
+        SalesStore store = minutely(new SalesStore(), chips, 2);
+
+        List<SaleRecord> newest = store.newest(3);
+        assertEquals(List.of(117, 118, 119), newest.stream().map(SaleRecord::getBuyerId).toList());
+        assertEquals(119, store.fromNewest(0).getBuyerId());
+        assertEquals(0, store.fromNewest(119).getBuyerId());
+        assertThrows(IndexOutOfBoundsException.class, () -> store.fromNewest(120));
+        assertEquals(120, store.newest(500).size());
+    }
+
+    // === VendingMachine Tests ===
+    @Test
+    void testSalesLog_RenderedFromStore() {
+        VendingMachine vm = new VendingMachine();
+        vm.setDisplay(Displays.NO_OP);
+        Snack chipsItem = new Snack("Chips", 1.5, "Snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        vm.getInventory().add(chipsItem);
+        Buyer buyer = new Buyer("Alice");
+        vm.addMoney(new Money(Map.of(1.5, 1)));
+        long before = System.currentTimeMillis();
+        assertTrue(vm.dispenseItem(buyer, chipsItem));
+
+        SaleRecord sale = vm.getSalesStore().fromNewest(0);
+        assertEquals(buyer.getId(), sale.getBuyerId());
+        assertEquals(1, vm.getSalesStore().count(before, Long.MAX_VALUE));
+        assertEquals(List.of(sale.toLogLine()), vm.getSalesLog());
+        assertThrows(UnsupportedOperationException.class, () -> vm.getSalesLog().add("a sale"));
+    }
+
+    @Test
+    void testSetSalesLog_ParsesLines() {
+        VendingMachine vm = new VendingMachine();
+        vm.setSalesLog(List.of("2025-05-11 22:41:25 - Chips sold for $1.50", "not a sale"));
+
+        assertEquals(List.of("2025-05-11 22:41:25 - Chips sold for $1.50"), vm.getSalesLog());
+        assertEquals(150, vm.getSalesStore().fromNewest(0).getPriceCents());
+        assertEquals(SaleRecord.UNKNOWN_BUYER, vm.getSalesStore().fromNewest(0).getBuyerId());
+    }
+
+    // === Sku Tests ===
+    @Test
+    void testSkuById_FindsRegisteredSku() {
+        assertSame(chips, Sku.byId(chips.getId()));
+        assertNull(Sku.byId(-1));
+        assertNull(Sku.byId(Integer.MAX_VALUE));
+    }
+}
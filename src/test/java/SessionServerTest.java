@@ -0,0 +1,148 @@
+import org.example.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionServerTest {
+
+    private VendingMachine vm;
+    private Product chips;
+    private SessionServer server;
+    private int port;
+
+    /**
+     * A blocking line client for the session protocol.
+     */
+    private static class Client implements AutoCloseable {
+        final Socket socket;
+        final BufferedReader in;
+        final PrintWriter out;
+
+        Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        }
+
+        String send(String line) throws IOException {
+            out.println(line);
+            return in.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        Displays.set(Displays.NO_OP);
+        vm = new VendingMachine();
+        vm.setDisplay(Displays.NO_OP);
+        chips = new Snack("Chips", 1.5, "Snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        vm.getInventory().add(chips);
+        vm.loadFloat(new Money(Map.of(0.5, 4)));
+        server = new SessionServer(vm, Map.of(
+                "Admin", new Operator("Admin", AccessLevel.ADMIN),
+                "Staff", new Operator("Staff", AccessLevel.STAFF)));
+        port = server.start(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+        Displays.set(null);
+    }
+
+    // === binding Tests ===
+    @Test
+    void testStart_ListensOnLoopbackOnly() {
+        assertTrue(server.getAddress().isLoopbackAddress());
+        assertEquals(port, server.getPort());
+    }
+
+    // === buyer Tests ===
+    @Test
+    void testBuy_ChooseMoneyBuy() throws IOException {
+        try (Client client = new Client(port)) {
+            assertTrue(client.send("BUYER Alice").startsWith("OK buyer"));
+            assertEquals("OK Chips 1.50 5", client.send("CHOOSE Chips"));
+            assertEquals("OK 2.00", client.send("MONEY 2.00 1"));
+            assertEquals("OK Chips 0.50", client.send("BUY"));
+            assertEquals("OK bye", client.send("QUIT"));
+        }
+        assertEquals(4, chips.getStock());
+    }
+
+    @Test
+    void testBuy_SessionsDoNotShareMoney() throws IOException {
+        try (Client alice = new Client(port); Client bob = new Client(port)) {
+            alice.send("MONEY 1.00 1");
+            bob.send("CHOOSE Chips");
+            assertEquals("ERR purchase failed", bob.send("BUY"));
+            assertEquals("OK 1.00", alice.send("REFUND"));
+        }
+        assertEquals(5, chips.getStock());
+    }
+
+    @Test
+    void testBuy_ErrorsAreReplies() throws IOException {
+        try (Client client = new Client(port)) {
+            assertEquals("ERR no product chosen", client.send("BUY"));
+            assertEquals("ERR no such product Gum", client.send("CHOOSE Gum"));
+            assertEquals("ERR invalid number", client.send("MONEY lots 1"));
+            assertEquals("ERR unknown command DANCE", client.send("DANCE"));
+            assertEquals("ERR missing arguments", client.send("CHOOSE"));
+        }
+    }
+
+    // === operator Tests ===
+    @Test
+    void testOperator_RestockAndPrice() throws IOException {
+        try (Client client = new Client(port)) {
+            assertEquals("ERR operator login required", client.send("RESTOCK Chips 2"));
+            assertEquals("OK operator Admin ADMIN", client.send("OPERATOR Admin"));
+            assertEquals("OK Chips 7", client.send("RESTOCK Chips 2"));
+            assertEquals("OK Chips 1.25", client.send("PRICE Chips 1.25"));
+            assertTrue(client.send("RESTOCK Chips 100").startsWith("ERR"));
+        }
+        assertEquals(1.25, chips.getPrice());
+    }
+
+    @Test
+    void testOperator_StaffCannotChangePrice() throws IOException {
+        try (Client client = new Client(port)) {
+            client.send("OPERATOR Staff");
+            assertEquals("ERR price not changed", client.send("PRICE Chips 0.10"));
+            assertEquals("ERR no such operator Mallory", client.send("OPERATOR Mallory"));
+        }
+    }
+
+    // === LoadGenerator Tests ===
+    @Test
+    void testLoadGenerator_ConcurrentBuyers() throws InterruptedException {
+        chips.setMaxCapacity(1000);
+        chips.restock(995);
+        LoadGenerator.Report report = new LoadGenerator(port).run(200, 2);
+
+        assertEquals(0, report.getFailedBuyers());
+        assertEquals(200 * 2 * 4, report.getRequests());
+        assertEquals(0, report.getRejected());
+        assertEquals(600, chips.getStock());
+        assertTrue(report.getPercentileNanos(50) <= report.getPercentileNanos(99));
+    }
+}
@@ -0,0 +1,107 @@
+import org.example.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionTest {
+
+    // === dispenseItem Tests ===
+    @Test
+    void testDispenseItem_SessionsKeepSeparateMoney() {
+        VendingMachine vm = new VendingMachine();
+        Snack chips = new Snack("Chips", 1.5, "snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        vm.getInventory().add(chips);
+        Session alice = vm.openSession(new Buyer("Alice"));
+        Session bob = vm.openSession(new Buyer("Bob"));
+        alice.addMoney(new Money(Map.of(1.5, 1)));
+        bob.addMoney(new Money(Map.of(1.0, 1)));
+
+        assertTrue(vm.dispenseItem(alice, chips));
+        assertFalse(vm.dispenseItem(bob, chips));
+        assertEquals(0, alice.getMoney().totalCents());
+        assertEquals(100, bob.getMoney().totalCents());
+        assertEquals(4, chips.getStock());
+    }
+
+    @Test
+    void testDispenseItem_ChangeFromFloat() {
+        VendingMachine vm = new VendingMachine();
+        Snack chips = new Snack("Chips", 1.5, "snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        vm.getInventory().add(chips);
+        vm.loadFloat(new Money(Map.of(0.5, 2)));
+        Session session = vm.openSession(new Buyer("Alice"));
+        session.addMoney(new Money(Map.of(2.0, 1)));
+
+        assertTrue(vm.dispenseItem(session, chips));
+        assertEquals(250, vm.getMachineFloat().totalCents());
+        assertEquals(1, vm.getMachineFloat().countOf(50));
+    }
+
+    @Test
+    void testDispenseItem_NoChangeKeepsFloat() {
+        VendingMachine vm = new VendingMachine();
+        Snack chips = new Snack("Chips", 1.5, "snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        vm.getInventory().add(chips);
+        Session session = vm.openSession(new Buyer("Alice"));
+        session.addMoney(new Money(Map.of(2.0, 1)));
+
+        assertFalse(vm.dispenseItem(session, chips));
+        assertEquals(0, vm.getMachineFloat().totalCents());
+        assertEquals(200, session.getMoney().totalCents());
+        assertEquals(5, chips.getStock());
+    }
+
+    @Test
+    void testDispenseItem_ConcurrentBuyersNeverOversell() throws Exception {
+        VendingMachine vm = new VendingMachine();
+        Snack chips = new Snack("Chips", 1.0, "snack", 10, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        vm.getInventory().add(chips);
+        int buyers = 64;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < buyers; i++) {
+            Session session = vm.openSession(new Buyer("Buyer" + i));
+            session.addMoney(new Money(Map.of(1.0, 1)));
+            futures.add(executor.submit(() -> {
+                start.await();
+                if (vm.dispenseItem(session, chips)) {
+                    sold.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(10, sold.get());
+        assertEquals(0, chips.getStock());
+        assertEquals(1000, vm.getMachineFloat().totalCents());
+    }
+
+    // === closeSession Tests ===
+    @Test
+    void testCloseSession_RefundsUnspentMoney() {
+        VendingMachine vm = new VendingMachine();
+        Session session = vm.openSession(new Buyer("Alice"));
+        session.addMoney(new Money(Map.of(1.0, 2)));
+
+        Money refund = vm.closeSession(session);
+        assertEquals(200, refund.totalCents());
+        assertEquals(0, session.getMoney().totalCents());
+        assertTrue(vm.getSessions().isEmpty());
+    }
+}
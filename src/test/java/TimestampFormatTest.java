@@ -0,0 +1,65 @@
+import org.example.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.SimpleDateFormat;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimestampFormatTest {
+
+    private static final long MAY_11 = 1_747_003_285_000L;
+
+    // === format Tests ===
+    @Test
+    void testFormat_InZone() {
+        TimestampFormat format = new TimestampFormat(ZoneOffset.UTC);
+        assertEquals("2025-05-11 22:41:25", format.format(MAY_11));
+        assertEquals("2025-05-11 22:41:25", format.format(MAY_11 + 999));
+        assertEquals("2025-05-11 22:41:26", format.format(MAY_11 + 1000));
+    }
+
+    @Test
+    void testFormat_SameSecondReusesText() {
+        TimestampFormat format = new TimestampFormat(ZoneOffset.UTC);
+        assertSame(format.format(MAY_11 + 10), format.format(MAY_11 + 500));
+    }
+
+    @Test
+    void testFormat_BeforeEpoch() {
+        assertEquals("1969-12-31 23:59:59", new TimestampFormat(ZoneOffset.UTC).format(-1));
+    }
+
+    // === parse Tests ===
+    @Test
+    void testParse_RoundTrip() {
+        TimestampFormat format = new TimestampFormat(ZoneOffset.ofHours(2));
+        assertEquals(MAY_11, format.parse(format.format(MAY_11 + 250)));
+        assertThrows(DateTimeParseException.class, () -> format.parse("yesterday"));
+        assertThrows(IllegalArgumentException.class, () -> new TimestampFormat(null));
+    }
+
+    // === SaleRecord Tests ===
+    @Test
+    void testToLogLine_MatchesSimpleDateFormat() {
+        String time = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(MAY_11));
+        assertEquals(time + " - Chips sold for $1.50", new SaleRecord(MAY_11, 150, 1, "Chips").toLogLine());
+        assertEquals(time + " - Gum sold for $0.05", new SaleRecord(MAY_11, 5, 1, "Gum").toLogLine());
+        assertEquals(time + " - Free sold for $0.00", new SaleRecord(MAY_11, 0, 1, "Free").toLogLine());
+        assertEquals(time + " - Refund sold for $-0.25", new SaleRecord(MAY_11, -25, 1, "Refund").toLogLine());
+    }
+
+    @Test
+    void testParseLogLine_RoundTrip() {
+        SaleRecord sale = new SaleRecord(MAY_11, 1234, 7, "Big - Bag");
+        SaleRecord parsed = SaleRecord.parseLogLine(sale.toLogLine());
+
+        assertEquals(MAY_11, parsed.getEpochMillis());
+        assertEquals(1234, parsed.getPriceCents());
+        assertEquals("Big - Bag", parsed.getProductName());
+        assertNull(SaleRecord.parseLogLine("Recorded in journal: /tmp"));
+    }
+}
@@ -0,0 +1,210 @@
+import org.example.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserRegistryTest {
+
+    @AfterEach
+    void resetAllocator() {
+        User.setIdAllocator(null);
+    }
+
+    // === IdAllocator Tests ===
+    @Test
+    void testNext_ConcurrentUsersGetUniqueIds() throws InterruptedException {
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    ids.add(new Buyer("Buyer").getId());
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(8000, ids.size());
+    }
+
+    @Test
+    void testPersistent_ResumesAfterRestart(@TempDir Path dir) {
+        Path file = dir.resolve("user-ids");
+        IdAllocator first = IdAllocator.persistent(file, 10);
+        assertEquals(0, first.next());
+        assertEquals(1, first.next());
+
+        IdAllocator restarted = IdAllocator.persistent(file, 10);
+        assertEquals(10, restarted.next());
+        assertEquals(first.getFile(), restarted.getFile());
+    }
+
+    @Test
+    void testPersistent_SharedFileNeverRepeatsIds(@TempDir Path dir) {
+        Path file = dir.resolve("user-ids");
+        IdAllocator machineA = IdAllocator.persistent(file, 3);
+        IdAllocator machineB = IdAllocator.persistent(file, 3);
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            assertTrue(ids.add(machineA.next()));
+            assertTrue(ids.add(machineB.next()));
+        }
+    }
+
+    @Test
+    void testSetIdAllocator_UsedByNewUsers(@TempDir Path dir) {
+        int start = User.getNextId();
+        User.setIdAllocator(IdAllocator.persistent(dir.resolve("user-ids"), 100));
+        assertEquals(start, new Buyer("Alice").getId());
+        assertEquals(start + 1, new Operator("Admin", AccessLevel.ADMIN).getId());
+        assertEquals(start + 2, User.getNextId());
+        assertThrows(IllegalArgumentException.class, () -> IdAllocator.persistent(dir.resolve("x"), 0));
+    }
+
+    @Test
+    void testSetIdAllocator_SkipsIdsAlreadyIssued(@TempDir Path dir) {
+        Buyer before = new Buyer("Alice");
+        User.setIdAllocator(IdAllocator.persistent(dir.resolve("user-ids"), 3));
+        Buyer persisted = new Buyer("Bob");
+        assertTrue(persisted.getId() > before.getId());
+
+        User.setIdAllocator(null);
+        assertTrue(new Buyer("Carol").getId() > persisted.getId());
+    }
+
+    @Test
+    void testSkipTo_PersistentStartsPastFile(@TempDir Path dir) {
+        Path file = dir.resolve("user-ids");
+        IdAllocator first = IdAllocator.persistent(file, 10);
+        first.skipTo(25);
+        assertEquals(25, first.next());
+
+        IdAllocator restarted = IdAllocator.persistent(file, 10);
+        assertEquals(35, restarted.next());
+        first.skipTo(5);
+        assertEquals(26, first.next());
+    }
+
+    // === UserRegistry Tests ===
+    @Test
+    void testRegister_FindByIdAndName() {
+        UserRegistry registry = new UserRegistry();
+        Buyer alice = new Buyer("Alice");
+        Operator admin = new Operator("Admin", AccessLevel.ADMIN);
+        registry.register(alice);
+        registry.register(admin);
+
+        assertSame(alice, registry.find(alice.getId()));
+        assertSame(admin, registry.find("Admin"));
+        assertNull(registry.find("Bob"));
+        assertEquals(List.of(alice, admin), registry.getUsers());
+    }
+
+    @Test
+    void testRegister_SharedNamesAccepted() {
+        UserRegistry registry = new UserRegistry();
+        Buyer first = new Buyer();
+        Buyer second = new Buyer();
+        registry.register(first);
+        registry.register(second);
+
+        assertThrows(IllegalArgumentException.class, () -> registry.register(first));
+        assertEquals(2, registry.size());
+        assertSame(first, registry.find("Unknown Buyer"));
+        assertEquals(List.of(first, second), registry.findAll("Unknown Buyer"));
+        assertTrue(registry.unregister(first));
+        assertSame(second, registry.find("Unknown Buyer"));
+    }
+
+    @Test
+    void testSetName_RegistryFollowsRename() {
+        UserRegistry registry = new UserRegistry();
+        Buyer alice = new Buyer("Alice");
+        registry.register(alice);
+
+        alice.setName("Alicia");
+        assertNull(registry.find("Alice"));
+        assertSame(alice, registry.find("Alicia"));
+        assertTrue(registry.unregister(alice));
+        assertNull(registry.find("Alicia"));
+        assertTrue(registry.findAll("Alice").isEmpty());
+
+        alice.setName("Ali");
+        assertNull(registry.find("Ali"));
+    }
+
+    @Test
+    void testUnregister_FreesIdAndName() {
+        UserRegistry registry = new UserRegistry();
+        Buyer alice = new Buyer("Alice");
+        registry.register(alice);
+
+        assertTrue(registry.unregister(alice));
+        assertFalse(registry.unregister(alice));
+        assertNull(registry.find("Alice"));
+        registry.register(new Buyer("Alice"));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    void testRegister_Concurrent() throws InterruptedException {
+        UserRegistry registry = new UserRegistry();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 500; i++) {
+                    registry.register(new Buyer("Buyer " + thread + "-" + i));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(2000, registry.size());
+        assertNotNull(registry.find("Buyer 3-499"));
+    }
+
+    // === VendingMachine Tests ===
+    @Test
+    void testVendingMachine_UsersAreRegistered() {
+        Buyer alice = new Buyer("Alice");
+        VendingMachine vm = new VendingMachine(List.of(alice), List.of(), new Money());
+
+        assertSame(alice, vm.getUserRegistry().find("Alice"));
+        assertEquals(List.of(alice), vm.getUsers());
+    }
+
+    @Test
+    void testVendingMachine_AddAndRemoveUsers() {
+        VendingMachine vm = new VendingMachine();
+        Buyer first = new Buyer();
+        Buyer second = new Buyer();
+        vm.addUser(first);
+        vm.addUser(second);
+
+        assertEquals(List.of(first, second), vm.getUsers());
+        assertTrue(vm.removeUser(first));
+        assertFalse(vm.removeUser(first));
+        assertEquals(List.of(second), vm.getUsers());
+    }
+}
@@ -71,6 +71,20 @@ public class VendingMachineTest {
         assertTrue(vm.getSalesLog().isEmpty());
     }
 
+    @Test
+    void testDispenseItem_CopySellsStockedProduct() {
+        VendingMachine vm = new VendingMachine();
+        Snack chips = new Snack("Chips", 1.5, "snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        Snack copy = new Snack("Chips", 1.5, "snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        Buyer buyer = new Buyer("John");
+        vm.getInventory().add(chips);
+        vm.addMoney(new Money(Map.of(1.5, 1)));
+
+        assertTrue(vm.dispenseItem(buyer, copy));
+        assertEquals(4, chips.getStock());
+        assertEquals(5, copy.getStock());
+    }
+
     // === selectItem Tests ===
     @Test
     void testSelectItem_ExistingProduct() {
@@ -195,6 +209,20 @@ public class VendingMachineTest {
         assertEquals(5, chips.getStock());
     }
 
+    @Test
+    void testReloadProduct_CopyRestocksStockedProduct() {
+        VendingMachine vm = new VendingMachine();
+        Snack chips = new Snack("Chips", 1.5, "snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        Snack copy = new Snack("Chips", 1.5, "snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+        Operator operator = new Operator("Staff", AccessLevel.STAFF);
+        vm.getInventory().add(chips);
+
+        vm.reloadProduct(copy, 3, operator);
+        assertEquals(8, chips.getStock());
+        assertEquals(5, copy.getStock());
+        assertEquals(1, vm.getInventory().size());
+    }
+
     // === changePrice Tests ===
     @Test
     void testChangePrice_ValidPriceAdmin() {
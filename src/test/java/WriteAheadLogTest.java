@@ -0,0 +1,163 @@
+import org.example.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteAheadLogTest {
+
+    private Snack chips;
+
+    @BeforeEach
+    void setUp() {
+        Displays.set(Displays.NO_OP);
+        chips = new Snack("Chips", 1.5, "Snack", 5, 10, "salted", LocalDate.of(2030, 1, 1), 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Displays.set(null);
+    }
+
+    private VendingMachine machine(Path journal) {
+        VendingMachine vm = new VendingMachine();
+        vm.getInventory().add(chips);
+        vm.setJournal(new Journal(journal));
+        vm.setWriteAheadLogging(true);
+        return vm;
+    }
+
+    private static List<Byte> types(Path journal) {
+        List<Byte> types = new ArrayList<>();
+        Journal.replay(journal, (type, payload) -> types.add(type));
+        return types;
+    }
+
+    // === dispenseItem Tests ===
+    @Test
+    void testDispense_WritesIntentThenCommit(@TempDir Path dir) {
+        VendingMachine vm = machine(dir);
+        vm.addMoney(new Money(Map.of(2.0, 1)));
+        assertFalse(vm.dispenseItem(new Buyer("Alice"), chips));
+        vm.addMoney(new Money(Map.of(1.0, 1, 0.5, 1)));
+        assertTrue(vm.dispenseItem(new Buyer("Bob"), chips));
+        vm.getJournal().close();
+
+        assertEquals(List.of(Journal.INTENT, Journal.ABORT, Journal.INTENT, Journal.COMMIT), types(dir));
+        List<TransactionIntent> intents = new ArrayList<>();
+        Journal.replay(dir, (type, payload) -> {
+            if (type == Journal.INTENT) {
+                intents.add(TransactionIntent.decode(payload));
+            }
+        });
+        assertEquals(200, intents.get(0).getPaidCents());
+        assertEquals(350, intents.get(1).getPaidCents());
+        assertEquals("Chips", intents.get(1).getSale().getProductName());
+        assertTrue(intents.get(0).getId() < intents.get(1).getId());
+    }
+
+    @Test
+    void testDispense_OffWritesSaleOnly(@TempDir Path dir) {
+        VendingMachine vm = machine(dir);
+        vm.setWriteAheadLogging(false);
+        vm.addMoney(new Money(Map.of(1.0, 1, 0.5, 1)));
+        assertTrue(vm.dispenseItem(new Buyer("Alice"), chips));
+        vm.getJournal().close();
+
+        assertEquals(List.of(Journal.SALE), types(dir));
+    }
+
+    // === restore Tests ===
+    @Test
+    void testRestore_ReplaysCommittedOnly(@TempDir Path dir) {
+        Path snapshot = dir.resolve("snapshot.bin");
+        Path journal = dir.resolve("journal");
+        VendingMachine vm = machine(journal);
+        vm.saveSnapshot(snapshot);
+        vm.addMoney(new Money(Map.of(1.0, 1, 0.5, 1)));
+        vm.dispenseItem(new Buyer("Alice"), chips);
+        vm.addMoney(new Money(Map.of(1.0, 1)));
+        vm.dispenseItem(new Buyer("Bob"), chips);
+        vm.getJournal().close();
+
+        VendingMachine restored = VendingMachine.restore(snapshot, journal);
+        restored.getJournal().close();
+
+        assertEquals(4, restored.getInventory().get(0).getStock());
+        assertEquals(vm.getSalesLog(), restored.getSalesLog());
+        assertTrue(restored.getRolledBackTransactions().isEmpty());
+    }
+
+    @Test
+    void testRestore_RollsBackUnfinished(@TempDir Path dir) {
+        Path snapshot = dir.resolve("snapshot.bin");
+        Path journal = dir.resolve("journal");
+        VendingMachine vm = machine(journal);
+        vm.saveSnapshot(snapshot);
+        vm.getJournal().append(Journal.SALE, new SaleRecord(1000, 150, 1, "Chips").encode());
+        vm.getJournal().append(Journal.INTENT, new TransactionIntent(7, 200, new SaleRecord(2000, 150, 2, "Chips")).encode());
+        vm.getJournal().close();
+
+        VendingMachine restored = VendingMachine.restore(snapshot, journal);
+        restored.getJournal().close();
+
+        assertEquals(4, restored.getInventory().get(0).getStock());
+        assertEquals(1, restored.getRolledBackTransactions().size());
+        TransactionIntent rolledBack = restored.getRolledBackTransactions().get(0);
+        assertEquals(7, rolledBack.getId());
+        assertEquals(200, rolledBack.getPaidCents());
+        assertEquals(Journal.ABORT, types(journal).get(types(journal).size() - 1));
+
+        VendingMachine again = VendingMachine.restore(snapshot, journal);
+        again.getJournal().close();
+        assertTrue(again.getRolledBackTransactions().isEmpty());
+        assertEquals(4, again.getInventory().get(0).getStock());
+    }
+
+    @Test
+    void testRestore_NewIdsFollowJournal(@TempDir Path dir) {
+        Path journal = dir.resolve("journal");
+        long future = (System.currentTimeMillis() + 86_400_000L) << 16;
+        try (Journal j = new Journal(journal)) {
+            j.append(Journal.INTENT, new TransactionIntent(future, 150, new SaleRecord(0, 150, 1, "Chips")).encode());
+            j.append(Journal.COMMIT, TransactionIntent.encodeOutcome(future));
+        }
+        VendingMachine restored = VendingMachine.restore(dir.resolve("missing.bin"), journal);
+        restored.getInventory().add(chips);
+        restored.setWriteAheadLogging(true);
+        restored.addMoney(new Money(Map.of(1.0, 1, 0.5, 1)));
+        assertTrue(restored.dispenseItem(new Buyer("Alice"), chips));
+        restored.getJournal().close();
+
+        List<Long> ids = new ArrayList<>();
+        Journal.replay(journal, (type, payload) -> {
+            if (type == Journal.COMMIT) {
+                ids.add(TransactionIntent.decodeOutcome(payload));
+            }
+        });
+        assertEquals(List.of(future, future + 1), ids);
+    }
+
+    // === TransactionIntent Tests ===
+    @Test
+    void testDecode_RoundTrip() {
+        TransactionIntent intent = new TransactionIntent(42, 300, new SaleRecord(5, 150, 3, "Cola"));
+        TransactionIntent decoded = TransactionIntent.decode(ByteBuffer.wrap(intent.encode()));
+
+        assertEquals(42, decoded.getId());
+        assertEquals(300, decoded.getPaidCents());
+        assertEquals("Cola", decoded.getSale().getProductName());
+        assertEquals(3, decoded.getSale().getBuyerId());
+        assertThrows(IllegalArgumentException.class, () -> new TransactionIntent(1, 0, null));
+    }
+}